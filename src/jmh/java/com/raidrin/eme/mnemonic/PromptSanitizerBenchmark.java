@@ -0,0 +1,60 @@
+package com.raidrin.eme.mnemonic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled PromptSanitizer with the original replaceAll chain on a typical image prompt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptSanitizerBenchmark {
+
+    private static final String PROMPT = "A cinematic, realistic scene: a brave knight holding a sword stands in a " +
+            "misty battle field at dawn, while a friendly dragon sips wine beside a holy temple. The knight looks " +
+            "scared but determined; villagers gather for a rally in the background, some crying, some cheering. " +
+            "Warm golden light, detailed textures, shallow depth of field.";
+
+    @Param({"1", "4"})
+    private int repeat;
+
+    private String prompt;
+    private PromptSanitizer sanitizer;
+
+    @Setup
+    public void setup() throws IOException {
+        prompt = (PROMPT + " ").repeat(repeat);
+        sanitizer = new PromptSanitizer(new InputStreamReader(
+                PromptSanitizerBenchmark.class.getResourceAsStream("/prompt-sanitizer-words.txt"),
+                StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String compiled() {
+        return sanitizer.sanitize(prompt);
+    }
+
+    @Benchmark
+    public String replaceAllChain() {
+        String sanitized = prompt;
+        sanitized = sanitized.replaceAll("(?i)\\b(weapon|gun|knife|sword|blade|blood|violence|fight|fighting|attack|kill|death|dead|murder|war|battle|combat|injury|hurt|wound|dangerous)\\b", "item");
+        sanitized = sanitized.replaceAll("(?i)\\b(sexy|sensual|seductive|romantic|intimate|kiss|embrace|hug|love|dating|flirt)\\b", "friendly");
+        sanitized = sanitized.replaceAll("(?i)\\b(political|politics|politician|election|vote|protest|rally|demonstration)\\b", "gathering");
+        sanitized = sanitized.replaceAll("(?i)\\b(religious|religion|worship|pray|prayer|sacred|holy|divine|god|goddess|deity)\\b", "peaceful");
+        sanitized = sanitized.replaceAll("(?i)\\b(alcohol|beer|wine|liquor|drunk|drug|smoking|cigarette|cigar|tobacco)\\b", "beverage");
+        sanitized = sanitized.replaceAll("(?i)\\b(scary|horror|terrifying|nightmare|fear|afraid|panic|scream|crying|sad|depressed)\\b", "surprised");
+        return sanitized.replaceAll("\\s+", " ").trim();
+    }
+}
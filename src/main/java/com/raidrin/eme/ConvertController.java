@@ -575,7 +575,7 @@ public class ConvertController {
 
                 // Calculate the filename that will be used
                 String imageFileName = FileNameSanitizer.fromMnemonicSentence(
-                    mnemonicData.getMnemonicSentence(), "jpg"
+                    mnemonicData.getMnemonicSentence(), "jpg", mnemonicData.getImagePrompt(), sourceText
                 );
 
                 // Store mnemonic data and filename in EmeData
@@ -1,23 +1,33 @@
 package com.raidrin.eme.audio;
 
 import com.google.cloud.texttospeech.v1.SsmlVoiceGender;
+import com.raidrin.eme.codec.Codec;
+import com.raidrin.eme.storage.blob.BlobStore;
+import com.raidrin.eme.storage.entity.AudioAssetEntity;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
+import com.raidrin.eme.storage.service.AudioAssetService;
+import com.raidrin.eme.storage.service.BlobUploadQueue;
+import com.raidrin.eme.util.AssetPaths;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -27,148 +37,234 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AsyncAudioGenerationService {
 
+    private static final String DEFAULT_QUEUE_KEY = "default";
+
     private final TextToAudioGenerator audioGenerator;
+    private final AudioCompactor audioCompactor;
+    private final TtsWorkerPool ttsWorkerPool;
+    private final AudioAssetService audioAssetService;
+    private final BlobStore blobStore;
+    private final BlobUploadQueue blobUploadQueue;
 
     @Value("${audio.output.directory:./generated_audio}")
     private String outputDirectory;
 
-    @Value("${audio.concurrency.level:5}")
-    private int audioConcurrencyLevel;
+    @Value("${audio.cache.upload-to-gcs:false}")
+    private boolean uploadToGcs;
+
+    @Value("${audio.tts.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${audio.tts.batch.max-items:20}")
+    private int batchMaxItems;
+
+    @Value("${audio.tts.batch.max-item-chars:40}")
+    private int batchMaxItemChars;
 
     /**
-     * Generate audio files asynchronously for multiple text items (sequential processing)
+     * Generate audio files asynchronously for multiple text items (sequential processing).
+     * Each item is queued on the shared {@link TtsWorkerPool} once the previous one is done, so no
+     * task executor thread waits for the pool.
      *
      * @param audioRequests List of audio generation requests
      * @return CompletableFuture with list of generated audio file paths
      */
-    @Async("taskExecutor")
     public CompletableFuture<List<AudioResult>> generateAudioFilesAsync(List<AudioRequest> audioRequests) {
-        try {
-            System.out.println("Starting async audio generation for " + audioRequests.size() + " items");
-
-            List<AudioResult> results = new ArrayList<>();
+        System.out.println("Starting async audio generation for " + audioRequests.size() + " items");
 
-            for (AudioRequest request : audioRequests) {
+        List<AudioResult> results = new ArrayList<>();
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (AudioRequest request : audioRequests) {
+            chain = chain.thenCompose(previous -> {
                 System.out.println("Generating audio for: " + request.getText() + " (" + request.getLanguageCode().getCode() + ")");
 
-                // Generate audio bytes
-                byte[] audioBytes = audioGenerator.generate(
-                    request.getText(),
-                    request.getLanguageCode(),
-                    request.getVoiceGender(),
-                    request.getVoiceName()
-                );
-
-                // Save to file
-                Path audioFilePath = saveAudioToFile(audioBytes, request.getFileName());
-
-                // Create result
-                AudioResult result = new AudioResult(
-                    audioFilePath.toString(),
-                    request.getFileName(),
-                    request.getText(),
-                    request.getLanguageCode().getCode()
-                );
-                results.add(result);
-
-                System.out.println("Generated audio file: " + audioFilePath);
-            }
+                // Reuse an indexed asset or synthesize and save (bounded by the shared TTS pool)
+                return ttsWorkerPool.submit(DEFAULT_QUEUE_KEY, () -> produceAudioFile(request));
+            }).thenAccept(produced -> {
+                results.add(toResult(request, produced));
+                System.out.println("Generated audio file: " + produced.path());
+            });
+        }
 
+        return chain.handle((done, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                System.err.println("Audio generation failed: " + cause.getMessage());
+                cause.printStackTrace();
+                throw new CompletionException(cause);
+            }
             System.out.println("All audio files generated successfully");
-            return CompletableFuture.completedFuture(results);
-
-        } catch (Exception e) {
-            System.err.println("Audio generation failed: " + e.getMessage());
-            e.printStackTrace();
-            return CompletableFuture.failedFuture(e);
-        }
+            return results;
+        });
     }
 
     /**
      * Generate audio files in parallel batches for better performance.
-     * Uses a dedicated thread pool to process multiple audio files concurrently.
+     * Work is queued on the shared {@link TtsWorkerPool}, so concurrency is bounded across all
+     * sessions and the returned future completes without blocking a task executor thread.
+     * When batching is enabled, short texts sharing a voice are synthesized together in one
+     * SSML request and split by mark timepoints; longer texts use one request each.
      *
      * @param audioRequests List of audio generation requests
      * @return CompletableFuture with list of generated audio results
      */
-    @Async("taskExecutor")
     public CompletableFuture<List<AudioResult>> generateAudioFilesParallel(List<AudioRequest> audioRequests) {
+        return generateAudioFilesParallel(DEFAULT_QUEUE_KEY, audioRequests);
+    }
+
+    /**
+     * Same as {@link #generateAudioFilesParallel(List)}, queued under the given caller key
+     * (e.g. the session) so concurrent callers are served round-robin.
+     */
+    public CompletableFuture<List<AudioResult>> generateAudioFilesParallel(String queueKey, List<AudioRequest> audioRequests) {
         if (audioRequests.isEmpty()) {
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
         long startTime = System.currentTimeMillis();
-        System.out.println("[AUDIO] Starting parallel audio generation for " + audioRequests.size() +
-            " items with concurrency level " + audioConcurrencyLevel);
+        List<List<AudioRequest>> workUnits = planWorkUnits(audioRequests);
+        System.out.println("[AUDIO] Queueing parallel audio generation for " + audioRequests.size() +
+            " items (" + workUnits.size() + " requests) under " + queueKey);
 
-        ExecutorService audioExecutor = Executors.newFixedThreadPool(audioConcurrencyLevel);
         List<AudioResult> results = Collections.synchronizedList(new ArrayList<>());
         List<String> errors = Collections.synchronizedList(new ArrayList<>());
-
-        try {
-            // Create futures for all audio requests
-            List<CompletableFuture<Void>> futures = audioRequests.stream()
-                .map(request -> CompletableFuture.runAsync(() -> {
-                    try {
-                        long itemStart = System.currentTimeMillis();
-
-                        // Generate audio bytes
-                        byte[] audioBytes = audioGenerator.generate(
-                            request.getText(),
-                            request.getLanguageCode(),
-                            request.getVoiceGender(),
-                            request.getVoiceName()
-                        );
-
-                        // Save to file
-                        Path audioFilePath = saveAudioToFile(audioBytes, request.getFileName());
-
-                        // Create result
-                        AudioResult result = new AudioResult(
-                            audioFilePath.toString(),
-                            request.getFileName(),
-                            request.getText(),
-                            request.getLanguageCode().getCode()
-                        );
-                        results.add(result);
-
-                        long itemDuration = System.currentTimeMillis() - itemStart;
-                        System.out.println("[AUDIO] Generated: " + request.getFileName() + " (" + itemDuration + "ms)");
-
-                    } catch (Exception e) {
-                        String error = "Audio generation failed for '" + request.getText() + "': " + e.getMessage();
-                        errors.add(error);
-                        System.err.println("[AUDIO] " + error);
-
-                        // Add failed result
-                        results.add(new AudioResult(null, request.getFileName(), request.getText(),
-                            request.getLanguageCode().getCode()));
-                    }
-                }, audioExecutor))
-                .collect(Collectors.toList());
-
-            // Wait for all to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
+        List<Long> itemDurations = Collections.synchronizedList(new ArrayList<>());
+
+        // Queue all work units; each one records its own results and errors
+        List<CompletableFuture<Void>> futures = workUnits.stream()
+            .map(unit -> ttsWorkerPool.submit(queueKey, () -> {
+                processWorkUnit(unit, results, errors, itemDurations);
+                return (Void) null;
+            }).exceptionally(e -> {
+                // Rejected by the pool: report every item of the unit as failed
+                for (AudioRequest request : unit) {
+                    errors.add("Audio generation rejected for '" + request.getText() + "': " + e.getMessage());
+                    results.add(new AudioResult(null, request.getFileName(), request.getText(),
+                        request.getLanguageCode().getCode()));
+                }
+                return null;
+            }))
+            .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
             long totalDuration = System.currentTimeMillis() - startTime;
             System.out.println("[AUDIO] Parallel generation completed: " + results.size() + " files in " +
                 totalDuration + "ms (avg " + (totalDuration / Math.max(1, audioRequests.size())) + "ms/file)");
+            logItemLatency(itemDurations);
 
             if (!errors.isEmpty()) {
                 System.err.println("[AUDIO] " + errors.size() + " errors occurred during audio generation");
             }
 
-            return CompletableFuture.completedFuture(new ArrayList<>(results));
+            return new ArrayList<>(results);
+        });
+    }
+
+    /**
+     * Group requests into units of work: short texts with the same voice settings are grouped
+     * (up to the batch size) for one SSML request, everything else is a unit of one.
+     */
+    private List<List<AudioRequest>> planWorkUnits(List<AudioRequest> audioRequests) {
+        List<List<AudioRequest>> units = new ArrayList<>();
+        if (!batchEnabled) {
+            audioRequests.forEach(request -> units.add(List.of(request)));
+            return units;
+        }
+
+        Map<String, List<AudioRequest>> batchable = new LinkedHashMap<>();
+        for (AudioRequest request : audioRequests) {
+            if (request.getText().length() > batchMaxItemChars) {
+                units.add(List.of(request));
+            } else {
+                String voiceKey = request.getLanguageCode() + "|" + request.getVoiceName() + "|" + request.getVoiceGender();
+                batchable.computeIfAbsent(voiceKey, k -> new ArrayList<>()).add(request);
+            }
+        }
+
+        for (List<AudioRequest> group : batchable.values()) {
+            for (int i = 0; i < group.size(); i += batchMaxItems) {
+                units.add(new ArrayList<>(group.subList(i, Math.min(i + batchMaxItems, group.size()))));
+            }
+        }
+        return units;
+    }
+
+    private void processWorkUnit(List<AudioRequest> unit, List<AudioResult> results,
+                                 List<String> errors, List<Long> itemDurations) {
+        long unitStart = System.currentTimeMillis();
+        List<Map.Entry<AudioRequest, ProducedAudio>> produced = new ArrayList<>();
+        List<AudioRequest> pending = new ArrayList<>();
+
+        if (unit.size() > 1) {
+            // Serve cached items first; only the rest go into the SSML batch
+            for (AudioRequest request : unit) {
+                try {
+                    ProducedAudio reused = findReusableAudio(request);
+                    if (reused != null) {
+                        produced.add(Map.entry(request, reused));
+                    } else {
+                        pending.add(request);
+                    }
+                } catch (Exception e) {
+                    pending.add(request);
+                }
+            }
+
+            if (pending.size() > 1) {
+                try {
+                    AudioRequest first = pending.get(0);
+                    List<byte[]> audio = audioGenerator.generateBatch(
+                        pending.stream().map(AudioRequest::getText).collect(Collectors.toList()),
+                        first.getLanguageCode(),
+                        first.getVoiceGender(),
+                        first.getVoiceName()
+                    );
+                    System.out.println("[AUDIO] Batched " + pending.size() + " items in one request (" +
+                        (System.currentTimeMillis() - unitStart) + "ms)");
+                    List<AudioRequest> unsaved = new ArrayList<>();
+                    for (int i = 0; i < pending.size(); i++) {
+                        try {
+                            produced.add(Map.entry(pending.get(i), storeSynthesizedAudio(pending.get(i), audio.get(i))));
+                        } catch (Exception e) {
+                            unsaved.add(pending.get(i));
+                        }
+                    }
+                    pending = unsaved;
+                } catch (Exception e) {
+                    // Fall back to one request per item
+                    System.err.println("[AUDIO] Batched synthesis failed, falling back to single requests: " + e.getMessage());
+                }
+            }
+        } else {
+            pending.addAll(unit);
+        }
 
-        } finally {
-            audioExecutor.shutdown();
+        for (AudioRequest request : pending) {
+            try {
+                produced.add(Map.entry(request, produceAudioFile(request)));
+            } catch (Exception e) {
+                String error = "Audio generation failed for '" + request.getText() + "': " + e.getMessage();
+                errors.add(error);
+                System.err.println("[AUDIO] " + error);
+
+                // Add failed result
+                results.add(new AudioResult(null, request.getFileName(), request.getText(),
+                    request.getLanguageCode().getCode()));
+            }
         }
+
+        long perItemDuration = (System.currentTimeMillis() - unitStart) / Math.max(1, unit.size());
+        produced.forEach(entry -> {
+            AudioRequest request = entry.getKey();
+            results.add(toResult(request, entry.getValue()));
+            itemDurations.add(perItemDuration);
+            System.out.println("[AUDIO] Generated: " + request.getFileName() + " (" + perItemDuration + "ms)");
+        });
     }
 
     /**
      * Generate a single audio file asynchronously
      */
-    @Async("taskExecutor")
     public CompletableFuture<AudioResult> generateAudioFileAsync(AudioRequest request) {
         return generateAudioFilesAsync(List.of(request))
             .thenApply(results -> results.isEmpty() ? null : results.get(0));
@@ -179,21 +275,8 @@ public class AsyncAudioGenerationService {
      */
     public AudioResult generateAudioSync(AudioRequest request) {
         try {
-            byte[] audioBytes = audioGenerator.generate(
-                request.getText(),
-                request.getLanguageCode(),
-                request.getVoiceGender(),
-                request.getVoiceName()
-            );
-
-            Path audioFilePath = saveAudioToFile(audioBytes, request.getFileName());
-
-            return new AudioResult(
-                audioFilePath.toString(),
-                request.getFileName(),
-                request.getText(),
-                request.getLanguageCode().getCode()
-            );
+            ProducedAudio produced = ttsWorkerPool.submit(DEFAULT_QUEUE_KEY, () -> produceAudioFile(request)).get();
+            return toResult(request, produced);
         } catch (Exception e) {
             System.err.println("Audio generation failed for: " + request.getText() + " - " + e.getMessage());
             return new AudioResult(null, request.getFileName(), request.getText(),
@@ -201,16 +284,164 @@ public class AsyncAudioGenerationService {
         }
     }
 
-    private Path saveAudioToFile(byte[] audioBytes, String fileName) throws IOException {
-        // Create output directory if it doesn't exist
-        Path outputDir = Paths.get(outputDirectory);
-        if (!Files.exists(outputDir)) {
-            Files.createDirectories(outputDir);
+    /**
+     * Log per-file latency percentiles so changes to the TTS client setup can be compared run to run
+     */
+    private void logItemLatency(List<Long> itemDurations) {
+        List<Long> sorted;
+        synchronized (itemDurations) {
+            sorted = new ArrayList<>(itemDurations);
+        }
+        if (sorted.isEmpty()) {
+            return;
+        }
+        Collections.sort(sorted);
+        long p50 = sorted.get((sorted.size() - 1) / 2);
+        long p95 = sorted.get((int) Math.ceil(sorted.size() * 0.95) - 1);
+        long max = sorted.get(sorted.size() - 1);
+        System.out.println("[AUDIO] Per-file latency: p50=" + p50 + "ms, p95=" + p95 + "ms, max=" + max + "ms");
+    }
+
+    /**
+     * Produce the audio file for a request, synthesizing only when no identical asset exists.
+     * Assets are looked up by hash(text, language code, voice name, gender, encoding): a local copy
+     * is reused (copied when the requested file name differs), otherwise the blob store copy is
+     * downloaded. New syntheses are indexed and, if enabled, uploaded to the blob store.
+     */
+    private ProducedAudio produceAudioFile(AudioRequest request) throws IOException {
+        ProducedAudio reused = findReusableAudio(request);
+        if (reused != null) {
+            return reused;
+        }
+
+        byte[] audioBytes = audioGenerator.generate(
+            request.getText(),
+            request.getLanguageCode(),
+            request.getVoiceGender(),
+            request.getVoiceName()
+        );
+        return storeSynthesizedAudio(request, audioBytes);
+    }
+
+    /**
+     * @return the path of an already indexed asset materialized for this request, or null if it must be synthesized
+     */
+    private ProducedAudio findReusableAudio(AudioRequest request) throws IOException {
+        Optional<AudioAssetEntity> existingAsset = audioAssetService.findByAssetKey(assetKeyFor(request));
+        if (existingAsset.isEmpty()) {
+            return null;
+        }
+        Path reused = reuseExistingAsset(existingAsset.get(), resolveAudioPath(request.getFileName()));
+        return reused != null ? new ProducedAudio(reused, 0) : null;
+    }
+
+    /**
+     * Run the synthesized audio through the compaction stage, save it and index it.
+     * Bytes saved compare the stored file with the audio at the voice's native sample rate.
+     */
+    private ProducedAudio storeSynthesizedAudio(AudioRequest request, byte[] synthesizedBytes) throws IOException {
+        long originalBytes = audioGenerator.nativeSampleRateSize(synthesizedBytes);
+        byte[] audioBytes = audioCompactor.compact(synthesizedBytes);
+        long bytesSaved = Math.max(0, originalBytes - audioBytes.length);
+
+        String assetKey = assetKeyFor(request);
+        Path audioFilePath = saveAudioToFile(audioBytes, request.getFileName());
+        String fileName = audioFilePath.getFileName().toString();
+
+        audioAssetService.save(assetKey, request.getText(), request.getLanguageCode().getCode(), request.getVoiceName(),
+            genderName(request), outputFormat(), fileName, audioBytes.length);
+
+        if (uploadToGcs) {
+            try {
+                // Uploaded in the background; the asset's GCS URL is filled in once it finishes
+                blobUploadQueue.enqueue("audio/" + fileName, audioFilePath, "audio/mpeg",
+                    BlobUploadJobEntity.AssetType.AUDIO, assetKey);
+            } catch (Exception e) {
+                // Local file is authoritative; the blob copy is best effort
+                System.err.println("[AUDIO] Failed to queue GCS upload for " + fileName + ": " + e.getMessage());
+            }
+        }
+
+        return new ProducedAudio(audioFilePath, bytesSaved);
+    }
+
+    private String assetKeyFor(AudioRequest request) {
+        return AudioAssetService.computeAssetKey(request.getText(), request.getLanguageCode().getCode(),
+            request.getVoiceName(), genderName(request), outputFormat());
+    }
+
+    /**
+     * Audio format plus compaction settings; files produced with different settings are different assets.
+     */
+    private String outputFormat() {
+        String compaction = audioCompactor.describe();
+        return compaction.isEmpty() ? audioGenerator.getOutputFormat() : audioGenerator.getOutputFormat() + "+" + compaction;
+    }
+
+    private static AudioResult toResult(AudioRequest request, ProducedAudio produced) {
+        AudioResult result = new AudioResult(
+            produced.path().toString(),
+            request.getFileName(),
+            request.getText(),
+            request.getLanguageCode().getCode()
+        );
+        result.setBytesSaved(produced.bytesSaved());
+        return result;
+    }
+
+    /**
+     * Base name (without extension) of the audio file for a text spoken by the given voice.
+     */
+    public static String audioFileName(String text, String voiceName, SsmlVoiceGender voiceGender) {
+        return Codec.encodeForAudioFileName(text, voiceName, voiceGender != null ? voiceGender.name() : null);
+    }
+
+    private static String genderName(AudioRequest request) {
+        return request.getVoiceGender() != null ? request.getVoiceGender().name() : null;
+    }
+
+    /**
+     * Materialize an indexed asset at the target path from the local copy or the blob store.
+     *
+     * @return the target path, or null if the asset is no longer available anywhere
+     */
+    private Path reuseExistingAsset(AudioAssetEntity asset, Path targetPath) throws IOException {
+        if (Files.exists(targetPath) && asset.getFileName().equals(targetPath.getFileName().toString())) {
+            System.out.println("[AUDIO] Cache hit (local): " + asset.getFileName());
+            return targetPath;
         }
 
+        Path assetPath = resolveAudioPath(asset.getFileName());
+        if (Files.exists(assetPath)) {
+            Files.createDirectories(targetPath.getParent());
+            Files.copy(assetPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("[AUDIO] Cache hit (local copy): " + asset.getFileName() + " -> " + targetPath.getFileName());
+            return targetPath;
+        }
+
+        if (asset.getGcsUrl() != null) {
+            try (InputStream in = blobStore.get("audio/" + asset.getFileName())) {
+                Files.createDirectories(targetPath.getParent());
+                Files.copy(in, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("[AUDIO] Cache hit (" + blobStore.name() + "): " + asset.getFileName());
+                return targetPath;
+            } catch (Exception e) {
+                System.err.println("[AUDIO] Indexed asset missing from blob store, re-synthesizing: " + asset.getFileName());
+            }
+        }
+        return null;
+    }
+
+    private Path resolveAudioPath(String fileName) {
+        String fullFileName = fileName.endsWith(".mp3") ? fileName : fileName + ".mp3";
+        return AssetPaths.resolve(Paths.get(outputDirectory), fullFileName);
+    }
+
+    private Path saveAudioToFile(byte[] audioBytes, String fileName) throws IOException {
         // Ensure fileName has .mp3 extension
         String fullFileName = fileName.endsWith(".mp3") ? fileName : fileName + ".mp3";
-        Path filePath = outputDir.resolve(fullFileName);
+        Path filePath = AssetPaths.resolve(Paths.get(outputDirectory), fullFileName);
+        Files.createDirectories(filePath.getParent());
 
         // Write audio bytes to file
         try (FileOutputStream fos = new FileOutputStream(filePath.toFile())) {
@@ -241,5 +472,10 @@ public class AsyncAudioGenerationService {
         private final String fileName;
         private final String text;
         private final String languageCode;
+        /** Bytes removed by the compaction stage (0 for reused assets) */
+        private long bytesSaved;
+    }
+
+    private record ProducedAudio(Path path, long bytesSaved) {
     }
 }
@@ -0,0 +1,74 @@
+package com.raidrin.eme.audio;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional post-processing stage for generated MP3s that trims leading and trailing silence.
+ * Works on whole MP3 frames, so no decoding or re-encoding is needed. Together with a lower
+ * TTS sample rate ({@code audio.tts.sample-rate-hertz}) this keeps deck audio small.
+ */
+@Component
+public class AudioCompactor {
+
+    @Value("${audio.compact.trim-silence:false}")
+    private boolean trimSilence;
+
+    @Value("${audio.compact.silence-max-bits:0}")
+    private int silenceMaxBits;
+
+    @Value("${audio.compact.padding-frames:2}")
+    private int paddingFrames;
+
+    public boolean isEnabled() {
+        return trimSilence;
+    }
+
+    /**
+     * Identifies the compaction settings; part of the audio asset key so cached files
+     * produced with different settings are not mixed up.
+     */
+    public String describe() {
+        return trimSilence ? "trim" + silenceMaxBits + "p" + paddingFrames : "";
+    }
+
+    /**
+     * Trim leading and trailing silent frames, keeping {@code audio.compact.padding-frames}
+     * frames on each side so speech onsets are not clipped.
+     *
+     * @return the compacted audio, or the input unchanged if disabled or nothing could be trimmed
+     */
+    public byte[] compact(byte[] audioBytes) {
+        if (!trimSilence) {
+            return audioBytes;
+        }
+        try {
+            Mp3Frames frames = Mp3Frames.parse(audioBytes);
+            int count = frames.getFrames().size();
+
+            int first = 0;
+            while (first < count && frames.codedBits(first) <= silenceMaxBits) {
+                first++;
+            }
+            if (first == count) {
+                // Entirely silent; leave it alone rather than produce an empty file
+                return audioBytes;
+            }
+            int last = count - 1;
+            while (last > first && frames.codedBits(last) <= silenceMaxBits) {
+                last--;
+            }
+
+            int from = Math.max(0, first - paddingFrames);
+            int to = Math.min(count, last + 1 + paddingFrames);
+            if (from == 0 && to == count) {
+                return audioBytes;
+            }
+            byte[] compacted = frames.copyFrames(from, to);
+            return compacted.length < audioBytes.length ? compacted : audioBytes;
+        } catch (Exception e) {
+            System.err.println("[AUDIO] Skipping silence trim: " + e.getMessage());
+            return audioBytes;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.raidrin.eme.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal MPEG audio (Layer III) frame parser.
+ * Splits an MP3 stream into frames with their start times so audio can be cut at frame
+ * boundaries without decoding. Used to slice batched TTS output into per-item files.
+ */
+public final class Mp3Frames {
+
+    private static final int[] BITRATES_MPEG1 = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 0};
+    private static final int[] BITRATES_MPEG2 = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, 0};
+    private static final int[] SAMPLE_RATES_MPEG1 = {44100, 48000, 32000, 0};
+    private static final int[] SAMPLE_RATES_MPEG2 = {22050, 24000, 16000, 0};
+    private static final int[] SAMPLE_RATES_MPEG25 = {11025, 12000, 8000, 0};
+
+    private final byte[] data;
+    private final List<Frame> frames;
+
+    private Mp3Frames(byte[] data, List<Frame> frames) {
+        this.data = data;
+        this.frames = frames;
+    }
+
+    /**
+     * A single audio frame: byte range in the source stream and its position on the timeline.
+     */
+    public record Frame(int offset, int length, double startSeconds, double durationSeconds,
+                        boolean mpeg1, boolean mono, boolean crc) {
+        public double endSeconds() {
+            return startSeconds + durationSeconds;
+        }
+    }
+
+    /**
+     * Parse all Layer III frames. A leading ID3v2 tag and a Xing/Info header frame are skipped.
+     *
+     * @throws IllegalArgumentException if no frames are found
+     */
+    public static Mp3Frames parse(byte[] data) {
+        List<Frame> frames = new ArrayList<>();
+        int offset = skipId3v2(data);
+        double time = 0;
+
+        while (offset + 4 <= data.length) {
+            int header = ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                    | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+            int length = frameLength(header);
+            if (length <= 0 || offset + length > data.length) {
+                // Not a frame header (or a truncated last frame): resync on the next byte
+                offset++;
+                continue;
+            }
+
+            int version = (header >>> 19) & 0x3;
+            boolean mpeg1 = version == 3;
+            int sampleRate = sampleRate(version, (header >>> 10) & 0x3);
+            int samples = mpeg1 ? 1152 : 576;
+            boolean mono = ((header >>> 6) & 0x3) == 3;
+            boolean crc = ((header >>> 16) & 0x1) == 0;
+            double duration = (double) samples / sampleRate;
+
+            Frame frame = new Frame(offset, length, time, duration, mpeg1, mono, crc);
+            if (frames.isEmpty() && isInfoFrame(data, frame)) {
+                offset += length;
+                continue;
+            }
+            frames.add(frame);
+            time += duration;
+            offset += length;
+        }
+
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("No MPEG Layer III frames found");
+        }
+        return new Mp3Frames(data, Collections.unmodifiableList(frames));
+    }
+
+    public List<Frame> getFrames() {
+        return frames;
+    }
+
+    public double getDurationSeconds() {
+        return frames.get(frames.size() - 1).endSeconds();
+    }
+
+    /**
+     * Concatenate the frames that fall within [startSeconds, endSeconds).
+     * Each frame is assigned by its midpoint. The first frame's audio data may begin in earlier
+     * frames (the bit reservoir, main_data_begin), so just enough preceding frames are kept as
+     * padding for it to decode; when slicing around silent gaps the padding is silence.
+     */
+    public byte[] slice(double startSeconds, double endSeconds) {
+        int from = -1;
+        int to = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            double midpoint = frame.startSeconds() + frame.durationSeconds() / 2;
+            if (midpoint >= startSeconds && midpoint < endSeconds) {
+                if (from < 0) {
+                    from = i;
+                }
+                to = i + 1;
+            }
+        }
+        if (from < 0) {
+            return new byte[0];
+        }
+        int reservoir = mainDataBegin(from);
+        while (reservoir > 0 && from > 0) {
+            from--;
+            reservoir -= mainDataLength(from);
+        }
+        return copyFrames(from, to);
+    }
+
+    /**
+     * Bytes of a frame's audio data stored in the frames before it (main_data_begin).
+     */
+    public int mainDataBegin(int index) {
+        Frame frame = frames.get(index);
+        BitReader bits = new BitReader(data, frame.offset() + 4 + (frame.crc() ? 2 : 0));
+        return bits.read(frame.mpeg1() ? 9 : 8);
+    }
+
+    /**
+     * Bytes of a frame available for audio data, its own or that of later frames.
+     */
+    private int mainDataLength(int index) {
+        Frame frame = frames.get(index);
+        return frame.length() - 4 - (frame.crc() ? 2 : 0) - sideInfoLength(frame);
+    }
+
+    /**
+     * Concatenate frames [fromIndex, toIndex).
+     */
+    public byte[] copyFrames(int fromIndex, int toIndex) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = fromIndex; i < toIndex; i++) {
+            Frame frame = frames.get(i);
+            out.write(data, frame.offset(), frame.length());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Number of Huffman-coded bits (part2_3_length summed over granules and channels) in a frame.
+     * A frame of digital silence codes no spectral data, so this is 0, which lets silence be
+     * detected without decoding.
+     */
+    public int codedBits(int index) {
+        Frame frame = frames.get(index);
+        BitReader bits = new BitReader(data, frame.offset() + 4 + (frame.crc() ? 2 : 0));
+        int channels = frame.mono() ? 1 : 2;
+        int total = 0;
+        if (frame.mpeg1()) {
+            bits.skip(9);                        // main_data_begin
+            bits.skip(frame.mono() ? 5 : 3);     // private_bits
+            bits.skip(4 * channels);             // scfsi
+            for (int granule = 0; granule < 2; granule++) {
+                for (int ch = 0; ch < channels; ch++) {
+                    total += bits.read(12);      // part2_3_length
+                    bits.skip(59 - 12);
+                }
+            }
+        } else {
+            bits.skip(8);                        // main_data_begin
+            bits.skip(frame.mono() ? 1 : 2);     // private_bits
+            for (int ch = 0; ch < channels; ch++) {
+                total += bits.read(12);          // part2_3_length
+                bits.skip(63 - 12);
+            }
+        }
+        return total;
+    }
+
+    private static int frameLength(int header) {
+        if ((header & 0xFFE00000) != 0xFFE00000) {
+            return -1;
+        }
+        int version = (header >>> 19) & 0x3;
+        int layer = (header >>> 17) & 0x3;
+        int bitrateIndex = (header >>> 12) & 0xF;
+        int sampleRateIndex = (header >>> 10) & 0x3;
+        int padding = (header >>> 9) & 0x1;
+        if (version == 1 || layer != 1 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+            return -1;
+        }
+        boolean mpeg1 = version == 3;
+        int bitrate = (mpeg1 ? BITRATES_MPEG1 : BITRATES_MPEG2)[bitrateIndex] * 1000;
+        int sampleRate = sampleRate(version, sampleRateIndex);
+        return (mpeg1 ? 144 : 72) * bitrate / sampleRate + padding;
+    }
+
+    private static int sampleRate(int version, int index) {
+        return switch (version) {
+            case 3 -> SAMPLE_RATES_MPEG1[index];
+            case 2 -> SAMPLE_RATES_MPEG2[index];
+            default -> SAMPLE_RATES_MPEG25[index];
+        };
+    }
+
+    private static int skipId3v2(byte[] data) {
+        if (data.length < 10 || data[0] != 'I' || data[1] != 'D' || data[2] != '3') {
+            return 0;
+        }
+        int size = ((data[6] & 0x7F) << 21) | ((data[7] & 0x7F) << 14) | ((data[8] & 0x7F) << 7) | (data[9] & 0x7F);
+        boolean footer = (data[5] & 0x10) != 0;
+        return 10 + size + (footer ? 10 : 0);
+    }
+
+    private static boolean isInfoFrame(byte[] data, Frame frame) {
+        int sideInfo = sideInfoLength(frame);
+        int tagOffset = frame.offset() + 4 + (frame.crc() ? 2 : 0) + sideInfo;
+        if (tagOffset + 4 > frame.offset() + frame.length()) {
+            return false;
+        }
+        String tag = new String(data, tagOffset, 4, StandardCharsets.ISO_8859_1);
+        return tag.equals("Xing") || tag.equals("Info");
+    }
+
+    private static int sideInfoLength(Frame frame) {
+        if (frame.mpeg1()) {
+            return frame.mono() ? 17 : 32;
+        }
+        return frame.mono() ? 9 : 17;
+    }
+
+    private static final class BitReader {
+        private final byte[] data;
+        private long position;
+
+        BitReader(byte[] data, int byteOffset) {
+            this.data = data;
+            this.position = (long) byteOffset * 8;
+        }
+
+        int read(int count) {
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                int bytes = (int) (position >>> 3);
+                int bit = (data[bytes] >>> (7 - (int) (position & 7))) & 1;
+                value = (value << 1) | bit;
+                position++;
+            }
+            return value;
+        }
+
+        void skip(int count) {
+            position += count;
+        }
+    }
+}
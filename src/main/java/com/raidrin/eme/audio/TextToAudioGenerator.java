@@ -1,38 +1,118 @@
 package com.raidrin.eme.audio;
 
 import com.google.cloud.texttospeech.v1.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class TextToAudioGenerator {
+    public static final AudioEncoding AUDIO_ENCODING = AudioEncoding.MP3;
+
+    private static final String END_MARK = "end";
+
+    private final ObjectProvider<TextToSpeechClient> textToSpeechClientProvider;
+    private final ObjectProvider<com.google.cloud.texttospeech.v1beta1.TextToSpeechClient> batchClientProvider;
+    private final Timer synthesisTimer;
+    private final Timer batchSynthesisTimer;
+
+    @Value("${audio.tts.batch.gap-ms:400}")
+    private int batchGapMs;
+
+    @Value("${audio.tts.sample-rate-hertz:0}")
+    private int sampleRateHertz;
+
+    // Bitrate of Text-to-Speech MP3 output at a voice's native sample rate
+    @Value("${audio.tts.native-bitrate-kbps:32}")
+    private int nativeBitrateKbps;
+
+    public TextToAudioGenerator(ObjectProvider<TextToSpeechClient> textToSpeechClientProvider,
+                                ObjectProvider<com.google.cloud.texttospeech.v1beta1.TextToSpeechClient> batchClientProvider,
+                                MeterRegistry meterRegistry) {
+        this.textToSpeechClientProvider = textToSpeechClientProvider;
+        this.batchClientProvider = batchClientProvider;
+        this.synthesisTimer = Timer.builder("audio.tts.synthesis")
+                .description("Latency of a single Text-to-Speech synthesis call")
+                .register(meterRegistry);
+        this.batchSynthesisTimer = Timer.builder("audio.tts.synthesis.batch")
+                .description("Latency of a batched SSML Text-to-Speech synthesis call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Describes the audio format produced (encoding and, if overridden, sample rate).
+     */
+    public String getOutputFormat() {
+        return sampleRateHertz > 0 ? AUDIO_ENCODING.name() + "@" + sampleRateHertz : AUDIO_ENCODING.name();
+    }
+
+    /**
+     * Whether {@code audio.tts.sample-rate-hertz} asks TTS for a lower sample rate than the voice's own.
+     */
+    public boolean isSampleRateReduced() {
+        return sampleRateHertz > 0;
+    }
+
+    /**
+     * Size the audio would have at the voice's native sample rate, from its duration in the MP3 frame
+     * headers and {@code audio.tts.native-bitrate-kbps}; no extra synthesis is made. Without a sample
+     * rate override, or if the audio cannot be parsed, this is the audio's own size.
+     */
+    public long nativeSampleRateSize(byte[] audioBytes) {
+        if (!isSampleRateReduced() || audioBytes.length == 0) {
+            return audioBytes.length;
+        }
+        try {
+            double durationSeconds = Mp3Frames.parse(audioBytes).getDurationSeconds();
+            return Math.round(durationSeconds * nativeBitrateKbps * 1000 / 8);
+        } catch (Exception e) {
+            return audioBytes.length;
+        }
+    }
+
     public byte[] generate(String text, LanguageAudioCodes languageCode, SsmlVoiceGender gender, String voiceName) {
         try {
-            try (TextToSpeechClient textToSpeechClient = TextToSpeechClient.create()) {
-                // Set the text input to be synthesized
-                SynthesisInput input = SynthesisInput.newBuilder().setText(text).build();
-
-                // Build the voice request, select the language code ("en-US") and the ssml voice gender
-                // ("neutral")
-                VoiceSelectionParams voice =
-                        VoiceSelectionParams.newBuilder()
-                                .setLanguageCode(languageCode.getCode())
-                                .setName(voiceName)
-                                .setSsmlGender(gender)
-                                .build();
-
-
-                // Select the type of audio file you want returned
-                AudioConfig audioConfig =
-                        AudioConfig.newBuilder().setAudioEncoding(AudioEncoding.MP3).build();
-
-                // Perform the text-to-speech request on the text input with the selected voice parameters and
-                // audio file type
-                SynthesizeSpeechResponse response =
-                        textToSpeechClient.synthesizeSpeech(input, voice, audioConfig);
-
-                // Get the audio contents from the response
-                return response.getAudioContent().toByteArray();
+            // Shared client; the gRPC channel is kept alive between calls
+            TextToSpeechClient textToSpeechClient = textToSpeechClientProvider.getObject();
+
+            // Set the text input to be synthesized
+            SynthesisInput input = SynthesisInput.newBuilder().setText(text).build();
+
+            // Build the voice request, select the language code ("en-US") and the ssml voice gender
+            // ("neutral")
+            // Without a gender (or name) the language's default voice is used
+            VoiceSelectionParams.Builder voiceBuilder =
+                    VoiceSelectionParams.newBuilder().setLanguageCode(languageCode.getCode());
+            if (voiceName != null) {
+                voiceBuilder.setName(voiceName);
+            }
+            if (gender != null) {
+                voiceBuilder.setSsmlGender(gender);
+            }
+            VoiceSelectionParams voice = voiceBuilder.build();
+
+
+            // Select the type of audio file you want returned
+            AudioConfig.Builder audioConfigBuilder = AudioConfig.newBuilder().setAudioEncoding(AUDIO_ENCODING);
+            if (sampleRateHertz > 0) {
+                audioConfigBuilder.setSampleRateHertz(sampleRateHertz);
             }
+            AudioConfig audioConfig = audioConfigBuilder.build();
+
+            // Perform the text-to-speech request on the text input with the selected voice parameters and
+            // audio file type
+            SynthesizeSpeechResponse response = synthesisTimer.recordCallable(() ->
+                    textToSpeechClient.synthesizeSpeech(input, voice, audioConfig));
+
+            // Get the audio contents from the response
+            return response.getAudioContent().toByteArray();
         } catch (Exception e) {
             throw new RuntimeException(
                     String.format("Failed to generate audio for: %s", text),
@@ -40,4 +120,88 @@ public class TextToAudioGenerator {
             );
         }
     }
+
+    /**
+     * Synthesize several short texts with one request and split the result per item.
+     * The texts are joined into one SSML document with a {@code <mark>} before each item and a short
+     * break after it; the returned mark timepoints are used to cut the MP3 at frame boundaries. Each
+     * cut keeps the frames of the preceding break that hold its bit reservoir ({@link Mp3Frames#slice}).
+     *
+     * @return audio bytes per text, in the same order as {@code texts}
+     */
+    public List<byte[]> generateBatch(List<String> texts, LanguageAudioCodes languageCode, SsmlVoiceGender gender, String voiceName) {
+        if (texts.size() == 1) {
+            return List.of(generate(texts.get(0), languageCode, gender, voiceName));
+        }
+        try {
+            com.google.cloud.texttospeech.v1beta1.TextToSpeechClient client = batchClientProvider.getObject();
+
+            StringBuilder ssml = new StringBuilder("<speak>");
+            for (int i = 0; i < texts.size(); i++) {
+                ssml.append("<mark name=\"").append(markName(i)).append("\"/>")
+                        .append(escapeSsml(texts.get(i)))
+                        .append("<break time=\"").append(batchGapMs).append("ms\"/>");
+            }
+            ssml.append("<mark name=\"").append(END_MARK).append("\"/></speak>");
+
+            com.google.cloud.texttospeech.v1beta1.VoiceSelectionParams.Builder voice =
+                    com.google.cloud.texttospeech.v1beta1.VoiceSelectionParams.newBuilder()
+                            .setLanguageCode(languageCode.getCode());
+            if (gender != null && gender != SsmlVoiceGender.UNRECOGNIZED) {
+                voice.setSsmlGender(com.google.cloud.texttospeech.v1beta1.SsmlVoiceGender.forNumber(gender.getNumber()));
+            }
+            if (voiceName != null) {
+                voice.setName(voiceName);
+            }
+
+            com.google.cloud.texttospeech.v1beta1.SynthesizeSpeechRequest request =
+                    com.google.cloud.texttospeech.v1beta1.SynthesizeSpeechRequest.newBuilder()
+                            .setInput(com.google.cloud.texttospeech.v1beta1.SynthesisInput.newBuilder().setSsml(ssml.toString()))
+                            .setVoice(voice)
+                            .setAudioConfig(com.google.cloud.texttospeech.v1beta1.AudioConfig.newBuilder()
+                                    .setAudioEncoding(com.google.cloud.texttospeech.v1beta1.AudioEncoding.MP3)
+                                    .setSampleRateHertz(Math.max(sampleRateHertz, 0)))
+                            .addEnableTimePointing(com.google.cloud.texttospeech.v1beta1.SynthesizeSpeechRequest.TimepointType.SSML_MARK)
+                            .build();
+
+            com.google.cloud.texttospeech.v1beta1.SynthesizeSpeechResponse response =
+                    batchSynthesisTimer.recordCallable(() -> client.synthesizeSpeech(request));
+
+            Map<String, Double> marks = new HashMap<>();
+            response.getTimepointsList().forEach(tp -> marks.put(tp.getMarkName(), tp.getTimeSeconds()));
+
+            Mp3Frames frames = Mp3Frames.parse(response.getAudioContent().toByteArray());
+            List<byte[]> results = new ArrayList<>(texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                Double start = marks.get(markName(i));
+                Double end = i + 1 < texts.size() ? marks.get(markName(i + 1)) : marks.getOrDefault(END_MARK, frames.getDurationSeconds());
+                if (start == null || end == null || end <= start) {
+                    throw new IllegalStateException("Missing or invalid timepoint for batch item " + i);
+                }
+                byte[] slice = frames.slice(start, end);
+                if (slice.length == 0) {
+                    throw new IllegalStateException("Empty audio slice for batch item " + i);
+                }
+                results.add(slice);
+            }
+            return results;
+        } catch (Exception e) {
+            throw new RuntimeException(
+                    String.format("Failed to generate batched audio for %d items", texts.size()),
+                    e
+            );
+        }
+    }
+
+    private static String markName(int index) {
+        return "item" + index;
+    }
+
+    private static String escapeSsml(String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
 }
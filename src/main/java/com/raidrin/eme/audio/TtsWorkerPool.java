@@ -0,0 +1,269 @@
+package com.raidrin.eme.audio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single, globally bounded worker pool for Text-to-Speech calls.
+ * Every session (or other caller) submits into its own queue and workers take from the queues
+ * round-robin, so one large session cannot starve the others and the total number of concurrent
+ * TTS calls never exceeds {@code audio.tts.max-concurrency} regardless of how many sessions run.
+ */
+@Component
+public class TtsWorkerPool {
+
+    /**
+     * What to do when the pool already holds {@code audio.tts.queue-capacity} tasks.
+     */
+    public enum RejectionPolicy {
+        /** Wait up to {@code audio.tts.submit-timeout-seconds} for space, then reject */
+        BLOCK,
+        /** Run the task on the submitting thread (exceeds the concurrency bound) */
+        CALLER_RUNS,
+        /** Fail the task immediately */
+        ABORT
+    }
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Map<String, Deque<Task<?>>> queues = new HashMap<>();
+    private final Deque<String> readyKeys = new ArrayDeque<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private int queuedTasks;
+    private volatile boolean shutdown;
+    private Counter rejectedCounter;
+
+    @Value("${audio.tts.max-concurrency:${audio.concurrency.level:5}}")
+    private int maxConcurrency;
+
+    @Value("${audio.tts.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${audio.tts.rejection-policy:BLOCK}")
+    private RejectionPolicy rejectionPolicy;
+
+    @Value("${audio.tts.submit-timeout-seconds:60}")
+    private long submitTimeoutSeconds;
+
+    public TtsWorkerPool(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("audio.tts.queue.depth", this, TtsWorkerPool::getQueueDepth)
+                .description("TTS tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("audio.tts.queue.callers", this, TtsWorkerPool::getActiveQueues)
+                .description("Sessions/callers with TTS tasks waiting")
+                .register(meterRegistry);
+        Gauge.builder("audio.tts.workers.active", activeWorkers, AtomicInteger::get)
+                .description("TTS workers currently running a task")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("audio.tts.rejected")
+                .description("TTS tasks rejected because the queue was full")
+                .tag("policy", rejectionPolicy.name())
+                .register(meterRegistry);
+
+        for (int i = 0; i < maxConcurrency; i++) {
+            Thread worker = new Thread(this::runWorker, "tts-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        System.out.println("[AUDIO] TTS worker pool started: " + maxConcurrency + " workers, queue capacity " +
+                queueCapacity + ", rejection policy " + rejectionPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            shutdown = true;
+            queues.values().forEach(queue -> queue.forEach(Task::cancel));
+            queues.clear();
+            readyKeys.clear();
+            queuedTasks = 0;
+            // Wake submitters blocked on a full queue so they are rejected
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queue a TTS task on behalf of a caller.
+     *
+     * @param queueKey identifies the caller (e.g. the session); tasks with different keys are served round-robin
+     * @param task the work to run on a TTS worker
+     * @return future completed with the task result
+     */
+    public <T> CompletableFuture<T> submit(String queueKey, Callable<T> task) {
+        Task<T> wrapped = new Task<>(task);
+        lock.lock();
+        try {
+            // Checked under the lock so nothing is queued after stop() has cancelled the queues
+            if (shutdown) {
+                wrapped.future.completeExceptionally(new RejectedExecutionException("TTS worker pool is shut down"));
+                return wrapped.future;
+            }
+            if (queuedTasks >= queueCapacity && !awaitCapacity()) {
+                if (shutdown) {
+                    wrapped.future.completeExceptionally(new RejectedExecutionException("TTS worker pool is shut down"));
+                    return wrapped.future;
+                }
+                rejectedCounter.increment();
+                if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                    lock.unlock();
+                    try {
+                        wrapped.run();
+                    } finally {
+                        lock.lock();
+                    }
+                } else {
+                    wrapped.future.completeExceptionally(new RejectedExecutionException(
+                            "TTS queue full (" + queueCapacity + " tasks), rejected task for " + queueKey));
+                }
+                return wrapped.future;
+            }
+
+            Deque<Task<?>> queue = queues.computeIfAbsent(queueKey, k -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                readyKeys.addLast(queueKey);
+            }
+            queue.addLast(wrapped);
+            queuedTasks++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return wrapped.future;
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queuedTasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveQueues() {
+        lock.lock();
+        try {
+            return readyKeys.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called with the lock held when the queue is full.
+     *
+     * @return true if space became available
+     */
+    private boolean awaitCapacity() {
+        if (rejectionPolicy != RejectionPolicy.BLOCK) {
+            return false;
+        }
+        long remaining = TimeUnit.SECONDS.toNanos(submitTimeoutSeconds);
+        try {
+            while (queuedTasks >= queueCapacity && !shutdown) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !shutdown;
+    }
+
+    private Task<?> takeNext() throws InterruptedException {
+        lock.lock();
+        try {
+            while (readyKeys.isEmpty()) {
+                notEmpty.await();
+            }
+            // Round-robin: take one task from the caller at the head, then move it to the back
+            String key = readyKeys.pollFirst();
+            Deque<Task<?>> queue = queues.get(key);
+            Task<?> task = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(key);
+            } else {
+                readyKeys.addLast(key);
+            }
+            queuedTasks--;
+            notFull.signal();
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker() {
+        while (!shutdown) {
+            Task<?> task;
+            try {
+                task = takeNext();
+            } catch (InterruptedException e) {
+                return;
+            }
+            activeWorkers.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private static class Task<T> {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        void run() {
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        void cancel() {
+            future.completeExceptionally(new CancellationException("TTS worker pool shut down"));
+        }
+    }
+}
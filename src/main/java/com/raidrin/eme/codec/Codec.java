@@ -1,5 +1,7 @@
 package com.raidrin.eme.codec;
 
+import com.raidrin.eme.util.AssetPaths;
+
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
@@ -16,12 +18,50 @@ public class Codec {
     /**
      * Encodes text for use as an audio file name.
      * Transliterates non-Latin scripts to Latin characters, then includes the first 100 characters
-     * of the transliterated text (file-name safe) followed by a hash for uniqueness.
+     * of the transliterated text (file-name safe) followed by a SHA-256 of the text, so texts sharing
+     * a long prefix still get distinct names (see {@link AssetPaths}).
      *
      * @param text The text to encode
      * @return A file-name safe string with readable prefix and hash
      */
     public static String encodeForAudioFileName(String text) {
+        return AssetPaths.contentAddressedName(audioFileNamePrefix(text), text);
+    }
+
+    /**
+     * Encodes text for use as an audio file name, distinguishing between voices.
+     * The same text spoken by two different voices produces two different names.
+     * Without a voice name this is identical to {@link #encodeForAudioFileName(String)}.
+     *
+     * @param text The text to encode
+     * @param voiceName The TTS voice name (may be null)
+     * @return A file-name safe string with readable prefix and hash
+     */
+    public static String encodeForAudioFileName(String text, String voiceName) {
+        if (voiceName == null || voiceName.trim().isEmpty()) {
+            return encodeForAudioFileName(text);
+        }
+        return AssetPaths.contentAddressedName(audioFileNamePrefix(text), text, voiceName);
+    }
+
+    /**
+     * Encodes text for use as an audio file name, distinguishing between voices and genders.
+     * A named voice has a fixed gender, so the gender only changes the name when no voice name
+     * is given and it selects the language's default voice.
+     *
+     * @param text The text to encode
+     * @param voiceName The TTS voice name (may be null)
+     * @param voiceGender The TTS voice gender (may be null)
+     * @return A file-name safe string with readable prefix and hash
+     */
+    public static String encodeForAudioFileName(String text, String voiceName, String voiceGender) {
+        if ((voiceName == null || voiceName.trim().isEmpty()) && voiceGender != null && !voiceGender.isEmpty()) {
+            return AssetPaths.contentAddressedName(audioFileNamePrefix(text), text, "", voiceGender);
+        }
+        return encodeForAudioFileName(text, voiceName);
+    }
+
+    private static String audioFileNamePrefix(String text) {
         // Transliterate to Latin characters first (handles Hindi, Japanese, Korean, etc.)
         String transliterated = TransliterationService.transliterateForFileName(text);
 
@@ -37,13 +77,6 @@ public class Codec {
         if (prefix.isEmpty() || prefix.length() < 3) {
             prefix = "audio";
         }
-
-        // Generate Base64 hash for uniqueness
-        String hash = Base64.getUrlEncoder()
-            .withoutPadding()
-            .encodeToString(text.getBytes(StandardCharsets.UTF_8));
-
-        // Combine prefix with hash (limit hash to first 8 chars to keep filename shorter)
-        return prefix + "_" + hash.substring(0, Math.min(8, hash.length()));
+        return prefix;
     }
 }
@@ -0,0 +1,84 @@
+package com.raidrin.eme.config;
+
+import com.google.cloud.storage.Storage;
+import com.raidrin.eme.storage.blob.BlobStore;
+import com.raidrin.eme.storage.blob.GcsBlobStore;
+import com.raidrin.eme.storage.blob.LocalBlobStore;
+import com.raidrin.eme.storage.blob.ReplicatedBlobStore;
+import com.raidrin.eme.storage.blob.S3BlobStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chooses the deployment's blob stores: {@code blob.store.primary} receives every upload and
+ * {@code blob.store.replicas} (comma-separated) receive best-effort copies.
+ * Available stores: local, gcs, s3.
+ */
+@Configuration
+public class BlobStoreConfig {
+
+    @Value("${blob.store.primary:gcs}")
+    private String primaryStore;
+
+    @Value("${blob.store.replicas:}")
+    private String replicaStores;
+
+    @Value("${blob.store.local.root:./blob_store}")
+    private String localRoot;
+
+    @Value("${gcp.storage.bucket-name:eme-flashcard-images}")
+    private String gcsBucketName;
+
+    @Value("${blob.store.s3.bucket:}")
+    private String s3Bucket;
+
+    @Value("${blob.store.s3.endpoint:}")
+    private String s3Endpoint;
+
+    @Value("${blob.store.s3.region:us-east-1}")
+    private String s3Region;
+
+    @Value("${blob.store.s3.access-key:}")
+    private String s3AccessKey;
+
+    @Value("${blob.store.s3.secret-key:}")
+    private String s3SecretKey;
+
+    @Value("${blob.store.s3.path-style-access:true}")
+    private boolean s3PathStyleAccess;
+
+    @Value("${blob.store.s3.part-size-mb:8}")
+    private int s3PartSizeMb;
+
+    @Bean
+    public ReplicatedBlobStore blobStore(ObjectProvider<Storage> storageProvider) {
+        BlobStore primary = create(primaryStore, storageProvider);
+        List<BlobStore> replicas = new ArrayList<>();
+        for (String name : replicaStores.split(",")) {
+            if (!name.isBlank() && !name.trim().equalsIgnoreCase(primaryStore.trim())) {
+                replicas.add(create(name, storageProvider));
+            }
+        }
+        System.out.println("Blob store: primary " + primary.name() +
+                (replicas.isEmpty() ? "" : ", replicas " + replicas.stream().map(BlobStore::name).toList()));
+        return new ReplicatedBlobStore(primary, replicas);
+    }
+
+    private BlobStore create(String name, ObjectProvider<Storage> storageProvider) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "local" -> new LocalBlobStore(Paths.get(localRoot));
+            case "gcs" -> new GcsBlobStore(storageProvider, gcsBucketName);
+            case "s3" -> new S3BlobStore(s3Bucket, s3Endpoint, s3Region, s3AccessKey, s3SecretKey,
+                    s3PathStyleAccess, s3PartSizeMb * 1024 * 1024);
+            default -> throw new IllegalArgumentException("Unknown blob store: " + name +
+                    " (expected local, gcs or s3)");
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.raidrin.eme.config;
+
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Configuration for the shared Google Cloud Storage client.
+ * One client (with its HTTP transport and credentials) is reused for every GCS call instead of
+ * building a new one, and re-resolving credentials, per upload.
+ */
+@Configuration
+public class GcpStorageConfig {
+
+    /**
+     * Created lazily on first use so the application can start without GCP credentials.
+     */
+    @Bean
+    @Lazy
+    public Storage gcsStorage() {
+        System.out.println("Creating shared GCS Storage client");
+        return StorageOptions.getDefaultInstance().getService();
+    }
+}
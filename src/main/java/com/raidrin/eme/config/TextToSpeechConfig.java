@@ -0,0 +1,73 @@
+package com.raidrin.eme.config;
+
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.cloud.texttospeech.v1.TextToSpeechClient;
+import com.google.cloud.texttospeech.v1.TextToSpeechSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.io.IOException;
+
+/**
+ * Configuration for the shared Google Text-to-Speech client.
+ * One client (and its gRPC channel pool) is reused for every synthesis instead of
+ * opening a new channel, TLS handshake and auth exchange per audio file.
+ */
+@Configuration
+public class TextToSpeechConfig {
+
+    @Value("${audio.tts.channel-pool-size:2}")
+    private int channelPoolSize;
+
+    @Value("${audio.tts.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${audio.tts.keep-alive-timeout-seconds:20}")
+    private long keepAliveTimeoutSeconds;
+
+    /**
+     * Created lazily on first synthesis so the application can start without GCP credentials.
+     * Closed (and its channels shut down) when the context stops.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public TextToSpeechClient textToSpeechClient() throws IOException {
+        TextToSpeechSettings settings = TextToSpeechSettings.newBuilder()
+                .setTransportChannelProvider(channelProvider(TextToSpeechSettings.defaultGrpcTransportProviderBuilder()))
+                .build();
+
+        System.out.println("Creating shared TextToSpeechClient (channel pool size: " + channelPoolSize +
+                ", keep-alive: " + keepAliveSeconds + "s)");
+        return TextToSpeechClient.create(settings);
+    }
+
+    /**
+     * v1beta1 client used for batched SSML synthesis; only the beta API returns mark timepoints.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public com.google.cloud.texttospeech.v1beta1.TextToSpeechClient batchTextToSpeechClient() throws IOException {
+        com.google.cloud.texttospeech.v1beta1.TextToSpeechSettings settings =
+                com.google.cloud.texttospeech.v1beta1.TextToSpeechSettings.newBuilder()
+                        .setTransportChannelProvider(channelProvider(
+                                com.google.cloud.texttospeech.v1beta1.TextToSpeechSettings.defaultGrpcTransportProviderBuilder()))
+                        .build();
+
+        return com.google.cloud.texttospeech.v1beta1.TextToSpeechClient.create(settings);
+    }
+
+    /**
+     * The channel pool and keep-alive settings shared by both clients.
+     */
+    private InstantiatingGrpcChannelProvider channelProvider(InstantiatingGrpcChannelProvider.Builder builder) {
+        return builder
+                .setChannelPoolSettings(ChannelPoolSettings.staticallySized(channelPoolSize))
+                .setKeepAliveTime(org.threeten.bp.Duration.ofSeconds(keepAliveSeconds))
+                .setKeepAliveTimeout(org.threeten.bp.Duration.ofSeconds(keepAliveTimeoutSeconds))
+                .setKeepAliveWithoutCalls(true)
+                .build();
+    }
+}
@@ -1,27 +1,70 @@
 package com.raidrin.eme.config;
 
+import com.raidrin.eme.storage.blob.LocalAssetCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final LocalAssetCache localAssetCache;
+
     @Value("${image.output.directory:./generated_images}")
     private String imageOutputDirectory;
 
     @Value("${audio.output.directory:./generated_audio}")
     private String audioOutputDirectory;
 
+    public WebConfig(LocalAssetCache localAssetCache) {
+        this.localAssetCache = localAssetCache;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve generated images
+        // Serve generated images; files missing locally are fetched through the asset cache
         registry.addResourceHandler("/generated_images/**")
-                .addResourceLocations("file:" + imageOutputDirectory + "/");
+                .addResourceLocations("file:" + imageOutputDirectory + "/")
+                .resourceChain(false)
+                .addResolver(new AssetCacheResourceResolver(localAssetCache::getImage));
 
         // Serve generated audio (optional, for future use)
         registry.addResourceHandler("/generated_audio/**")
-                .addResourceLocations("file:" + audioOutputDirectory + "/");
+                .addResourceLocations("file:" + audioOutputDirectory + "/")
+                .resourceChain(false)
+                .addResolver(new AssetCacheResourceResolver(localAssetCache::getAudio));
+    }
+
+    /**
+     * Serves from the resource location as usual, and falls back to the read-through asset cache.
+     */
+    private static class AssetCacheResourceResolver extends PathResourceResolver {
+
+        private final Function<String, Optional<Path>> cacheLookup;
+
+        AssetCacheResourceResolver(Function<String, Optional<Path>> cacheLookup) {
+            this.cacheLookup = cacheLookup;
+        }
+
+        @Override
+        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+            Resource resource = super.getResource(resourcePath, location);
+            if (resource != null) {
+                return resource;
+            }
+            if (resourcePath.contains("..")) {
+                return null;
+            }
+            return cacheLookup.apply(resourcePath).map(FileSystemResource::new).orElse(null);
+        }
     }
 }
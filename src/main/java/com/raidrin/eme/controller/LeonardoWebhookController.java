@@ -0,0 +1,99 @@
+package com.raidrin.eme.controller;
+
+import com.raidrin.eme.image.LeonardoApiService;
+import com.raidrin.eme.image.LeonardoGenerationTracker;
+import com.raidrin.eme.image.RemoteImages;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completion webhook for Leonardo generations. Leonardo (or a local stand-in) posts here when a
+ * generation finishes, which completes the tracked future without waiting for the next poll.
+ *
+ * Expected body: {"type": "image_generation.complete", "data": {"object": {"id": "...",
+ * "status": "COMPLETE", "images": [{"id": "...", "url": "..."}]}}}
+ * Calls must carry {@code Authorization: Bearer <leonardo.webhook.token>}; without a configured token
+ * every call is rejected. Image URLs must be https on one of {@code leonardo.webhook.image-hosts}.
+ */
+@RestController
+@RequestMapping("/api/leonardo")
+@ConditionalOnProperty(name = "leonardo.api.key")
+@RequiredArgsConstructor
+public class LeonardoWebhookController {
+
+    private final LeonardoGenerationTracker generationTracker;
+
+    @Value("${leonardo.webhook.token:}")
+    private String webhookToken;
+
+    @Value("${leonardo.webhook.image-hosts:cdn.leonardo.ai}")
+    private List<String> imageHosts;
+
+    @PostMapping("/webhook")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> generationWebhook(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody Map<String, Object> payload) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        if (webhookToken.isEmpty()) {
+            response.put("success", false);
+            response.put("error", "Webhook token is not configured");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        if (authorization == null || !MessageDigest.isEqual(
+                ("Bearer " + webhookToken).getBytes(StandardCharsets.UTF_8),
+                authorization.getBytes(StandardCharsets.UTF_8))) {
+            response.put("success", false);
+            response.put("error", "Invalid webhook token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        Map<String, Object> data = (Map<String, Object>) payload.get("data");
+        Map<String, Object> generation = data != null ? (Map<String, Object>) data.get("object") : null;
+        if (generation == null || generation.get("id") == null) {
+            response.put("success", false);
+            response.put("error", "Missing data.object.id");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        String generationId = (String) generation.get("id");
+        String status = (String) generation.get("status");
+        List<Map<String, Object>> images = (List<Map<String, Object>>) generation.get("images");
+
+        boolean tracked;
+        if ("FAILED".equals(status)) {
+            tracked = generationTracker.fail(generationId, "reported by webhook");
+        } else if (images != null && !images.isEmpty()) {
+            Map<String, Object> image = images.get(0);
+            if (!(image.get("url") instanceof String url) || !RemoteImages.isAllowed(url, imageHosts)) {
+                response.put("success", false);
+                response.put("error", "Image URL must be https on " + String.join(", ", imageHosts));
+                return ResponseEntity.badRequest().body(response);
+            }
+            Integer creditCost = generation.get("imageCredit") instanceof Number n ? n.intValue() : null;
+            tracked = generationTracker.complete(generationId, new LeonardoApiService.GeneratedImage(
+                    generationId, (String) image.get("url"), (String) image.get("id"), creditCost));
+        } else {
+            response.put("success", false);
+            response.put("error", "Generation has no images and is not FAILED");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        System.out.println("Leonardo webhook for generation " + generationId + " (" + status + "), tracked: " + tracked);
+        response.put("success", true);
+        response.put("tracked", tracked);
+        return ResponseEntity.ok(response);
+    }
+}
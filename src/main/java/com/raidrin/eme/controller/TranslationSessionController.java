@@ -4,7 +4,6 @@ import com.google.cloud.texttospeech.v1.SsmlVoiceGender;
 import com.raidrin.eme.anki.AnkiNoteCreatorService;
 import com.raidrin.eme.audio.AsyncAudioGenerationService;
 import com.raidrin.eme.audio.LanguageAudioCodes;
-import com.raidrin.eme.codec.Codec;
 import com.raidrin.eme.session.SessionOrchestrationService;
 import com.raidrin.eme.storage.entity.CharacterGuideEntity;
 import com.raidrin.eme.storage.entity.TranslationSessionEntity;
@@ -19,8 +18,8 @@ import com.raidrin.eme.translator.TranslationService;
 import com.raidrin.eme.translator.TranslationData;
 import com.raidrin.eme.util.ZipFileGenerator;
 import com.raidrin.eme.util.FileNameSanitizer;
+import com.raidrin.eme.util.AssetPaths;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -30,9 +29,6 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -57,11 +53,7 @@ public class TranslationSessionController {
     private final com.raidrin.eme.anki.AnkiCardBuilderService ankiCardBuilderService;
     private final com.raidrin.eme.storage.service.AnkiFormatService ankiFormatService;
     private final com.raidrin.eme.mnemonic.MnemonicGenerationService mnemonicGenerationService;
-    private final com.raidrin.eme.image.OpenAiImageService openAiImageService;
-    private final com.raidrin.eme.storage.service.GcpStorageService gcpStorageService;
-
-    @Value("${image.output.directory:./generated_images}")
-    private String imageOutputDirectory;
+    private final com.raidrin.eme.image.CachedImageGenerationService cachedImageGenerationService;
 
     @GetMapping
     public String listSessions(Model model,
@@ -138,6 +130,11 @@ public class TranslationSessionController {
 
                 // Update audio count in process_summary to reflect current state
                 updateAudioCountInProcessSummary(sessionData, words);
+
+                long pendingImages = words.stream()
+                        .filter(wordData -> "pending".equals(wordData.get("image_status")))
+                        .count();
+                model.addAttribute("pendingImages", pendingImages);
             }
 
             // Extract source words from session data for display
@@ -195,7 +192,8 @@ public class TranslationSessionController {
                             // Update image_local_path if we have a new image file
                             if (mergedData.containsKey("image_file")) {
                                 String imageFile = (String) mergedData.get("image_file");
-                                wordData.put("image_local_path", "./generated_images/" + imageFile);
+                                wordData.put("image_local_path",
+                                        AssetPaths.resolve(Paths.get("./generated_images"), imageFile).toString());
                             }
                         }
                     }
@@ -289,9 +287,6 @@ public class TranslationSessionController {
 
             // Generate audio for the sentence
             if (sentenceData.getSourceLanguageSentence() != null) {
-                String sentenceAudioFileName = Codec.encodeForAudioFileName(sentenceData.getSourceLanguageSentence());
-                String sentenceAudioFileNameWithExt = sentenceAudioFileName + ".mp3";
-
                 // Get audio settings from session's original request
                 Map<String, Object> originalRequest = sessionData.containsKey("original_request")
                     ? (Map<String, Object>) sessionData.get("original_request")
@@ -309,6 +304,10 @@ public class TranslationSessionController {
                     ? SsmlVoiceGender.valueOf(voiceGenderStr)
                     : SsmlVoiceGender.FEMALE;
 
+                String sentenceAudioFileName = AsyncAudioGenerationService.audioFileName(
+                    sentenceData.getSourceLanguageSentence(), voiceName, voiceGender);
+                String sentenceAudioFileNameWithExt = sentenceAudioFileName + ".mp3";
+
                 // Generate audio file
                 AsyncAudioGenerationService.AudioRequest audioRequest =
                     new AsyncAudioGenerationService.AudioRequest(
@@ -440,7 +439,7 @@ public class TranslationSessionController {
 
                 // Prepare audio generation for the sentence
                 if (sentenceData.getSourceLanguageSentence() != null) {
-                    String sentenceAudioFileName = Codec.encodeForAudioFileName(sentenceData.getSourceLanguageSentence());
+                    String sentenceAudioFileName = AsyncAudioGenerationService.audioFileName(sentenceData.getSourceLanguageSentence(), voiceName, voiceGender);
                     String sentenceAudioFileNameWithExt = sentenceAudioFileName + ".mp3";
 
                     sentenceData.setAudioFile(sentenceAudioFileNameWithExt);
@@ -684,7 +683,7 @@ public class TranslationSessionController {
 
             // Generate source audio
             if (enableSourceAudio) {
-                String sourceAudioFileName = Codec.encodeForAudioFileName(sourceWord);
+                String sourceAudioFileName = AsyncAudioGenerationService.audioFileName(sourceWord, sourceLangAudio.voiceName, sourceLangAudio.voiceGender);
                 AsyncAudioGenerationService.AudioRequest sourceAudioRequest =
                         new AsyncAudioGenerationService.AudioRequest(
                                 sourceWord,
@@ -703,7 +702,7 @@ public class TranslationSessionController {
                 List<String> targetAudioFiles = new ArrayList<>();
 
                 for (String translation : translations) {
-                    String targetAudioFileName = Codec.encodeForAudioFileName(translation);
+                    String targetAudioFileName = AsyncAudioGenerationService.audioFileName(translation, targetLangAudio.voiceName, targetLangAudio.voiceGender);
                     AsyncAudioGenerationService.AudioRequest targetAudioRequest =
                             new AsyncAudioGenerationService.AudioRequest(
                                     translation,
@@ -792,7 +791,7 @@ public class TranslationSessionController {
 
                 // Generate source audio
                 if (enableSourceAudio) {
-                    String sourceAudioFileName = Codec.encodeForAudioFileName(sourceWord);
+                    String sourceAudioFileName = AsyncAudioGenerationService.audioFileName(sourceWord, sourceLangAudio.voiceName, sourceLangAudio.voiceGender);
                     AsyncAudioGenerationService.AudioRequest sourceAudioRequest =
                             new AsyncAudioGenerationService.AudioRequest(
                                     sourceWord,
@@ -812,7 +811,7 @@ public class TranslationSessionController {
                     List<String> targetAudioFiles = new ArrayList<>();
 
                     for (String translation : translations) {
-                        String targetAudioFileName = Codec.encodeForAudioFileName(translation);
+                        String targetAudioFileName = AsyncAudioGenerationService.audioFileName(translation, targetLangAudio.voiceName, targetLangAudio.voiceGender);
                         AsyncAudioGenerationService.AudioRequest targetAudioRequest =
                                 new AsyncAudioGenerationService.AudioRequest(
                                         translation,
@@ -1271,7 +1270,17 @@ public class TranslationSessionController {
         // Update with latest image file (this is the key update for regenerated images)
         if (wordEntity.getImageFile() != null) {
             mergedData.put("image_file", wordEntity.getImageFile());
+            if (wordEntity.getImageThumbnailFile() != null) {
+                mergedData.put("image_thumbnail_file", wordEntity.getImageThumbnailFile());
+            } else {
+                mergedData.remove("image_thumbnail_file");
+            }
             mergedData.put("image_status", "success");
+        } else if ("PENDING".equals(wordEntity.getImageStatus()) || "GENERATING".equals(wordEntity.getImageStatus())) {
+            // Queued on the background image workers
+            mergedData.put("image_status", "pending");
+        } else if ("FAILED".equals(wordEntity.getImageStatus()) && "pending".equals(mergedData.get("image_status"))) {
+            mergedData.put("image_status", "failed");
         }
 
         // Update with latest sentence data from SentenceEntity
@@ -1560,7 +1569,7 @@ public class TranslationSessionController {
                 com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicData mnemonicData =
                         mnemonicGenerationService.generateMnemonic(
                                 sourceWord, targetWord, session.getSourceLanguage(),
-                                session.getTargetLanguage(), transliteration, imageStyle);
+                                session.getTargetLanguage(), transliteration, imageStyle, true);
 
                 // Update word data
                 wordData.put("mnemonic_keyword", mnemonicData.getMnemonicKeyword());
@@ -1576,25 +1585,25 @@ public class TranslationSessionController {
                 String sanitizedPrompt = mnemonicGenerationService.sanitizeImagePrompt(mnemonicData.getImagePrompt());
                 String imageFileName = FileNameSanitizer.fromMnemonicSentence(
                         mnemonicData.getMnemonicSentence() != null ? mnemonicData.getMnemonicSentence() : sourceWord,
-                        "jpg"
+                        "jpg", sanitizedPrompt, sourceWord, (String) wordData.get("image_file")
                 );
 
-                com.raidrin.eme.image.OpenAiImageService.GeneratedImage openAiImage =
-                        openAiImageService.generateImage(sanitizedPrompt, "1536x1024", "medium", null);
-
-                // Download image to local file
-                downloadImageToLocal(openAiImage.getImageUrl(), imageFileName);
-
-                // Upload to GCP
-                gcpStorageService.downloadAndUpload(openAiImage.getImageUrl(), imageFileName);
+                // Generate (or reuse an indexed image), save locally and back up to GCP
+                com.raidrin.eme.image.CachedImageGenerationService.ImageAsset imageAsset =
+                        cachedImageGenerationService.generate(sanitizedPrompt, "1536x1024", "medium", null,
+                                imageFileName, null);
 
                 // Update word data with image file
-                wordData.put("image_file", imageFileName);
+                wordData.put("image_file", imageAsset.fileName());
+                if (imageAsset.thumbnailFileName() != null) {
+                    wordData.put("image_thumbnail_file", imageAsset.thumbnailFileName());
+                }
                 wordData.put("image_status", "success");
 
                 // Update word entity with image file
                 wordService.updateImage(sourceWord, session.getSourceLanguage(),
-                        session.getTargetLanguage(), imageFileName, mnemonicData.getImagePrompt());
+                        session.getTargetLanguage(), imageAsset.fileName(), imageAsset.thumbnailFileName(),
+                        mnemonicData.getImagePrompt());
 
                 successCount++;
                 System.out.println("Regenerated mnemonic and image for word: " + sourceWord);
@@ -1621,28 +1630,4 @@ public class TranslationSessionController {
             return "redirect:/sessions/" + id + "?message=all-mnemonics-regenerated&count=" + successCount;
         }
     }
-
-    /**
-     * Download an image from a URL to the local image output directory
-     */
-    private Path downloadImageToLocal(String imageUrl, String fileName) throws IOException {
-        Files.createDirectories(Paths.get(imageOutputDirectory));
-        Path outputPath = Paths.get(imageOutputDirectory, fileName);
-
-        // Handle file:// URLs (local files from base64 conversion)
-        if (imageUrl.startsWith("file://")) {
-            Path sourcePath = Paths.get(java.net.URI.create(imageUrl));
-            Files.copy(sourcePath, outputPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Copied local file from: " + sourcePath + " to: " + outputPath);
-            return outputPath;
-        }
-
-        // Handle remote URLs (http/https)
-        try (FileOutputStream fos = new FileOutputStream(outputPath.toFile())) {
-            URL url = new URL(imageUrl);
-            url.openStream().transferTo(fos);
-        }
-
-        return outputPath;
-    }
 }
@@ -1,18 +1,17 @@
 package com.raidrin.eme.controller;
 
+import com.raidrin.eme.image.CachedImageGenerationService;
 import com.raidrin.eme.image.ImageProvider;
 import com.raidrin.eme.image.ImageStyle;
-import com.raidrin.eme.image.OpenAiImageService;
 import com.raidrin.eme.mnemonic.MnemonicGenerationService;
+import com.raidrin.eme.storage.blob.LocalAssetCache;
 import com.raidrin.eme.storage.entity.CharacterGuideEntity;
 import com.raidrin.eme.storage.entity.WordEntity;
 import com.raidrin.eme.storage.service.CharacterGuideService;
-import com.raidrin.eme.storage.service.GcpStorageService;
 import com.raidrin.eme.storage.service.WordService;
 import com.raidrin.eme.translator.TranslationService;
 import com.raidrin.eme.util.FileNameSanitizer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -20,12 +19,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 @RestController
@@ -34,14 +28,11 @@ import java.util.*;
 public class WordController {
 
     private final WordService wordService;
-    private final OpenAiImageService openAiImageService;
-    private final GcpStorageService gcpStorageService;
+    private final CachedImageGenerationService cachedImageGenerationService;
     private final MnemonicGenerationService mnemonicGenerationService;
     private final CharacterGuideService characterGuideService;
     private final TranslationService translationService;
-
-    @Value("${image.output.directory:./generated_images}")
-    private String imageOutputDirectory;
+    private final LocalAssetCache localAssetCache;
 
     /**
      * Update image prompt and regenerate image for a word
@@ -72,6 +63,8 @@ public class WordController {
             }
 
             WordEntity word = wordOpt.get();
+            // The image being replaced must not be handed back by the image cache
+            String previousImageFile = word.getImageFile();
 
             // Parse parameters
             String customPrompt = null;
@@ -155,7 +148,8 @@ public class WordController {
                             word.getSourceLanguage(),
                             word.getTargetLanguage(),
                             transliteration,
-                            imageStyle
+                            imageStyle,
+                            true
                     );
                     mnemonicKeywordToUse = manualKeyword;
                 } else {
@@ -166,7 +160,8 @@ public class WordController {
                             word.getSourceLanguage(),
                             word.getTargetLanguage(),
                             transliteration,
-                            imageStyle
+                            imageStyle,
+                            true
                     );
                     mnemonicKeywordToUse = mnemonicData.getMnemonicKeyword();
                 }
@@ -194,33 +189,26 @@ public class WordController {
             String sanitizedPrompt = mnemonicGenerationService.sanitizeImagePrompt(imagePrompt);
             System.out.println("Sanitized image prompt: " + sanitizedPrompt);
 
-            // Generate new image using OpenAI with selected model
-            String imageUrl;
-            String revisedPrompt = null;
-
+            // Generate new image using OpenAI with selected model (or reuse an indexed one)
             System.out.println("Generating image with OpenAI model: " + model);
 
-            OpenAiImageService.GeneratedImage openAiImage = openAiImageService.generateImage(sanitizedPrompt, model);
-            imageUrl = openAiImage.getImageUrl();
-            revisedPrompt = openAiImage.getRevisedPrompt();
-
-            // Download image to local directory
             String imageFileName = FileNameSanitizer.fromMnemonicSentence(
                     word.getMnemonicSentence() != null ? word.getMnemonicSentence() : word.getWord(),
-                    "jpg"
+                    "jpg", sanitizedPrompt, word.getWord(), model, previousImageFile
             );
-            downloadImageToLocal(imageUrl, imageFileName);
-
-            // Upload to GCP
-            String gcsUrl = gcpStorageService.downloadAndUpload(imageUrl, imageFileName);
+            CachedImageGenerationService.ImageAsset imageAsset = cachedImageGenerationService.generate(
+                    sanitizedPrompt, "1024x1024", "medium", model, imageFileName, previousImageFile);
+            String revisedPrompt = imageAsset.revisedPrompt();
 
             // Update word with new image
             wordService.updateImage(word.getWord(), word.getSourceLanguage(), word.getTargetLanguage(),
-                    imageFileName, imagePrompt);
+                    imageAsset.fileName(), imageAsset.thumbnailFileName(), imagePrompt);
 
             response.put("success", true);
-            response.put("imageFile", imageFileName);
-            response.put("imageUrl", gcsUrl);
+            response.put("imageFile", imageAsset.fileName());
+            response.put("imageThumbnailFile", imageAsset.thumbnailFileName());
+            response.put("imageUrl", imageAsset.gcsUrl());
+            response.put("reused", imageAsset.reused());
             response.put("model", model);
             response.put("imageStyle", imageStyle.name());
             response.put("usedSamePrompt", useSamePrompt);
@@ -258,12 +246,12 @@ public class WordController {
                 return ResponseEntity.notFound().build();
             }
 
-            Path imagePath = Paths.get(imageOutputDirectory, word.getImageFile());
-            if (!Files.exists(imagePath)) {
+            Optional<Path> imagePath = localAssetCache.getImage(word.getImageFile());
+            if (imagePath.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
-            Resource resource = new FileSystemResource(imagePath);
+            Resource resource = new FileSystemResource(imagePath.get());
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + word.getImageFile() + "\"")
                     .contentType(MediaType.IMAGE_JPEG)
@@ -773,25 +761,4 @@ public class WordController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
-
-    private Path downloadImageToLocal(String imageUrl, String fileName) throws IOException {
-        Files.createDirectories(Paths.get(imageOutputDirectory));
-        Path outputPath = Paths.get(imageOutputDirectory, fileName);
-
-        // Handle file:// URLs (local files from base64 conversion)
-        if (imageUrl.startsWith("file://")) {
-            Path sourcePath = Paths.get(java.net.URI.create(imageUrl));
-            Files.copy(sourcePath, outputPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Copied local file from: " + sourcePath + " to: " + outputPath);
-            return outputPath;
-        }
-
-        // Handle remote URLs (http/https)
-        try (FileOutputStream fos = new FileOutputStream(outputPath.toFile())) {
-            URL url = new URL(imageUrl);
-            url.openStream().transferTo(fos);
-        }
-
-        return outputPath;
-    }
 }
@@ -0,0 +1,210 @@
+package com.raidrin.eme.enrichment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raidrin.eme.codec.TransliterationService;
+import com.raidrin.eme.image.ImageStyle;
+import com.raidrin.eme.mnemonic.MnemonicGenerationService;
+import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicData;
+import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicRequest;
+import com.raidrin.eme.openai.OpenAiChatClient;
+import com.raidrin.eme.prompt.PromptTemplates;
+import com.raidrin.eme.sentence.SentenceData;
+import com.raidrin.eme.storage.entity.CharacterGuideEntity;
+import com.raidrin.eme.storage.service.CharacterGuideService;
+import com.raidrin.eme.storage.service.SentenceStorageService;
+import com.raidrin.eme.storage.service.TranslationStorageService;
+import com.raidrin.eme.translator.TranslationData;
+import com.raidrin.eme.translator.TranslationService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fused word enrichment: one structured OpenAI call per new word returns its translations,
+ * transliteration, example sentence and mnemonic, instead of separate translation, sentence and
+ * mnemonic calls. The results are written to the translation, sentence and mnemonic caches, so the
+ * regular generation services pick them up without calling OpenAI again.
+ *
+ * The mnemonic needs the word's character guide before the call, so the character is matched on the
+ * local ICU transliteration; the mnemonic is only kept if the returned transliteration matches the
+ * same character. Anything missing or invalid in the response is left to the regular services.
+ */
+@Service
+@RequiredArgsConstructor
+public class WordEnrichmentService {
+
+    private final TranslationService translationService;
+    private final TranslationStorageService translationStorageService;
+    private final SentenceStorageService sentenceStorageService;
+    private final MnemonicGenerationService mnemonicGenerationService;
+    private final CharacterGuideService characterGuideService;
+    private final ObjectMapper objectMapper;
+    private final OpenAiChatClient openAiChatClient;
+    private final PromptTemplates promptTemplates;
+
+    /**
+     * Translate a word, generating its sentence and mnemonic in the same call when it is not cached yet.
+     * Behaves like {@link TranslationService#translateText(String, String, String, boolean)} for the
+     * caller: cached translations are returned as is, and the regular translation is used if the
+     * fused call fails.
+     */
+    public TranslationData enrich(EnrichmentRequest request) {
+        String word = request.sourceWord();
+        if (!request.skipCache() && translationStorageService.hasTranslations(
+                word, request.sourceLanguageCode(), request.targetLanguageCode())) {
+            return translationService.translateText(word, request.sourceLanguageCode(),
+                    request.targetLanguageCode(), false);
+        }
+
+        // A source sentence stored for another target language is only translated, by the sentence service
+        boolean withSentence = request.withSentence()
+                && !sentenceStorageService.hasSentence(word, request.sourceLanguage(), request.targetLanguage())
+                && sentenceStorageService.findSourceSentence(word, request.sourceLanguage()).isEmpty();
+        Optional<CharacterGuideEntity> character = Optional.empty();
+        if (request.withMnemonic()) {
+            String localTransliteration = TransliterationService.transliterate(word, request.sourceLanguage());
+            character = characterGuideService.findMatchingCharacterForWord(
+                    word, request.sourceLanguage(), localTransliteration);
+        }
+
+        try {
+            System.out.println("Enriching with one OpenAI call: " + word + " (sentence=" + withSentence +
+                    ", mnemonic=" + character.isPresent() + ")");
+            EnrichmentResponse response = requestEnrichment(request, withSentence, character);
+            if (response.getTranslations() == null || response.getTranslations().isEmpty()) {
+                throw new RuntimeException("Enrichment response has no translations");
+            }
+
+            TranslationData translationData = new TranslationData();
+            translationData.setWord(word);
+            translationData.setSourceLanguage(request.sourceLanguageCode());
+            translationData.setTargetLanguage(request.targetLanguageCode());
+            // Keep the model's order: the mnemonic was made for the first translation
+            Set<String> translations = new LinkedHashSet<>();
+            for (String translation : response.getTranslations()) {
+                if (translation != null && !translation.trim().isEmpty()) {
+                    translations.add(translation.trim());
+                }
+            }
+            translationData.setTranslations(translations);
+            translationData.setTransliteration(response.getTransliteration());
+            translationStorageService.saveTranslations(word, request.sourceLanguageCode(),
+                    request.targetLanguageCode(), translations);
+
+            if (withSentence) {
+                storeSentence(request, response.getSentence());
+            }
+            if (character.isPresent() && response.getMnemonic() != null) {
+                storeMnemonic(request, translationData, character.get(), response.getMnemonic());
+            }
+            return translationData;
+        } catch (Exception e) {
+            System.err.println("Fused enrichment failed for '" + word + "', using separate calls: " + e.getMessage());
+            return translationService.translateText(word, request.sourceLanguageCode(),
+                    request.targetLanguageCode(), request.skipCache());
+        }
+    }
+
+    private void storeSentence(EnrichmentRequest request, EnrichmentSentence sentence) {
+        if (sentence == null || isBlank(sentence.getSentence()) || isBlank(sentence.getSentence_translation())) {
+            System.out.println("Enrichment returned no usable sentence for: " + request.sourceWord());
+            return;
+        }
+        SentenceData sentenceData = new SentenceData();
+        sentenceData.setTargetLanguageLatinCharacters(sentence.getWord_romanized());
+        sentenceData.setSourceLanguageSentence(sentence.getSentence());
+        sentenceData.setTargetLanguageTransliteration(sentence.getSentence_transliteration());
+        sentenceData.setTargetLanguageSentence(sentence.getSentence_translation());
+        sentenceData.setSourceLanguageStructure(sentence.getStructure());
+        sentenceStorageService.saveSentence(request.sourceWord(), request.sourceLanguage(),
+                request.targetLanguage(), sentenceData);
+        try {
+            // Shared with the word's other target languages, so its audio is synthesized once
+            sentenceStorageService.saveSourceSentence(request.sourceWord(), request.sourceLanguage(), sentenceData);
+        } catch (Exception e) {
+            System.err.println("Failed to store source sentence for '" + request.sourceWord() + "': " + e.getMessage());
+        }
+    }
+
+    private void storeMnemonic(EnrichmentRequest request, TranslationData translationData,
+                               CharacterGuideEntity character, MnemonicData mnemonicData) {
+        String transliteration = translationData.getTransliteration();
+        Optional<CharacterGuideEntity> matched = isBlank(transliteration) ? Optional.empty()
+                : characterGuideService.findMatchingCharacterForWord(
+                        request.sourceWord(), request.sourceLanguage(), transliteration);
+        if (matched.isEmpty() || !matched.get().getId().equals(character.getId())) {
+            System.out.println("Enrichment mnemonic for '" + request.sourceWord() + "' used " +
+                    character.getCharacterName() + " but transliteration '" + transliteration +
+                    "' matches a different character; discarding it");
+            return;
+        }
+        String primaryTranslation = translationData.getTranslations().iterator().next();
+        MnemonicRequest mnemonicRequest = new MnemonicRequest(request.sourceWord(), primaryTranslation,
+                request.sourceLanguage(), request.targetLanguage(), transliteration, request.imageStyle());
+        if (!mnemonicGenerationService.storeMnemonic(mnemonicRequest, mnemonicData)) {
+            System.out.println("Enrichment mnemonic for '" + request.sourceWord() + "' failed validation; discarding it");
+        }
+    }
+
+    private EnrichmentResponse requestEnrichment(EnrichmentRequest request, boolean withSentence,
+                                                 Optional<CharacterGuideEntity> character) throws Exception {
+        String prompt = buildEnrichmentPrompt(request, withSentence, character);
+
+        String content = openAiChatClient.complete("enrichment", MnemonicGenerationService.MNEMONIC_SYSTEM_MESSAGE,
+                prompt, 200 + (withSentence ? 300 : 0) + (character.isPresent() ? 500 : 0), 0.5, true);
+        return objectMapper.readValue(content, EnrichmentResponse.class);
+    }
+
+    /**
+     * The fused prompt starts with the mnemonic instructions, like the mnemonic prompts, and gives the
+     * word and the parts it asks for last.
+     */
+    private String buildEnrichmentPrompt(EnrichmentRequest request, boolean withSentence,
+                                         Optional<CharacterGuideEntity> character) {
+        ImageStyle imageStyle = request.imageStyle() != null ? request.imageStyle() : ImageStyle.REALISTIC_CINEMATIC;
+        return promptTemplates.get("enrichment").render(Map.of(
+                "sourceWord", request.sourceWord(),
+                "sourceLanguage", OpenAiChatClient.languageName(request.sourceLanguage()),
+                "targetLanguage", OpenAiChatClient.languageName(request.targetLanguage()),
+                "sentence", withSentence ? "yes" : "no",
+                "character", character.map(c -> c.getCharacterName() + " from " + c.getCharacterContext())
+                        .orElse("none"),
+                "imageStyle", imageStyle.getDisplayName()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * A word to enrich. Translations are cached by language code, sentences and mnemonics by language.
+     */
+    public record EnrichmentRequest(String sourceWord, String sourceLanguage, String targetLanguage,
+                                    String sourceLanguageCode, String targetLanguageCode,
+                                    boolean withSentence, boolean withMnemonic, ImageStyle imageStyle,
+                                    boolean skipCache) {
+    }
+
+    @Data
+    private static class EnrichmentResponse {
+        private String transliteration;
+        private List<String> translations;
+        private EnrichmentSentence sentence;
+        private MnemonicData mnemonic;
+    }
+
+    @Data
+    private static class EnrichmentSentence {
+        private String word_romanized;
+        private String sentence;
+        private String sentence_transliteration;
+        private String sentence_translation;
+        private String structure;
+    }
+}
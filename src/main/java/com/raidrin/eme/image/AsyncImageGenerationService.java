@@ -2,21 +2,14 @@ package com.raidrin.eme.image;
 
 import com.raidrin.eme.mnemonic.MnemonicGenerationService;
 import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicData;
-import com.raidrin.eme.storage.service.GcpStorageService;
 import com.raidrin.eme.storage.service.TranslationSessionService;
 import com.raidrin.eme.storage.entity.TranslationSessionEntity.SessionStatus;
 import com.raidrin.eme.util.FileNameSanitizer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -32,12 +25,9 @@ public class AsyncImageGenerationService {
 
     private final MnemonicGenerationService mnemonicService;
     private final OpenAiImageService openAiImageService;
-    private final GcpStorageService gcpStorageService;
+    private final ImageAssetWriter imageAssetWriter;
     private final TranslationSessionService sessionService;
 
-    @Value("${image.output.directory:./generated_images}")
-    private String outputDirectory;
-
     /**
      * Generate images for a single word translation asynchronously with pre-generated mnemonic data
      *
@@ -59,13 +49,10 @@ public class AsyncImageGenerationService {
             GeneratedImageInfo generatedImage = generateImage(
                     mnemonicData.getImagePrompt(), 1152, 768);
 
-            // Step 2: Download image to local file
-            Path localFilePath = downloadImageToLocal(generatedImage.getImageUrl(), fileName);
-
-            // Step 3: Upload to GCP Storage as backup
-            System.out.println("Uploading image to GCP Storage: " + fileName);
-            String gcsUrl = gcpStorageService.downloadAndUpload(
-                    generatedImage.getImageUrl(), fileName);
+            // Step 2-3: Fetch once, save locally and back up to GCP Storage
+            ImageAssetWriter.StoredImage storedImage = imageAssetWriter.store(generatedImage.getImage(), fileName);
+            Path localFilePath = storedImage.localPath();
+            String gcsUrl = storedImage.gcsUrl();
 
             // Step 4: Create result
             ImageResult result = new ImageResult(
@@ -138,16 +125,13 @@ public class AsyncImageGenerationService {
             GeneratedImageInfo generatedImage = generateImage(
                     mnemonicData.getImagePrompt(), 1152, 768);
 
-            // Step 3: Download image to local file
+            // Step 3-4: Fetch once, save locally and back up to GCP Storage
             String fileName = FileNameSanitizer.fromMnemonicSentence(
-                    mnemonicData.getMnemonicSentence(), "jpg");
+                    mnemonicData.getMnemonicSentence(), "jpg", mnemonicData.getImagePrompt(), sourceWord);
 
-            Path localFilePath = downloadImageToLocal(generatedImage.getImageUrl(), fileName);
-
-            // Step 4: Upload to GCP Storage as backup
-            System.out.println("Uploading image to GCP Storage: " + fileName);
-            String gcsUrl = gcpStorageService.downloadAndUpload(
-                    generatedImage.getImageUrl(), fileName);
+            ImageAssetWriter.StoredImage storedImage = imageAssetWriter.store(generatedImage.getImage(), fileName);
+            Path localFilePath = storedImage.localPath();
+            String gcsUrl = storedImage.gcsUrl();
 
             // Step 5: Create result
             ImageResult result = new ImageResult(
@@ -229,12 +213,10 @@ public class AsyncImageGenerationService {
 
                 // Download and save
                 String fileName = FileNameSanitizer.fromMnemonicSentence(
-                        mnemonicData.getMnemonicSentence(), "jpg");
-                Path localFilePath = downloadImageToLocal(generatedImage.getImageUrl(), fileName);
-
-                // Upload to GCP
-                String gcsUrl = gcpStorageService.downloadAndUpload(
-                        generatedImage.getImageUrl(), fileName);
+                        mnemonicData.getMnemonicSentence(), "jpg", mnemonicData.getImagePrompt(), pair.getSourceWord());
+                ImageAssetWriter.StoredImage storedImage = imageAssetWriter.store(generatedImage.getImage(), fileName);
+                Path localFilePath = storedImage.localPath();
+                String gcsUrl = storedImage.gcsUrl();
 
                 // Create result
                 ImageResult result = new ImageResult(
@@ -279,7 +261,7 @@ public class AsyncImageGenerationService {
      * @param prompt The image generation prompt
      * @param width Desired width (used to determine aspect ratio)
      * @param height Desired height (used to determine aspect ratio)
-     * @return Generated image info with URL
+     * @return Generated image info
      */
     private GeneratedImageInfo generateImage(String prompt, int width, int height) {
         // Sanitize the image prompt before sending to image generation API
@@ -291,7 +273,7 @@ public class AsyncImageGenerationService {
         OpenAiImageService.GeneratedImage openAiImage = openAiImageService.generateImage(
                 sanitizedPrompt, size, "medium", null);
         return new GeneratedImageInfo(
-                openAiImage.getImageUrl(),
+                openAiImage,
                 null,  // OpenAI doesn't have generation ID
                 null,  // OpenAI doesn't provide credit cost in response
                 "openai"
@@ -302,49 +284,24 @@ public class AsyncImageGenerationService {
      * Unified image info structure
      */
     private static class GeneratedImageInfo {
-        private final String imageUrl;
+        private final OpenAiImageService.GeneratedImage image;
         private final String generationId;
         private final Integer creditCost;
         private final String provider;
 
-        public GeneratedImageInfo(String imageUrl, String generationId, Integer creditCost, String provider) {
-            this.imageUrl = imageUrl;
+        public GeneratedImageInfo(OpenAiImageService.GeneratedImage image, String generationId, Integer creditCost, String provider) {
+            this.image = image;
             this.generationId = generationId;
             this.creditCost = creditCost;
             this.provider = provider;
         }
 
-        public String getImageUrl() { return imageUrl; }
+        public OpenAiImageService.GeneratedImage getImage() { return image; }
         public String getGenerationId() { return generationId; }
         public Integer getCreditCost() { return creditCost; }
         public String getProvider() { return provider; }
     }
 
-    private Path downloadImageToLocal(String imageUrl, String fileName) throws IOException {
-        // Create output directory if it doesn't exist
-        Path outputDir = Paths.get(outputDirectory);
-        if (!Files.exists(outputDir)) {
-            Files.createDirectories(outputDir);
-        }
-
-        Path filePath = outputDir.resolve(fileName);
-
-        // Download the image
-        URL url = new URL(imageUrl);
-        try (var in = url.openStream();
-             var out = new FileOutputStream(filePath.toFile())) {
-
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = in.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
-            }
-        }
-
-        System.out.println("Downloaded image to: " + filePath);
-        return filePath;
-    }
-
     /**
      * Result of image generation
      */
@@ -0,0 +1,174 @@
+package com.raidrin.eme.image;
+
+import com.raidrin.eme.storage.entity.ImageAssetEntity;
+import com.raidrin.eme.storage.service.ImageAssetService;
+import com.raidrin.eme.util.AssetPaths;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Generates and stores images (via {@link ImageProviderRouter}) through the image asset index.
+ * Every generated image is indexed by (sanitized prompt, model, size, quality). Depending on
+ * {@code image.cache.reuse-policy} an existing image is reused instead of paying for a new one:
+ * <ul>
+ *     <li>OFF - always generate (default)</li>
+ *     <li>EXACT - reuse an image generated from the same request</li>
+ *     <li>NEAR - also reuse an image whose prompt MinHash similarity is at least
+ *     {@code image.cache.near-threshold}</li>
+ * </ul>
+ */
+@Service
+public class CachedImageGenerationService {
+
+    public enum ReusePolicy {
+        OFF,
+        EXACT,
+        NEAR
+    }
+
+    private static final String DEFAULT_QUALITY = "medium";
+
+    private final OpenAiImageService openAiImageService;
+    private final ImageProviderRouter imageProviderRouter;
+    private final ImageAssetWriter imageAssetWriter;
+    private final ImageAssetService imageAssetService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${image.cache.reuse-policy:OFF}")
+    private ReusePolicy reusePolicy;
+
+    @Value("${image.cache.near-threshold:0.85}")
+    private double nearThreshold;
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    public CachedImageGenerationService(OpenAiImageService openAiImageService, ImageProviderRouter imageProviderRouter,
+                                        ImageAssetWriter imageAssetWriter, ImageAssetService imageAssetService,
+                                        MeterRegistry meterRegistry) {
+        this.openAiImageService = openAiImageService;
+        this.imageProviderRouter = imageProviderRouter;
+        this.imageAssetWriter = imageAssetWriter;
+        this.imageAssetService = imageAssetService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get an image for a sanitized prompt, reusing an indexed image if the policy allows it.
+     *
+     * @param fileName File name to store a newly generated image under
+     * @param excludeFileName An image that must not be reused (the one being regenerated), or null
+     * @return The stored image; its file name differs from {@code fileName} when an image was reused
+     */
+    public ImageAsset generate(String sanitizedPrompt, String size, String quality, String modelOverride,
+                               String fileName, String excludeFileName) throws IOException {
+        try {
+            return generateAsync(sanitizedPrompt, size, quality, modelOverride, fileName, excludeFileName).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw cause instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("Image generation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Same as {@link #generate}, completed once the provider has finished and the image is stored,
+     * without holding the calling thread while a provider generates asynchronously
+     * ({@link ImageProviderRouter#generateAsync}).
+     */
+    public CompletableFuture<ImageAsset> generateAsync(String sanitizedPrompt, String size, String quality,
+                                                       String modelOverride, String fileName, String excludeFileName) {
+        String model = openAiImageService.resolveModel(modelOverride);
+        String resolvedQuality = quality != null ? quality : DEFAULT_QUALITY;
+
+        Optional<ImageAsset> reused = findReusable(sanitizedPrompt, model, size, resolvedQuality, excludeFileName);
+        if (reused.isPresent()) {
+            return CompletableFuture.completedFuture(reused.get());
+        }
+        meterRegistry.counter("image.cache.misses").increment();
+
+        return imageProviderRouter.generateAsync(sanitizedPrompt, size, resolvedQuality, modelOverride)
+                .thenApply(routed -> store(routed, sanitizedPrompt, resolvedQuality, fileName));
+    }
+
+    /**
+     * Store a generated image and index it under the model and size of the provider that produced it,
+     * so an image from another provider is never reused as if the requested model had made it.
+     */
+    private ImageAsset store(ImageProviderRouter.RoutedImage routed, String sanitizedPrompt, String quality,
+                             String fileName) {
+        OpenAiImageService.GeneratedImage image = routed.image();
+        ImageAssetWriter.StoredImage stored;
+        try {
+            stored = imageAssetWriter.store(image, fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            imageAssetService.save(sanitizedPrompt, routed.model(), routed.size(), quality, fileName,
+                    stored.thumbnailFileName(), stored.sizeBytes(), stored.gcsUrl());
+        } catch (Exception e) {
+            System.err.println("Failed to index image " + fileName + ": " + e.getMessage());
+        }
+        return new ImageAsset(fileName, stored.thumbnailFileName(), stored.localPath(), stored.gcsUrl(),
+                image.getRevisedPrompt(), routed.provider(), false);
+    }
+
+    private Optional<ImageAsset> findReusable(String prompt, String model, String size, String quality,
+                                              String excludeFileName) {
+        if (reusePolicy == ReusePolicy.OFF) {
+            return Optional.empty();
+        }
+        String assetKey = ImageAssetService.computeAssetKey(prompt, model, size, quality);
+        Optional<ImageAssetEntity> exact = imageAssetService.findByAssetKey(assetKey)
+                .filter(asset -> !asset.getFileName().equals(excludeFileName));
+        if (exact.isPresent()) {
+            return reuse(exact.get(), "exact", 1.0);
+        }
+        if (reusePolicy == ReusePolicy.NEAR) {
+            Optional<ImageAssetService.NearMatch> near = imageAssetService.findNearest(
+                    prompt, model, size, quality, nearThreshold, excludeFileName);
+            if (near.isPresent()) {
+                return reuse(near.get().asset(), "near", near.get().similarity());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the asset as an image, or empty if it exists neither locally nor in the blob store
+     */
+    private Optional<ImageAsset> reuse(ImageAssetEntity asset, String match, double similarity) {
+        Path localPath = AssetPaths.resolve(Paths.get(imageOutputDirectory), asset.getFileName());
+        if (!Files.exists(localPath) && asset.getGcsUrl() == null) {
+            return Optional.empty();
+        }
+        imageAssetService.recordReuse(asset.getId());
+        meterRegistry.counter("image.cache.hits", "match", match).increment();
+        System.out.println("Reusing image " + asset.getFileName() + " (" + match + " match, similarity " +
+                String.format("%.2f", similarity) + ")");
+        return Optional.of(new ImageAsset(asset.getFileName(), asset.getThumbnailFileName(), localPath,
+                asset.getGcsUrl(), null, null, true));
+    }
+
+    /**
+     * An image ready to be attached to a word; provider is null when an indexed image was reused.
+     */
+    public record ImageAsset(String fileName, String thumbnailFileName, Path localPath, String gcsUrl,
+                             String revisedPrompt, ImageProvider provider, boolean reused) {
+    }
+}
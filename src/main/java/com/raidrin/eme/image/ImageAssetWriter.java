@@ -0,0 +1,137 @@
+package com.raidrin.eme.image;
+
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
+import com.raidrin.eme.storage.service.BlobUploadQueue;
+import com.raidrin.eme.storage.service.GcpStorageService;
+import com.raidrin.eme.util.AssetPaths;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Persists a generated image to the local image directory with a single fetch and queues its
+ * GCS upload ({@link BlobUploadQueue}), so storing an image only waits for the local write.
+ */
+@Service
+public class ImageAssetWriter {
+
+    private final GcpStorageService gcpStorageService;
+    private final BlobUploadQueue blobUploadQueue;
+    private final ImageTranscoder imageTranscoder;
+    private final Counter ingressBytes;
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    public ImageAssetWriter(GcpStorageService gcpStorageService, BlobUploadQueue blobUploadQueue,
+                            ImageTranscoder imageTranscoder, MeterRegistry meterRegistry) {
+        this.gcpStorageService = gcpStorageService;
+        this.blobUploadQueue = blobUploadQueue;
+        this.imageTranscoder = imageTranscoder;
+        this.ingressBytes = Counter.builder("image.ingress.bytes")
+                .description("Bytes fetched from image providers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetch an image URL once, write it to the local image directory and queue its GCS upload.
+     *
+     * @param imageUrl URL returned by the image provider
+     * @param fileName File name to use locally and in the bucket
+     * @return Local path, size and thumbnail of the stored image
+     */
+    public StoredImage store(String imageUrl, String fileName) throws IOException {
+        try (InputStream in = RemoteImages.open(imageUrl)) {
+            return store(in, fileName);
+        }
+    }
+
+    /**
+     * Store an OpenAI image, decoding inline base64 data straight to disk.
+     */
+    public StoredImage store(OpenAiImageService.GeneratedImage image, String fileName) throws IOException {
+        try (InputStream in = image.openStream()) {
+            return store(in, fileName);
+        }
+    }
+
+    /**
+     * Write an image to the local image directory and queue its GCS upload. When transcoding is enabled
+     * the image is re-encoded as JPEG and a thumbnail is stored next to it; otherwise the stream is copied as is.
+     */
+    public StoredImage store(InputStream in, String fileName) throws IOException {
+        if (!imageTranscoder.isEnabled()) {
+            StoredImage stored = write(in, fileName, null, BlobUploadJobEntity.AssetType.IMAGE);
+            ingressBytes.increment(stored.sizeBytes());
+            return stored;
+        }
+
+        byte[] source = in.readAllBytes();
+        ingressBytes.increment(source.length);
+
+        ImageTranscoder.Transcoded transcoded = null;
+        try {
+            transcoded = imageTranscoder.transcode(source);
+        } catch (Exception e) {
+            System.err.println("Failed to transcode " + fileName + ", storing original: " + e.getMessage());
+        }
+        if (transcoded == null) {
+            return write(new ByteArrayInputStream(source), fileName, null, BlobUploadJobEntity.AssetType.IMAGE);
+        }
+
+        String thumbnailFileName = ImageTranscoder.thumbnailFileName(fileName);
+        write(new ByteArrayInputStream(transcoded.thumbnail()), thumbnailFileName, null,
+                BlobUploadJobEntity.AssetType.THUMBNAIL);
+        System.out.println("Transcoded " + fileName + ": " + source.length + " -> " +
+                transcoded.image().length + " bytes (thumbnail " + transcoded.thumbnail().length + " bytes)");
+        return write(new ByteArrayInputStream(transcoded.image()), fileName, thumbnailFileName,
+                BlobUploadJobEntity.AssetType.IMAGE);
+    }
+
+    private StoredImage write(InputStream in, String fileName, String thumbnailFileName,
+                              BlobUploadJobEntity.AssetType assetType) throws IOException {
+        Path filePath = AssetPaths.resolve(Paths.get(imageOutputDirectory), fileName);
+        Files.createDirectories(filePath.getParent());
+
+        // Written next to the target and moved into place, so a failed fetch leaves no partial image
+        long totalBytes;
+        Path temp = Files.createTempFile(filePath.getParent(), ".write-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                totalBytes = in.transferTo(out);
+            }
+            Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        try {
+            blobUploadQueue.enqueue(fileName, filePath, gcpStorageService.getContentType(fileName),
+                    assetType, fileName);
+        } catch (Exception e) {
+            // Local file is authoritative; the blob copy is best effort
+            System.err.println("Failed to queue GCS upload for " + fileName + ": " + e.getMessage());
+        }
+
+        System.out.println("Stored image " + fileName + " (" + totalBytes + " bytes) locally, GCS upload queued");
+        return new StoredImage(filePath, null, totalBytes, thumbnailFileName);
+    }
+
+    /**
+     * Where an image was stored; thumbnailFileName is null when no thumbnail was made.
+     * gcsUrl is null while the upload is queued; it is recorded on the image asset once uploaded.
+     */
+    public record StoredImage(Path localPath, String gcsUrl, long sizeBytes, String thumbnailFileName) {
+    }
+}
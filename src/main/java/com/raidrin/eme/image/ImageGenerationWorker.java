@@ -0,0 +1,278 @@
+package com.raidrin.eme.image;
+
+import com.raidrin.eme.session.SessionZipService;
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity;
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity.JobTier;
+import com.raidrin.eme.storage.service.ImageGenerationJobService;
+import com.raidrin.eme.storage.service.WordService;
+import com.raidrin.eme.util.AssetPaths;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the persistent image generation queue ({@link ImageGenerationJobService}).
+ * Each worker claims one job at a time, generates and stores the image, and records the result on the
+ * word: image_status moves PENDING -> GENERATING -> COMPLETED (or FAILED once retries are exhausted).
+ * A job whose provider completes asynchronously (Leonardo) does not hold its worker, which claims the
+ * next job meanwhile; at most {@code image.jobs.max-in-flight} jobs run at once.
+ * Jobs survive restarts; jobs left RUNNING longer than {@code image.jobs.stale-after-minutes} are requeued
+ * by a once-a-minute task. UPGRADE jobs (progressive image quality) only run when no preview job is waiting.
+ * When a session's last job finishes, its ZIP is rebuilt with the images ({@link SessionZipService}).
+ */
+@Component
+public class ImageGenerationWorker {
+
+    private final ImageGenerationJobService jobService;
+    private final CachedImageGenerationService cachedImageGenerationService;
+    private final WordService wordService;
+    private final MeterRegistry meterRegistry;
+    private final SessionZipService sessionZipService;
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService staleJobScheduler;
+    private Semaphore inFlight;
+    private volatile boolean shutdown;
+
+    @Value("${image.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${image.jobs.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${image.jobs.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${image.jobs.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    @Value("${image.progressive.off-peak-hours:}")
+    private String offPeakHours;
+
+    public ImageGenerationWorker(ImageGenerationJobService jobService,
+                                 CachedImageGenerationService cachedImageGenerationService,
+                                 WordService wordService, MeterRegistry meterRegistry,
+                                 SessionZipService sessionZipService) {
+        this.jobService = jobService;
+        this.cachedImageGenerationService = cachedImageGenerationService;
+        this.wordService = wordService;
+        this.meterRegistry = meterRegistry;
+        this.sessionZipService = sessionZipService;
+    }
+
+    @PostConstruct
+    public void start() {
+        inFlight = new Semaphore(Math.max(maxInFlight, workerCount));
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "image-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        staleJobScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-job-requeuer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        staleJobScheduler.scheduleWithFixedDelay(this::requeueStaleJobs, 0, 1, TimeUnit.MINUTES);
+        System.out.println("[IMAGE] Image generation workers started: " + workerCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        shutdown = true;
+        staleJobScheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void requeueStaleJobs() {
+        try {
+            int requeued = jobService.requeueStale(LocalDateTime.now().minusMinutes(staleAfterMinutes));
+            if (requeued > 0) {
+                System.out.println("[IMAGE] Requeued " + requeued + " stale image job(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("[IMAGE] Failed to requeue stale image jobs: " + e.getMessage());
+        }
+    }
+
+    private void runWorker() {
+        while (!shutdown) {
+            boolean permitHeld = false;
+            try {
+                inFlight.acquire();
+                permitHeld = true;
+                List<ImageGenerationJobEntity> jobs = jobService.claim(JobTier.PREVIEW, 1);
+                if (jobs.isEmpty() && isOffPeak(LocalTime.now())) {
+                    jobs = jobService.claim(JobTier.UPGRADE, 1);
+                }
+                if (jobs.isEmpty()) {
+                    inFlight.release();
+                    permitHeld = false;
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+                ImageGenerationJobEntity job = jobs.get(0);
+                CompletableFuture<Void> result = process(job);
+                // The permit is released when the job's result is recorded
+                permitHeld = false;
+                result.whenComplete((done, error) -> {
+                    inFlight.release();
+                    if (error != null) {
+                        System.err.println("[IMAGE] Failed to record result of job " + job.getId() + ": " + error.getMessage());
+                    }
+                    sessionZipService.rebuildIfImagesFinished(job.getSessionId());
+                });
+            } catch (InterruptedException e) {
+                if (permitHeld) {
+                    inFlight.release();
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (permitHeld) {
+                    inFlight.release();
+                }
+                // Database unavailable or similar; back off and keep the worker alive
+                System.err.println("[IMAGE] Image worker error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return completed once the job's result is recorded
+     */
+    private CompletableFuture<Void> process(ImageGenerationJobEntity job) {
+        if (job.getTier() == JobTier.UPGRADE) {
+            return processUpgrade(job);
+        }
+        long start = System.currentTimeMillis();
+        String word = job.getWord();
+        CompletableFuture<CachedImageGenerationService.ImageAsset> generation;
+        try {
+            wordService.updateImageStatus(word, job.getSourceLanguage(), job.getTargetLanguage(), "GENERATING");
+            generation = cachedImageGenerationService.generateAsync(
+                    job.getSanitizedPrompt(), job.getSize(), job.getQuality(), null, job.getFileName(), null);
+        } catch (Exception e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+        return generation.thenAccept(imageAsset -> {
+            wordService.updateImage(word, job.getSourceLanguage(), job.getTargetLanguage(),
+                    imageAsset.fileName(), imageAsset.thumbnailFileName(), job.getImagePrompt());
+            wordService.updateImageStatus(word, job.getSourceLanguage(), job.getTargetLanguage(), "COMPLETED");
+            jobService.markCompleted(job.getId());
+            meterRegistry.counter("image.jobs.completed", "tier", "preview").increment();
+            System.out.println("[IMAGE] Job " + job.getId() + " for '" + word + "' " +
+                    (imageAsset.reused() ? "reused " : "generated ") + imageAsset.fileName() +
+                    " in " + (System.currentTimeMillis() - start) + "ms");
+
+            // The preview is done; failing to queue its upgrade must not fail (and retry) the preview
+            if (job.getUpgradeQuality() != null && !job.getUpgradeQuality().equals(job.getQuality())) {
+                try {
+                    jobService.enqueueUpgrade(job, imageAsset.fileName(),
+                            upgradeFileName(job.getFileName(), job.getUpgradeQuality()));
+                } catch (Exception e) {
+                    System.err.println("[IMAGE] Failed to queue upgrade of job " + job.getId() + " for '" + word +
+                            "', keeping preview: " + e.getMessage());
+                }
+            }
+        }).exceptionally(error -> {
+            String message = causeOf(error).getMessage();
+            boolean retrying = jobService.markFailed(job.getId(), message);
+            wordService.updateImageStatus(word, job.getSourceLanguage(), job.getTargetLanguage(),
+                    retrying ? "PENDING" : "FAILED");
+            meterRegistry.counter("image.jobs.failed", "tier", "preview", "final", String.valueOf(!retrying)).increment();
+            System.err.println("[IMAGE] Job " + job.getId() + " for '" + word + "' failed (attempt " +
+                    job.getAttempts() + (retrying ? ", will retry" : ", giving up") + "): " + message);
+            return null;
+        });
+    }
+
+    /**
+     * Regenerate a word's image at the upgrade quality and swap it in. The word keeps its preview
+     * (and its COMPLETED status) until the swap, and a failed upgrade leaves the preview in place.
+     */
+    private CompletableFuture<Void> processUpgrade(ImageGenerationJobEntity job) {
+        long start = System.currentTimeMillis();
+        String word = job.getWord();
+        CompletableFuture<CachedImageGenerationService.ImageAsset> generation;
+        try {
+            generation = cachedImageGenerationService.generateAsync(
+                    job.getSanitizedPrompt(), job.getSize(), job.getQuality(), null, job.getFileName(),
+                    job.getReplacesFileName());
+        } catch (Exception e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+        return generation.thenAccept(imageAsset -> {
+            boolean swapped = wordService.swapImage(word, job.getSourceLanguage(), job.getTargetLanguage(),
+                    job.getReplacesFileName(), imageAsset.fileName(), imageAsset.thumbnailFileName());
+            jobService.markCompleted(job.getId());
+            meterRegistry.counter("image.jobs.completed", "tier", "upgrade").increment();
+            System.out.println("[IMAGE] Upgrade job " + job.getId() + " for '" + word + "' " +
+                    (swapped ? "swapped in " + imageAsset.fileName() : "discarded, image changed since preview") +
+                    " in " + (System.currentTimeMillis() - start) + "ms");
+        }).exceptionally(error -> {
+            String message = causeOf(error).getMessage();
+            boolean retrying = jobService.markFailed(job.getId(), message);
+            meterRegistry.counter("image.jobs.failed", "tier", "upgrade", "final", String.valueOf(!retrying)).increment();
+            System.err.println("[IMAGE] Upgrade job " + job.getId() + " for '" + word + "' failed (attempt " +
+                    job.getAttempts() + (retrying ? ", will retry" : ", keeping preview") + "): " + message);
+            return null;
+        });
+    }
+
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Whether upgrades may run now. Upgrades always yield to preview jobs; with
+     * {@code image.progressive.off-peak-hours} (e.g. "22-6") they also only run in that window.
+     * A malformed window is treated as never off-peak.
+     */
+    boolean isOffPeak(LocalTime now) {
+        if (offPeakHours == null || offPeakHours.isBlank()) {
+            return true;
+        }
+        String[] parts = offPeakHours.trim().split("-");
+        int from;
+        int to;
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException("expected <from>-<to>");
+            }
+            from = Integer.parseInt(parts[0].trim());
+            to = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[IMAGE] Invalid image.progressive.off-peak-hours '" + offPeakHours + "': " + e.getMessage());
+            return false;
+        }
+        int hour = now.getHour();
+        return from <= to ? hour >= from && hour < to : hour >= from || hour < to;
+    }
+
+    /**
+     * "sunset_dog_3fa4c1d29b07e85a.jpg" upgraded to "medium" becomes "sunset_dog_3fa4c1d29b07e85a_medium.jpg".
+     */
+    static String upgradeFileName(String fileName, String quality) {
+        return AssetPaths.variantName(fileName, "_" + quality);
+    }
+}
@@ -0,0 +1,297 @@
+package com.raidrin.eme.image;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the image provider for each request and fails over to the other one on error.
+ * Providers are ranked by a score built from their configured cost weight and their rolling
+ * p95 latency and error rate over the last {@code image.router.window-size} requests; a provider
+ * whose p95 or error rate exceeds its limit is only tried after the healthy ones.
+ * Leonardo is only a candidate when it is configured ({@code leonardo.api.key}).
+ */
+@Service
+public class ImageProviderRouter {
+
+    private final OpenAiImageService openAiImageService;
+    private final ObjectProvider<LeonardoApiService> leonardoApiService;
+    private final MeterRegistry meterRegistry;
+    private final Map<ImageProvider, ProviderStats> stats = new EnumMap<>(ImageProvider.class);
+
+    @Value("${image.router.window-size:50}")
+    private int windowSize;
+
+    @Value("${image.router.min-samples:5}")
+    private int minSamples;
+
+    @Value("${image.router.cost-weight.openai:1.0}")
+    private double openAiCostWeight;
+
+    @Value("${image.router.cost-weight.leonardo:1.0}")
+    private double leonardoCostWeight;
+
+    @Value("${image.router.latency-weight-per-second:0.05}")
+    private double latencyWeightPerSecond;
+
+    @Value("${image.router.error-weight:5.0}")
+    private double errorWeight;
+
+    @Value("${image.router.max-p95-ms:90000}")
+    private long maxP95Ms;
+
+    @Value("${image.router.max-error-rate:0.5}")
+    private double maxErrorRate;
+
+    @Value("${image.router.probe-interval:20}")
+    private int probeInterval;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final ExecutorService completionExecutor;
+
+    public ImageProviderRouter(OpenAiImageService openAiImageService,
+                               ObjectProvider<LeonardoApiService> leonardoApiService,
+                               MeterRegistry meterRegistry) {
+        this.openAiImageService = openAiImageService;
+        this.leonardoApiService = leonardoApiService;
+        this.meterRegistry = meterRegistry;
+        this.completionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "image-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        completionExecutor.shutdown();
+    }
+
+    /**
+     * Generate an image with the best-ranked provider, failing over to the next on error.
+     * A model override is an OpenAI model, so such requests are pinned to OpenAI.
+     *
+     * @param size OpenAI size string ("1536x1024", ...); Leonardo gets the closest size it supports
+     */
+    public RoutedImage generate(String prompt, String size, String quality, String modelOverride) {
+        try {
+            return generateAsync(prompt, size, quality, modelOverride).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("Image generation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Same as {@link #generate}, without waiting for providers that complete asynchronously: OpenAI
+     * runs on the calling thread, while a Leonardo generation completes the future from a router
+     * thread once it finishes, so failover and the caller's continuations never run on the
+     * Leonardo tracker thread.
+     */
+    public CompletableFuture<RoutedImage> generateAsync(String prompt, String size, String quality, String modelOverride) {
+        List<ImageProvider> order = modelOverride != null ? List.of(ImageProvider.OPENAI) : rankProviders();
+        return attempt(order, 0, prompt, size, quality, modelOverride);
+    }
+
+    private CompletableFuture<RoutedImage> attempt(List<ImageProvider> order, int index, String prompt,
+                                                   String size, String quality, String modelOverride) {
+        ImageProvider provider = order.get(index);
+        String reason = index == 0 ? (isHealthy(provider) ? "ranked" : "probe") : "failover";
+        meterRegistry.counter("image.router.decisions",
+                "provider", tagValue(provider), "reason", reason).increment();
+        if (index > 0) {
+            System.out.println("Image provider " + order.get(index - 1) + " failed, failing over to " + provider);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<RoutedImage> result;
+        try {
+            result = callProvider(provider, prompt, size, quality, modelOverride);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result = result.whenComplete((image, error) -> record(provider, System.nanoTime() - start, error == null));
+        if (index + 1 >= order.size()) {
+            return result;
+        }
+        return result.exceptionallyCompose(error -> attempt(order, index + 1, prompt, size, quality, modelOverride));
+    }
+
+    /**
+     * Providers in the order they should be tried.
+     */
+    private List<ImageProvider> rankProviders() {
+        List<ImageProvider> candidates = new ArrayList<>();
+        candidates.add(ImageProvider.OPENAI);
+        if (leonardoApiService.getIfAvailable() != null) {
+            candidates.add(ImageProvider.LEONARDO);
+        }
+        candidates.sort(Comparator.comparing((ImageProvider p) -> !isHealthy(p)).thenComparingDouble(this::score));
+
+        // An unhealthy provider only gets new samples when it is tried, so probe it now and then
+        // to notice when it recovers
+        ImageProvider last = candidates.get(candidates.size() - 1);
+        if (candidates.size() > 1 && !isHealthy(last) && requestCount.incrementAndGet() % probeInterval == 0) {
+            candidates.remove(last);
+            candidates.add(0, last);
+        }
+        return candidates;
+    }
+
+    private CompletableFuture<RoutedImage> callProvider(ImageProvider provider, String prompt, String size,
+                                                      String quality, String modelOverride) {
+        if (provider == ImageProvider.LEONARDO) {
+            LeonardoApiService leonardo = leonardoApiService.getObject();
+            int[] dimensions = leonardoDimensions(size);
+            String model = "leonardo:" + leonardo.getModelId();
+            String leonardoSize = dimensions[0] + "x" + dimensions[1];
+            return leonardo.generateImageAsync(prompt, dimensions[0], dimensions[1])
+                    .thenApply(image -> new RoutedImage(provider, model, leonardoSize,
+                            new OpenAiImageService.GeneratedImage(image.getImageUrl(), null)))
+                    // Hand the result (or error) over to a router thread
+                    .whenCompleteAsync((image, error) -> { }, completionExecutor);
+        }
+        OpenAiImageService.GeneratedImage image = openAiImageService.generateImage(prompt, size, quality, modelOverride);
+        return CompletableFuture.completedFuture(
+                new RoutedImage(provider, openAiImageService.resolveModel(modelOverride), size, image));
+    }
+
+    private double score(ImageProvider provider) {
+        double cost = provider == ImageProvider.LEONARDO ? leonardoCostWeight : openAiCostWeight;
+        ProviderStats providerStats = statsFor(provider);
+        if (providerStats.count() < minSamples) {
+            return cost;
+        }
+        return cost + latencyWeightPerSecond * providerStats.p95Millis() / 1000.0
+                + errorWeight * providerStats.errorRate();
+    }
+
+    private boolean isHealthy(ImageProvider provider) {
+        ProviderStats providerStats = statsFor(provider);
+        if (providerStats.count() < minSamples) {
+            return true;
+        }
+        return providerStats.p95Millis() <= maxP95Ms && providerStats.errorRate() <= maxErrorRate;
+    }
+
+    private void record(ImageProvider provider, long nanos, boolean success) {
+        statsFor(provider).add(TimeUnit.NANOSECONDS.toMillis(nanos), success);
+        Timer.builder("image.router.latency")
+                .description("Image generation latency per provider and outcome")
+                .tag("provider", tagValue(provider))
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized ProviderStats statsFor(ImageProvider provider) {
+        return stats.computeIfAbsent(provider, p -> {
+            ProviderStats providerStats = new ProviderStats(windowSize);
+            Gauge.builder("image.router.p95", providerStats, ProviderStats::p95Millis)
+                    .description("Rolling p95 image generation latency")
+                    .baseUnit("milliseconds")
+                    .tag("provider", tagValue(p))
+                    .register(meterRegistry);
+            Gauge.builder("image.router.error.rate", providerStats, ProviderStats::errorRate)
+                    .description("Rolling image generation error rate")
+                    .tag("provider", tagValue(p))
+                    .register(meterRegistry);
+            return providerStats;
+        });
+    }
+
+    private static String tagValue(ImageProvider provider) {
+        return provider.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Leonardo width and height (multiples of 8, at most 1536) with the aspect ratio of an OpenAI size;
+     * "auto" maps to 1024x1024.
+     */
+    static int[] leonardoDimensions(String size) {
+        if (size == null) {
+            return new int[]{1024, 1024};
+        }
+        return switch (size) {
+            case "1536x1024" -> new int[]{1152, 768};
+            case "1024x1536" -> new int[]{768, 1152};
+            case "1792x1024" -> new int[]{1344, 768};
+            case "1024x1792" -> new int[]{768, 1344};
+            default -> new int[]{1024, 1024};
+        };
+    }
+
+    /**
+     * An image together with the provider, model and size that produced it.
+     */
+    public record RoutedImage(ImageProvider provider, String model, String size,
+                              OpenAiImageService.GeneratedImage image) {
+    }
+
+    /**
+     * Ring buffer of the most recent request outcomes for one provider.
+     */
+    private static class ProviderStats {
+        private final long[] latencies;
+        private final boolean[] failures;
+        private int next;
+        private int count;
+
+        ProviderStats(int windowSize) {
+            this.latencies = new long[windowSize];
+            this.failures = new boolean[windowSize];
+        }
+
+        synchronized void add(long latencyMillis, boolean success) {
+            latencies[next] = latencyMillis;
+            failures[next] = !success;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized double p95Millis() {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(count * 0.95) - 1)];
+        }
+
+        synchronized double errorRate() {
+            if (count == 0) {
+                return 0;
+            }
+            int errors = 0;
+            for (int i = 0; i < count; i++) {
+                if (failures[i]) {
+                    errors++;
+                }
+            }
+            return (double) errors / count;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.raidrin.eme.image;
+
+import com.raidrin.eme.util.AssetPaths;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Re-encodes generated images as real JPEGs at a configurable quality and maximum dimension,
+ * and produces a small thumbnail for list pages. Providers return full-size PNGs that are
+ * saved under a {@code .jpg} name, which bloats ZIPs, Anki media and page loads.
+ */
+@Component
+public class ImageTranscoder {
+
+    public static final String THUMBNAIL_SUFFIX = "_thumb";
+
+    @Value("${image.transcode.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.transcode.quality:0.85}")
+    private float quality;
+
+    @Value("${image.transcode.max-dimension:1024}")
+    private int maxDimension;
+
+    @Value("${image.thumbnail.quality:0.75}")
+    private float thumbnailQuality;
+
+    @Value("${image.thumbnail.max-dimension:320}")
+    private int thumbnailMaxDimension;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Thumbnail file name for an image, e.g. {@code cat_sat.jpg -> cat_sat_thumb.jpg}.
+     */
+    public static String thumbnailFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return AssetPaths.variantName(dot > 0 ? fileName.substring(0, dot) : fileName, THUMBNAIL_SUFFIX) + ".jpg";
+    }
+
+    /**
+     * Whether a file name is a thumbnail's ({@link #thumbnailFileName}).
+     */
+    public static boolean isThumbnailFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName).endsWith(THUMBNAIL_SUFFIX);
+    }
+
+    /**
+     * Decode an image and encode the full-size and thumbnail JPEG variants.
+     *
+     * @return the variants, or null if the data is not a readable image
+     */
+    public Transcoded transcode(byte[] source) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+        if (image == null) {
+            return null;
+        }
+        byte[] full = encodeJpeg(scale(image, maxDimension), quality);
+        byte[] thumbnail = encodeJpeg(scale(image, thumbnailMaxDimension), thumbnailQuality);
+        return new Transcoded(full, thumbnail);
+    }
+
+    /**
+     * Scale down to fit within maxSide (never up) and flatten onto white, since JPEG has no alpha.
+     */
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double factor = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encoded full-size image and thumbnail.
+     */
+    public record Transcoded(byte[] image, byte[] thumbnail) {
+    }
+}
@@ -3,6 +3,7 @@ package com.raidrin.eme.image;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -11,15 +12,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service for generating images using Leonardo AI API
  * Documentation: https://docs.leonardo.ai/docs
  *
- * NOTE: This service is deprecated and no longer used.
- * Kept for reference only. Use OpenAiImageService instead.
+ * Only created when {@code leonardo.api.key} is set; OpenAiImageService is the default provider.
+ * Generations are tracked by {@link LeonardoGenerationTracker}, so waiting for one does not hold a thread.
  */
-// @Service - Commented out to prevent Spring from instantiating this deprecated service
+@Service
+@ConditionalOnProperty(name = "leonardo.api.key")
 @RequiredArgsConstructor
 public class LeonardoApiService {
 
@@ -33,9 +38,10 @@ public class LeonardoApiService {
     private String modelId;
 
     private final RestTemplate restTemplate;
+    private final LeonardoGenerationTracker generationTracker;
 
     /**
-     * Generate an image using Leonardo AI
+     * Generate an image using Leonardo AI, blocking until it completes
      *
      * @param prompt The image generation prompt
      * @param width Image width (default: 1152)
@@ -43,6 +49,20 @@ public class LeonardoApiService {
      * @return GeneratedImage with the URL and generation ID
      */
     public GeneratedImage generateImage(String prompt, Integer width, Integer height) {
+        try {
+            return generateImageAsync(prompt, width, height).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("Image generation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Start a Leonardo generation and return a future completed by the generation tracker
+     * (polling with backoff, or the completion webhook).
+     */
+    public CompletableFuture<GeneratedImage> generateImageAsync(String prompt, Integer width, Integer height) {
         if (prompt == null || prompt.trim().isEmpty()) {
             throw new IllegalArgumentException("Prompt must be provided");
         }
@@ -56,11 +76,20 @@ public class LeonardoApiService {
         // Step 1: Create a generation request
         String generationId = createGeneration(prompt, imageWidth, imageHeight);
 
-        // Step 2: Poll for completion and get the image URL
-        GeneratedImage image = waitForGeneration(generationId);
+        // Step 2: Let the tracker complete the future when the generation finishes
+        return generationTracker.track(generationId, this::fetchGeneration)
+                .whenComplete((image, error) -> {
+                    if (error == null) {
+                        System.out.println("Image generation completed - ID: " + generationId);
+                    }
+                });
+    }
 
-        System.out.println("Image generation completed - ID: " + generationId);
-        return image;
+    /**
+     * The configured Leonardo model; images are indexed under it.
+     */
+    public String getModelId() {
+        return modelId;
     }
 
     /**
@@ -111,59 +140,52 @@ public class LeonardoApiService {
         }
     }
 
-    private GeneratedImage waitForGeneration(String generationId) {
-        int maxAttempts = 60; // 60 attempts with 2 second intervals = 2 minutes max
-        int attemptCount = 0;
-
-        while (attemptCount < maxAttempts) {
-            try {
-                HttpHeaders headers = new HttpHeaders();
-                headers.set("Authorization", "Bearer " + leonardoApiKey);
-
-                HttpEntity<Void> entity = new HttpEntity<>(headers);
+    /**
+     * Fetch the status of a generation once.
+     *
+     * @return the image if the generation is complete, empty while it is still running
+     * @throws GenerationFailedException if Leonardo reports the generation as failed
+     */
+    Optional<GeneratedImage> fetchGeneration(String generationId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + leonardoApiKey);
 
-                String url = baseUrl + "/generations/" + generationId;
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-                ResponseEntity<LeonardoGenerationStatusResponse> response = restTemplate.exchange(
-                        url,
-                        HttpMethod.GET,
-                        entity,
-                        LeonardoGenerationStatusResponse.class
-                );
+        String url = baseUrl + "/generations/" + generationId;
 
-                if (response.getBody() != null &&
-                    response.getBody().getGenerations_by_pk() != null &&
-                    response.getBody().getGenerations_by_pk().getStatus().equals("COMPLETE")) {
+        ResponseEntity<LeonardoGenerationStatusResponse> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                entity,
+                LeonardoGenerationStatusResponse.class
+        );
 
-                    GenerationResult result = response.getBody().getGenerations_by_pk();
-                    List<GeneratedImageInfo> images = result.getGenerated_images();
-                    if (images != null && !images.isEmpty()) {
-                        GeneratedImageInfo imageInfo = images.get(0);
-                        Integer creditCost = result.getImageCredit();
-                        return new GeneratedImage(generationId, imageInfo.getUrl(), imageInfo.getId(), creditCost);
-                    }
-                }
-
-                // Wait 2 seconds before next attempt
-                Thread.sleep(2000);
-                attemptCount++;
-
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Image generation was interrupted", e);
-            } catch (Exception e) {
-                System.err.println("Error checking generation status: " + e.getMessage());
-                attemptCount++;
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Image generation was interrupted", ie);
-                }
+        if (response.getBody() == null || response.getBody().getGenerations_by_pk() == null) {
+            return Optional.empty();
+        }
+        GenerationResult result = response.getBody().getGenerations_by_pk();
+        if ("FAILED".equals(result.getStatus())) {
+            throw new GenerationFailedException("Leonardo generation " + generationId + " failed");
+        }
+        if ("COMPLETE".equals(result.getStatus())) {
+            List<GeneratedImageInfo> images = result.getGenerated_images();
+            if (images != null && !images.isEmpty()) {
+                GeneratedImageInfo imageInfo = images.get(0);
+                Integer creditCost = result.getImageCredit();
+                return Optional.of(new GeneratedImage(generationId, imageInfo.getUrl(), imageInfo.getId(), creditCost));
             }
         }
+        return Optional.empty();
+    }
 
-        throw new RuntimeException("Image generation timed out after " + maxAttempts + " attempts");
+    /**
+     * Leonardo reported a generation as failed; it will not complete.
+     */
+    public static class GenerationFailedException extends RuntimeException {
+        public GenerationFailedException(String message) {
+            super(message);
+        }
     }
 
     @Data
@@ -0,0 +1,164 @@
+package com.raidrin.eme.image;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tracks in-flight Leonardo generations on a single scheduler thread.
+ * Callers register a generation id and get a future; the tracker polls every pending generation
+ * with per-generation exponential backoff, and a webhook ({@link LeonardoWebhookController}) can
+ * complete a generation as soon as Leonardo reports it. No thread is held while a generation runs.
+ */
+@Component
+@ConditionalOnProperty(name = "leonardo.api.key")
+public class LeonardoGenerationTracker {
+
+    /**
+     * Fetches the current state of a generation: empty while pending, the image when complete.
+     * Throws if the generation failed.
+     */
+    @FunctionalInterface
+    public interface StatusPoller {
+        Optional<LeonardoApiService.GeneratedImage> poll(String generationId);
+    }
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${leonardo.tracker.tick-ms:500}")
+    private long tickMs;
+
+    @Value("${leonardo.tracker.initial-delay-ms:2000}")
+    private long initialDelayMs;
+
+    @Value("${leonardo.tracker.max-delay-ms:15000}")
+    private long maxDelayMs;
+
+    @Value("${leonardo.tracker.timeout-seconds:180}")
+    private long timeoutSeconds;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leonardo-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollDue, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        pending.values().forEach(p -> p.future.completeExceptionally(
+                new CancellationException("Leonardo generation tracker shut down")));
+        pending.clear();
+    }
+
+    /**
+     * Start tracking a generation.
+     *
+     * @return future completed when the generation completes (by poll or webhook), fails or times out
+     */
+    public CompletableFuture<LeonardoApiService.GeneratedImage> track(String generationId, StatusPoller poller) {
+        long now = System.currentTimeMillis();
+        Pending entry = pending.computeIfAbsent(generationId, id -> new Pending(poller, now + initialDelayMs,
+                now + TimeUnit.SECONDS.toMillis(timeoutSeconds), initialDelayMs));
+        return entry.future;
+    }
+
+    /**
+     * Complete a tracked generation from a webhook notification.
+     *
+     * @return false if the generation is not being tracked (already done or unknown)
+     */
+    public boolean complete(String generationId, LeonardoApiService.GeneratedImage image) {
+        Pending entry = pending.remove(generationId);
+        if (entry == null) {
+            return false;
+        }
+        entry.future.complete(image);
+        return true;
+    }
+
+    /**
+     * Fail a tracked generation from a webhook notification.
+     */
+    public boolean fail(String generationId, String reason) {
+        Pending entry = pending.remove(generationId);
+        if (entry == null) {
+            return false;
+        }
+        entry.future.completeExceptionally(new RuntimeException("Leonardo generation " + generationId + " failed: " + reason));
+        return true;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void pollDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Pending> e : pending.entrySet()) {
+            String generationId = e.getKey();
+            Pending entry = e.getValue();
+            if (now >= entry.deadline) {
+                if (pending.remove(generationId, entry)) {
+                    entry.future.completeExceptionally(new TimeoutException(
+                            "Image generation " + generationId + " timed out after " + timeoutSeconds + "s"));
+                }
+                continue;
+            }
+            if (now < entry.nextPollAt) {
+                continue;
+            }
+            try {
+                Optional<LeonardoApiService.GeneratedImage> image = entry.poller.poll(generationId);
+                if (image.isPresent()) {
+                    if (pending.remove(generationId, entry)) {
+                        entry.future.complete(image.get());
+                    }
+                    continue;
+                }
+            } catch (Exception ex) {
+                if (ex instanceof LeonardoApiService.GenerationFailedException) {
+                    if (pending.remove(generationId, entry)) {
+                        entry.future.completeExceptionally(ex);
+                    }
+                    continue;
+                }
+                System.err.println("Error checking generation status for " + generationId + ": " + ex.getMessage());
+            }
+            entry.delayMs = Math.min(maxDelayMs, entry.delayMs * 3 / 2);
+            entry.nextPollAt = System.currentTimeMillis() + entry.delayMs;
+        }
+    }
+
+    private static class Pending {
+        private final CompletableFuture<LeonardoApiService.GeneratedImage> future = new CompletableFuture<>();
+        private final StatusPoller poller;
+        private final long deadline;
+        private long nextPollAt;
+        private long delayMs;
+
+        Pending(StatusPoller poller, long nextPollAt, long deadline, long delayMs) {
+            this.poller = poller;
+            this.nextPollAt = nextPollAt;
+            this.deadline = deadline;
+            this.delayMs = delayMs;
+        }
+    }
+}
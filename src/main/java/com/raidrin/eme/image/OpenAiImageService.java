@@ -1,7 +1,9 @@
 package com.raidrin.eme.image;
 
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -10,14 +12,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Base64;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Service for generating images using OpenAI Image Generation API
@@ -38,6 +42,31 @@ public class OpenAiImageService {
 
     private final RestTemplate restTemplate;
 
+    /**
+     * Remove base64 images that earlier versions wrote to {@code java.io.tmpdir/openai-images}
+     * and never deleted.
+     */
+    @PostConstruct
+    public void cleanupLegacyTempFiles() {
+        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"), "openai-images");
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir, "openai-*.png")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+            Files.deleteIfExists(tempDir);
+        } catch (IOException e) {
+            System.err.println("Failed to clean up OpenAI temp images in " + tempDir + ": " + e.getMessage());
+        }
+        if (deleted > 0) {
+            System.out.println("Deleted " + deleted + " leftover OpenAI temp images from " + tempDir);
+        }
+    }
+
     /**
      * Generate an image using OpenAI Image Generation
      *
@@ -59,7 +88,7 @@ public class OpenAiImageService {
             throw new IllegalArgumentException("Size must be one of: 1024x1024, 1024x1536, 1536x1024, 1024x1792, 1792x1024, or auto");
         }
 
-        String modelToUse = modelOverride != null ? modelOverride : model;
+        String modelToUse = resolveModel(modelOverride);
         System.out.println("Generating image with OpenAI - Model: " + modelToUse + ", Prompt: " + prompt);
 
         OpenAiImageRequest request = new OpenAiImageRequest();
@@ -95,13 +124,9 @@ public class OpenAiImageService {
                 if (imageData.getUrl() != null && !imageData.getUrl().trim().isEmpty()) {
                     return new GeneratedImage(imageData.getUrl(), imageData.getRevised_prompt());
                 } else if (imageData.getB64_json() != null && !imageData.getB64_json().trim().isEmpty()) {
-                    System.out.println("OpenAI returned base64 image data - converting to file");
-                    try {
-                        String fileUrl = saveBase64ToTempFile(imageData.getB64_json());
-                        return new GeneratedImage(fileUrl, imageData.getRevised_prompt());
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to save base64 image data to file: " + e.getMessage(), e);
-                    }
+                    // Kept in memory and decoded while it is written out; no temp file
+                    System.out.println("OpenAI returned base64 image data");
+                    return GeneratedImage.inline(imageData.getB64_json(), imageData.getRevised_prompt());
                 } else {
                     System.err.println("OpenAI API returned null or empty URL and base64");
                     System.err.println("Full response body: " + response.getBody());
@@ -121,6 +146,13 @@ public class OpenAiImageService {
         }
     }
 
+    /**
+     * Model used for a request: the override if given, otherwise the configured default.
+     */
+    public String resolveModel(String modelOverride) {
+        return modelOverride != null ? modelOverride : model;
+    }
+
     /**
      * Generate image with default settings (1024x1024, medium quality)
      */
@@ -142,32 +174,6 @@ public class OpenAiImageService {
         return generateImage(prompt, size, quality, null);
     }
 
-    /**
-     * Save base64 encoded image data to a temporary file and return file:// URL
-     */
-    private String saveBase64ToTempFile(String base64Data) throws IOException {
-        // Decode base64 to bytes
-        byte[] imageBytes = Base64.getDecoder().decode(base64Data);
-
-        // Create temp directory if it doesn't exist
-        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"), "openai-images");
-        Files.createDirectories(tempDir);
-
-        // Generate unique filename
-        String fileName = "openai-" + UUID.randomUUID().toString() + ".png";
-        Path tempFile = tempDir.resolve(fileName);
-
-        // Write bytes to file
-        try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
-            fos.write(imageBytes);
-        }
-
-        System.out.println("Saved base64 image to: " + tempFile.toAbsolutePath());
-
-        // Return file:// URL
-        return tempFile.toUri().toString();
-    }
-
     @Data
     private static class OpenAiImageRequest {
         private String model;
@@ -190,14 +196,41 @@ public class OpenAiImageService {
         private String revised_prompt;
     }
 
+    /**
+     * A generated image: either a URL to fetch or base64 data returned inline.
+     */
     @Data
     public static class GeneratedImage {
         private String imageUrl;
         private String revisedPrompt;
+        @ToString.Exclude
+        private String b64Json;
 
         public GeneratedImage(String imageUrl, String revisedPrompt) {
             this.imageUrl = imageUrl;
             this.revisedPrompt = revisedPrompt;
         }
+
+        public static GeneratedImage inline(String b64Json, String revisedPrompt) {
+            GeneratedImage image = new GeneratedImage(null, revisedPrompt);
+            image.setB64Json(b64Json);
+            return image;
+        }
+
+        public boolean isInline() {
+            return b64Json != null;
+        }
+
+        /**
+         * Open the image bytes. Inline data is base64-decoded as it is read, so the
+         * decoded image is never held in memory as a whole.
+         */
+        public InputStream openStream() throws IOException {
+            if (isInline()) {
+                return Base64.getMimeDecoder().wrap(
+                        new ByteArrayInputStream(b64Json.getBytes(StandardCharsets.US_ASCII)));
+            }
+            return RemoteImages.open(imageUrl);
+        }
     }
 }
@@ -0,0 +1,72 @@
+package com.raidrin.eme.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Fetches images returned by image providers over HTTPS with the JDK HTTP client. Other schemes
+ * (file:, jar:, ftp:) and redirects are refused, so a provider or webhook supplied URL can only
+ * reach the host it names.
+ */
+public final class RemoteImages {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private RemoteImages() {
+    }
+
+    /**
+     * Whether the URL is an https URL on one of the given hosts (compared ignoring case).
+     */
+    public static boolean isAllowed(String imageUrl, Collection<String> hosts) {
+        URI uri = parse(imageUrl);
+        return uri != null && hosts.stream().anyMatch(host -> host.trim().equalsIgnoreCase(uri.getHost()));
+    }
+
+    /**
+     * Open the body of an https image URL.
+     *
+     * @throws IOException if the URL is not https, the request fails or the response is not 200
+     */
+    public static InputStream open(String imageUrl) throws IOException {
+        URI uri = parse(imageUrl);
+        if (uri == null) {
+            throw new IOException("Refusing to fetch non-https image URL: " + imageUrl);
+        }
+        HttpResponse<InputStream> response;
+        try {
+            response = CLIENT.send(HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + imageUrl, e);
+        }
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Image fetch returned HTTP " + response.statusCode() + ": " + imageUrl);
+        }
+        return response.body();
+    }
+
+    private static URI parse(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(imageUrl.trim());
+            return "https".equalsIgnoreCase(uri.getScheme()) && uri.getHost() != null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.raidrin.eme.mnemonic;
+
+import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicData;
+import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicRequest;
+import com.raidrin.eme.util.RequestBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects mnemonic requests from concurrently processed words and sends them to OpenAI in batches
+ * of up to {@code mnemonic.batch.size} words ({@link MnemonicGenerationService#generateMnemonicBatch}).
+ * A batch is sent when it is full (by word count or by {@code mnemonic.batch.max-tokens} estimated
+ * tokens) or {@code mnemonic.batch.linger-ms} after its first request.
+ * Words missing from the response or failing validation are re-requested once in a batch of their own
+ * and then, if still missing, generated one by one.
+ */
+@Component
+public class MnemonicBatcher implements RequestBatcher.Handler<MnemonicRequest, MnemonicData> {
+
+    private final MnemonicGenerationService mnemonicGenerationService;
+    private RequestBatcher<MnemonicRequest, MnemonicData> batcher;
+
+    @Value("${mnemonic.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mnemonic.batch.size:8}")
+    private int batchSize;
+
+    @Value("${mnemonic.batch.max-tokens:12000}")
+    private int maxTokens;
+
+    @Value("${mnemonic.batch.linger-ms:300}")
+    private long lingerMs;
+
+    public MnemonicBatcher(MnemonicGenerationService mnemonicGenerationService) {
+        this.mnemonicGenerationService = mnemonicGenerationService;
+    }
+
+    @PostConstruct
+    public void start() {
+        batcher = new RequestBatcher<>("mnemonic", this, enabled ? batchSize : 1, lingerMs, maxTokens,
+                mnemonicGenerationService.estimateBatchBaseTokens(), true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.stop();
+    }
+
+    /**
+     * Generate a mnemonic, waiting for the batch the request joins. Errors are those of
+     * {@link MnemonicGenerationService#generateMnemonic}, e.g. a missing character guide.
+     */
+    public MnemonicData generate(MnemonicRequest request) {
+        return batcher.generate(request);
+    }
+
+    @Override
+    public Map<Integer, MnemonicData> generateBatch(List<MnemonicRequest> requests) {
+        return mnemonicGenerationService.generateMnemonicBatch(requests);
+    }
+
+    @Override
+    public MnemonicData generateSingle(MnemonicRequest request) {
+        return mnemonicGenerationService.generateMnemonic(request.sourceWord(), request.targetWord(),
+                request.sourceLanguage(), request.targetLanguage(), request.sourceTransliteration(),
+                request.imageStyle());
+    }
+
+    @Override
+    public int estimateTokens(MnemonicRequest request) {
+        return mnemonicGenerationService.estimateBatchItemTokens(request);
+    }
+}
@@ -2,20 +2,24 @@ package com.raidrin.eme.mnemonic;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.raidrin.eme.image.ImageStyle;
+import com.raidrin.eme.openai.OpenAiChatClient;
+import com.raidrin.eme.prompt.PromptTemplate;
+import com.raidrin.eme.prompt.PromptTemplates;
+import com.raidrin.eme.prompt.TokenEstimator;
 import com.raidrin.eme.storage.entity.CharacterGuideEntity;
 import com.raidrin.eme.storage.service.CharacterGuideService;
+import com.raidrin.eme.storage.service.MnemonicCacheService;
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,12 +29,40 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class MnemonicGenerationService {
 
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
+    /**
+     * Version of the mnemonic prompts and system messages. Bump it when they change so cached
+     * mnemonics built from the old prompts are dropped.
+     */
+    static final String PROMPT_TEMPLATE_VERSION = "2";
+
+    private static final int MAX_COMPLETION_TOKENS = 500;
+
+    public static final String MNEMONIC_SYSTEM_MESSAGE = "You are a mnemonic memory expert who creates vivid, memorable associations for language learning. You MUST use REAL, WELL-KNOWN characters from actual shows, movies, sports, or public life - NEVER create fictional characters. Always specify the character's origin (e.g., 'from Naruto', 'the NBA player'). Always respond with valid JSON only.\n\nIMPORTANT SAFETY GUIDELINES for image prompts:\n- Keep all content family-friendly and appropriate for all ages\n- Avoid violence, weapons, blood, injuries, or dangerous situations\n- Avoid suggestive, romantic, or intimate scenarios\n- Avoid controversial political or religious imagery\n- Avoid copyrighted brand names or logos\n- Focus on positive, educational, and wholesome scenes\n- Use everyday activities, nature scenes, and safe interactions";
+
+    private static final String KEYWORD_SYSTEM_MESSAGE = "You are a mnemonic memory expert who creates vivid, memorable associations for language learning. You MUST use REAL, WELL-KNOWN characters from actual shows, movies, sports, or public life - NEVER create fictional characters. Always specify the character's origin. Always respond with valid JSON only.\n\nIMPORTANT SAFETY GUIDELINES for image prompts:\n- Keep all content family-friendly and appropriate for all ages\n- Avoid violence, weapons, blood, injuries, or dangerous situations\n- Avoid suggestive, romantic, or intimate scenarios\n- Avoid controversial political or religious imagery\n- Avoid copyrighted brand names or logos\n- Focus on positive, educational, and wholesome scenes\n- Use everyday activities, nature scenes, and safe interactions";
+
+    @Value("${mnemonic.cache.enabled:true}")
+    private boolean cacheEnabled;
 
     private final CharacterGuideService characterGuideService;
-    private final RestTemplate restTemplate;
+    private final OpenAiChatClient openAiChatClient;
     private final ObjectMapper objectMapper;
+    private final PromptSanitizer promptSanitizer;
+    private final MnemonicCacheService mnemonicCacheService;
+    private final PromptTemplates promptTemplates;
+    private final TokenEstimator tokenEstimator;
+
+    @PostConstruct
+    public void dropStaleCacheEntries() {
+        try {
+            int dropped = mnemonicCacheService.invalidateOtherTemplateVersions(PROMPT_TEMPLATE_VERSION);
+            if (dropped > 0) {
+                System.out.println("Dropped " + dropped + " cached mnemonics from older prompt templates");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to drop stale cached mnemonics: " + e.getMessage());
+        }
+    }
 
     /**
      * Generate mnemonic data for a word translation with transliteration for character matching
@@ -46,6 +78,21 @@ public class MnemonicGenerationService {
     public MnemonicData generateMnemonic(String sourceWord, String targetWord,
                                          String sourceLanguage, String targetLanguage,
                                          String sourceTransliteration, ImageStyle imageStyle) {
+        return generateMnemonic(sourceWord, targetWord, sourceLanguage, targetLanguage,
+                sourceTransliteration, imageStyle, false);
+    }
+
+    /**
+     * Generate mnemonic data for a word translation, optionally skipping the mnemonic cache.
+     * Explicit regeneration bypasses the cache so that a new mnemonic is generated; the new
+     * mnemonic then replaces the cached one.
+     *
+     * @param bypassCache Whether to ignore a cached mnemonic for the same request
+     */
+    public MnemonicData generateMnemonic(String sourceWord, String targetWord,
+                                         String sourceLanguage, String targetLanguage,
+                                         String sourceTransliteration, ImageStyle imageStyle,
+                                         boolean bypassCache) {
 
         // Default to REALISTIC_CINEMATIC if no style provided
         if (imageStyle == null) {
@@ -72,47 +119,31 @@ public class MnemonicGenerationService {
         String prompt = buildMnemonicPrompt(sourceWord, targetWord, sourceLanguage, targetLanguage,
                 sourceCharacter, sourceTransliteration, imageStyle);
 
-        System.out.println("Generating mnemonic with OpenAI for: " + sourceWord + " -> " + targetWord);
+        String cacheKey = MnemonicCacheService.computeCacheKey(null, sourceWord, targetWord, sourceLanguage,
+                targetLanguage, sourceTransliteration, sourceCharacter.get().getId(), imageStyle.name(),
+                PROMPT_TEMPLATE_VERSION, prompt);
+        Optional<MnemonicData> cached = bypassCache ? Optional.empty() : findCachedMnemonic(cacheKey);
+        if (cached.isPresent()) {
+            System.out.println("Using cached mnemonic for: " + sourceWord + " -> " + targetWord);
+            return cached.get();
+        }
 
-        // Call OpenAI API
-        OpenAiRequest request = new OpenAiRequest();
-        request.setModel("gpt-4o-mini");
-        request.setMessages(List.of(
-                new OpenAiMessage("system", "You are a mnemonic memory expert who creates vivid, memorable associations for language learning. You MUST use REAL, WELL-KNOWN characters from actual shows, movies, sports, or public life - NEVER create fictional characters. Always specify the character's origin (e.g., 'from Naruto', 'the NBA player'). Always respond with valid JSON only.\n\nIMPORTANT SAFETY GUIDELINES for image prompts:\n- Keep all content family-friendly and appropriate for all ages\n- Avoid violence, weapons, blood, injuries, or dangerous situations\n- Avoid suggestive, romantic, or intimate scenarios\n- Avoid controversial political or religious imagery\n- Avoid copyrighted brand names or logos\n- Focus on positive, educational, and wholesome scenes\n- Use everyday activities, nature scenes, and safe interactions"),
-                new OpenAiMessage("user", prompt)
-        ));
-        request.setMaxTokens(500);
-        request.setTemperature(0.7);
-        request.setResponseFormat(new ResponseFormat("json_object"));
+        System.out.println("Generating mnemonic with OpenAI for: " + sourceWord + " -> " + targetWord);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-
-            HttpEntity<OpenAiRequest> entity = new HttpEntity<>(request, headers);
-
-            ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    OpenAiResponse.class
-            );
-
-            if (response.getBody() != null && !response.getBody().getChoices().isEmpty()) {
-                String content = response.getBody().getChoices().get(0).getMessage().getContent();
-                System.out.println("Mnemonic generation response: " + content);
+            String content = openAiChatClient.complete("mnemonic", MNEMONIC_SYSTEM_MESSAGE, prompt,
+                    MAX_COMPLETION_TOKENS, 0.7, true);
+            System.out.println("Mnemonic generation response: " + content);
 
-                // Parse JSON response
-                MnemonicData mnemonicData = objectMapper.readValue(content, MnemonicData.class);
+            // Parse JSON response
+            MnemonicData mnemonicData = objectMapper.readValue(content, MnemonicData.class);
 
-                // Validate the generated mnemonic data
-                validateMnemonicData(mnemonicData, sourceWord, targetWord, sourceCharacter);
+            // Validate the generated mnemonic data
+            validateMnemonicData(mnemonicData, sourceWord, targetWord, sourceCharacter);
 
-                return mnemonicData;
-            } else {
-                throw new RuntimeException("OpenAI API returned empty response");
-            }
+            cacheMnemonic(cacheKey, sourceWord, targetWord, sourceLanguage, targetLanguage,
+                    sourceTransliteration, sourceCharacter.get().getId(), imageStyle, mnemonicData);
+            return mnemonicData;
         } catch (Exception e) {
             System.err.println("Mnemonic generation error: " + e.getMessage());
             e.printStackTrace();
@@ -169,6 +200,20 @@ public class MnemonicGenerationService {
     public MnemonicData generateMnemonicFromKeyword(String mnemonicKeyword, String sourceWord, String targetWord,
                                                     String sourceLanguage, String targetLanguage,
                                                     String sourceTransliteration, ImageStyle imageStyle) {
+        return generateMnemonicFromKeyword(mnemonicKeyword, sourceWord, targetWord, sourceLanguage, targetLanguage,
+                sourceTransliteration, imageStyle, false);
+    }
+
+    /**
+     * Generate mnemonic sentence and image prompt from an existing keyword, optionally skipping the
+     * mnemonic cache so that regeneration produces a new sentence and prompt.
+     *
+     * @param bypassCache Whether to ignore a cached mnemonic for the same request
+     */
+    public MnemonicData generateMnemonicFromKeyword(String mnemonicKeyword, String sourceWord, String targetWord,
+                                                    String sourceLanguage, String targetLanguage,
+                                                    String sourceTransliteration, ImageStyle imageStyle,
+                                                    boolean bypassCache) {
 
         // Default to REALISTIC_CINEMATIC if no style provided
         if (imageStyle == null) {
@@ -195,50 +240,34 @@ public class MnemonicGenerationService {
         String prompt = buildMnemonicFromKeywordPrompt(mnemonicKeyword, sourceWord, targetWord,
                 sourceLanguage, targetLanguage, sourceCharacter, sourceTransliteration, imageStyle);
 
-        System.out.println("Generating mnemonic from keyword '" + mnemonicKeyword + "' for: " + sourceWord + " -> " + targetWord);
+        String cacheKey = MnemonicCacheService.computeCacheKey(mnemonicKeyword, sourceWord, targetWord, sourceLanguage,
+                targetLanguage, sourceTransliteration, sourceCharacter.get().getId(), imageStyle.name(),
+                PROMPT_TEMPLATE_VERSION, prompt);
+        Optional<MnemonicData> cached = bypassCache ? Optional.empty() : findCachedMnemonic(cacheKey);
+        if (cached.isPresent()) {
+            System.out.println("Using cached mnemonic from keyword '" + mnemonicKeyword + "' for: " + sourceWord);
+            return cached.get();
+        }
 
-        // Call OpenAI API
-        OpenAiRequest request = new OpenAiRequest();
-        request.setModel("gpt-4o-mini");
-        request.setMessages(List.of(
-                new OpenAiMessage("system", "You are a mnemonic memory expert who creates vivid, memorable associations for language learning. You MUST use REAL, WELL-KNOWN characters from actual shows, movies, sports, or public life - NEVER create fictional characters. Always specify the character's origin. Always respond with valid JSON only.\n\nIMPORTANT SAFETY GUIDELINES for image prompts:\n- Keep all content family-friendly and appropriate for all ages\n- Avoid violence, weapons, blood, injuries, or dangerous situations\n- Avoid suggestive, romantic, or intimate scenarios\n- Avoid controversial political or religious imagery\n- Avoid copyrighted brand names or logos\n- Focus on positive, educational, and wholesome scenes\n- Use everyday activities, nature scenes, and safe interactions"),
-                new OpenAiMessage("user", prompt)
-        ));
-        request.setMaxTokens(500);
-        request.setTemperature(0.7);
-        request.setResponseFormat(new ResponseFormat("json_object"));
+        System.out.println("Generating mnemonic from keyword '" + mnemonicKeyword + "' for: " + sourceWord + " -> " + targetWord);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-
-            HttpEntity<OpenAiRequest> entity = new HttpEntity<>(request, headers);
+            String content = openAiChatClient.complete("mnemonic_from_keyword", KEYWORD_SYSTEM_MESSAGE, prompt,
+                    MAX_COMPLETION_TOKENS, 0.7, true);
+            System.out.println("Mnemonic from keyword response: " + content);
 
-            ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    OpenAiResponse.class
-            );
+            // Parse JSON response
+            MnemonicData mnemonicData = objectMapper.readValue(content, MnemonicData.class);
 
-            if (response.getBody() != null && !response.getBody().getChoices().isEmpty()) {
-                String content = response.getBody().getChoices().get(0).getMessage().getContent();
-                System.out.println("Mnemonic from keyword response: " + content);
+            // Ensure the keyword matches the input (OpenAI should return it, but we enforce it)
+            mnemonicData.mnemonic_keyword = mnemonicKeyword;
 
-                // Parse JSON response
-                MnemonicData mnemonicData = objectMapper.readValue(content, MnemonicData.class);
+            // Validate the generated mnemonic data
+            validateMnemonicData(mnemonicData, sourceWord, targetWord, sourceCharacter);
 
-                // Ensure the keyword matches the input (OpenAI should return it, but we enforce it)
-                mnemonicData.mnemonic_keyword = mnemonicKeyword;
-
-                // Validate the generated mnemonic data
-                validateMnemonicData(mnemonicData, sourceWord, targetWord, sourceCharacter);
-
-                return mnemonicData;
-            } else {
-                throw new RuntimeException("OpenAI API returned empty response");
-            }
+            cacheMnemonic(cacheKey, sourceWord, targetWord, sourceLanguage, targetLanguage,
+                    sourceTransliteration, sourceCharacter.get().getId(), imageStyle, mnemonicData);
+            return mnemonicData;
         } catch (Exception e) {
             System.err.println("Mnemonic from keyword generation error: " + e.getMessage());
             e.printStackTrace();
@@ -247,234 +276,232 @@ public class MnemonicGenerationService {
     }
 
     /**
-     * Generate multiple mnemonics for a list of translation pairs
+     * Generate mnemonics for several words with a single OpenAI call. The instructions are sent once
+     * and the words are listed with their character; the response is a JSON array with one entry per word.
+     * Cached mnemonics are served without calling OpenAI.
+     *
+     * Words without a character guide match, and words whose entry is missing or fails validation,
+     * are left out of the result; callers re-request them (the single-word path reports the reason).
+     *
+     * @return valid mnemonics by index in {@code requests}
      */
-    public List<MnemonicData> generateMnemonics(List<TranslationPair> translations,
-                                                String sourceLanguage, String targetLanguage) {
-        return translations.stream()
-                .map(pair -> generateMnemonic(pair.getSourceWord(), pair.getTargetWord(),
-                        sourceLanguage, targetLanguage))
-                .toList();
-    }
-
-    private String buildMnemonicFromKeywordPrompt(String mnemonicKeyword, String sourceWord, String targetWord,
-                                                  String sourceLanguage, String targetLanguage,
-                                                  Optional<CharacterGuideEntity> sourceCharacter,
-                                                  String sourceTransliteration, ImageStyle imageStyle) {
+    public Map<Integer, MnemonicData> generateMnemonicBatch(List<MnemonicRequest> requests) {
+        Map<Integer, MnemonicData> results = new HashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        Map<Integer, CharacterGuideEntity> characters = new HashMap<>();
+        Map<Integer, String> cacheKeys = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            MnemonicRequest request = requests.get(i);
+            ImageStyle imageStyle = request.imageStyleOrDefault();
+            String transliteration = request.sourceTransliteration();
+            Optional<CharacterGuideEntity> character = transliteration != null && !transliteration.trim().isEmpty()
+                    ? characterGuideService.findMatchingCharacterForWord(request.sourceWord(), request.sourceLanguage(), transliteration)
+                    : Optional.empty();
+            if (character.isEmpty()) {
+                continue;
+            }
+            // Same key as the single-word request, so both paths share cache entries
+            String prompt = buildMnemonicPrompt(request.sourceWord(), request.targetWord(), request.sourceLanguage(),
+                    request.targetLanguage(), character, transliteration, imageStyle);
+            String cacheKey = MnemonicCacheService.computeCacheKey(null, request.sourceWord(), request.targetWord(),
+                    request.sourceLanguage(), request.targetLanguage(), transliteration, character.get().getId(),
+                    imageStyle.name(), PROMPT_TEMPLATE_VERSION, prompt);
+            Optional<MnemonicData> cached = findCachedMnemonic(cacheKey);
+            if (cached.isPresent()) {
+                results.put(i, cached.get());
+                continue;
+            }
+            characters.put(i, character.get());
+            cacheKeys.put(i, cacheKey);
+            pending.add(i);
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
 
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Create a mnemonic to remember that '").append(sourceWord).append("' (")
-                .append(getLanguageName(sourceLanguage)).append(") means '").append(targetWord)
-                .append("' (").append(getLanguageName(targetLanguage)).append(").\n\n");
+        List<MnemonicRequest> batch = pending.stream().map(requests::get).toList();
+        List<CharacterGuideEntity> batchCharacters = pending.stream().map(characters::get).toList();
+        String prompt = buildMnemonicBatchPrompt(batch, batchCharacters);
+        System.out.println("Generating " + batch.size() + " mnemonics with one OpenAI call");
 
-        prompt.append("MNEMONIC KEYWORD PROVIDED: '").append(mnemonicKeyword).append("'\n");
-        prompt.append("You MUST use this exact keyword - do NOT change it or create a new one!\n\n");
+        try {
+            String content = openAiChatClient.complete("mnemonic_batch", MNEMONIC_SYSTEM_MESSAGE, prompt,
+                    MAX_COMPLETION_TOKENS * batch.size(), 0.7, true);
+            MnemonicBatchResponse response = objectMapper.readValue(content, MnemonicBatchResponse.class);
+            if (response.getMnemonics() == null) {
+                throw new RuntimeException("Batch response has no mnemonics array");
+            }
+            for (MnemonicBatchItem item : response.getMnemonics()) {
+                if (item.getIndex() == null || item.getIndex() < 0 || item.getIndex() >= batch.size()) {
+                    continue;
+                }
+                int requestIndex = pending.get(item.getIndex());
+                MnemonicRequest request = requests.get(requestIndex);
+                MnemonicData mnemonicData = new MnemonicData();
+                mnemonicData.mnemonic_keyword = item.getMnemonic_keyword();
+                mnemonicData.mnemonic_sentence = item.getMnemonic_sentence();
+                mnemonicData.image_prompt = item.getImage_prompt();
+                if (!validateMnemonicData(mnemonicData, request.sourceWord(), request.targetWord(),
+                        Optional.of(characters.get(requestIndex)))) {
+                    continue;
+                }
+                cacheMnemonic(cacheKeys.get(requestIndex), request.sourceWord(), request.targetWord(),
+                        request.sourceLanguage(), request.targetLanguage(), request.sourceTransliteration(),
+                        characters.get(requestIndex).getId(), request.imageStyleOrDefault(), mnemonicData);
+                results.put(requestIndex, mnemonicData);
+            }
+        } catch (Exception e) {
+            System.err.println("Batched mnemonic generation failed for " + batch.size() + " words: " + e.getMessage());
+        }
+        return results;
+    }
 
-        // Character assignment section - USE ONLY ONE CHARACTER
-        prompt.append("CHARACTER TO USE:\n");
+    /**
+     * Validate and cache a mnemonic generated outside this service (e.g. by fused word enrichment)
+     * under the key the single-word request would use, so that request is served from the cache.
+     *
+     * @return false if the word has no character guide or the mnemonic fails validation
+     */
+    public boolean storeMnemonic(MnemonicRequest request, MnemonicData mnemonicData) {
+        String transliteration = request.sourceTransliteration();
+        if (transliteration == null || transliteration.trim().isEmpty()) {
+            return false;
+        }
+        Optional<CharacterGuideEntity> character = characterGuideService.findMatchingCharacterForWord(
+                request.sourceWord(), request.sourceLanguage(), transliteration);
+        if (character.isEmpty()
+                || !validateMnemonicData(mnemonicData, request.sourceWord(), request.targetWord(), character)) {
+            return false;
+        }
+        ImageStyle imageStyle = request.imageStyleOrDefault();
+        String prompt = buildMnemonicPrompt(request.sourceWord(), request.targetWord(), request.sourceLanguage(),
+                request.targetLanguage(), character, transliteration, imageStyle);
+        String cacheKey = MnemonicCacheService.computeCacheKey(null, request.sourceWord(), request.targetWord(),
+                request.sourceLanguage(), request.targetLanguage(), transliteration, character.get().getId(),
+                imageStyle.name(), PROMPT_TEMPLATE_VERSION, prompt);
+        cacheMnemonic(cacheKey, request.sourceWord(), request.targetWord(), request.sourceLanguage(),
+                request.targetLanguage(), transliteration, character.get().getId(), imageStyle, mnemonicData);
+        return true;
+    }
 
-        // Add character information if available
-        if (sourceCharacter.isPresent()) {
-            CharacterGuideEntity sc = sourceCharacter.get();
-            prompt.append("- Use ONLY this character: ").append(sc.getCharacterName()).append(" from ").append(sc.getCharacterContext())
-                    .append(" (REQUIRED - DO NOT CHANGE THIS CHARACTER)\n");
-        } else {
-            // Include transliteration if available
-            if (sourceTransliteration != null && !sourceTransliteration.trim().isEmpty()) {
-                prompt.append("- The word '").append(sourceWord).append("' is romanized as: ").append(sourceTransliteration).append("\n");
+    private String buildMnemonicBatchPrompt(List<MnemonicRequest> batch, List<CharacterGuideEntity> characters) {
+        PromptTemplate wordTemplate = promptTemplates.get("mnemonic-batch-word");
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            MnemonicRequest request = batch.get(i);
+            Map<String, Object> values = wordValues(request.sourceWord(), request.targetWord(),
+                    request.sourceLanguage(), request.targetLanguage(), characters.get(i),
+                    request.sourceTransliteration(), request.imageStyleOrDefault());
+            values.put("index", i);
+            if (i > 0) {
+                words.append("\n");
             }
-            prompt.append("- CRITICAL CHARACTER SELECTION RULE: You MUST choose EXACTLY ONE REAL, WELL-KNOWN character whose name starts with the FIRST 2-3 LETTERS of the source word's ROMANIZATION.\n");
-            prompt.append("  STEP 1: Determine the romanization (pronunciation in English letters) of '").append(sourceWord).append("'");
-            if (sourceTransliteration != null && !sourceTransliteration.trim().isEmpty()) {
-                prompt.append(" (provided above: ").append(sourceTransliteration).append(")");
-            }
-            prompt.append(".\n");
-            prompt.append("  STEP 2: Try to find a character whose name starts with the FIRST 3 LETTERS of the romanization.\n");
-            prompt.append("  STEP 3: If no 3-letter match exists, find a character whose name starts with the FIRST 2 LETTERS.\n");
-            prompt.append("  IMPORTANT: DO NOT use the mnemonic keyword for character selection! The mnemonic keyword is ONLY for scene objects.\n");
-            prompt.append("  NEVER choose a character with a different starting sound!\n");
-
-            prompt.append("\nCHARACTER SELECTION PRIORITIES:\n");
-            prompt.append("1. Anime Characters - MUST be from real shows\n");
-            prompt.append("2. Athletes - MUST be real\n");
-            prompt.append("3. Fictional Characters - MUST be from real media\n");
-            prompt.append("4. Filipino Celebrities - MUST be real\n");
-            prompt.append("5. Celebrities - MUST be real and well-known\n");
-            prompt.append("ALWAYS specify the character's origin. USE ONLY ONE CHARACTER TOTAL.\n");
+            words.append(wordTemplate.render(values));
         }
+        return promptTemplates.get("mnemonic-batch").render(Map.of("words", words));
+    }
 
-        prompt.append("\nUsing the provided mnemonic keyword '").append(mnemonicKeyword).append("', create:\n");
-        prompt.append("1. A 'mnemonic_keyword' field - you MUST return the EXACT keyword provided: '").append(mnemonicKeyword).append("'\n");
-        prompt.append("2. A 'mnemonic_sentence' - A SIMPLE, MEMORABLE sentence that can be easily remembered and visualized\n");
-        prompt.append("   REQUIRED STRUCTURE:\n");
-        prompt.append("   - Character from character guide + their context (e.g., '").append(sourceCharacter.isPresent() ? sourceCharacter.get().getCharacterName() : "the character").append("')\n");
-        prompt.append("   - Mnemonic keyword '").append(mnemonicKeyword).append("' incorporated as object/action\n");
-        prompt.append("   - 2-10 additional items/characters/actions that sound like OR start with same letter as first syllable/letter of EITHER source OR translation\n");
-        prompt.append("   - Setting that sounds like source or translation\n");
-        prompt.append("   - MUST include facial and body expressions (e.g., 'put their index finger horizontally under her nostrils to cover smell')\n");
-        prompt.append("   - Keep it SIMPLE and MEMORABLE (one sentence that connects all elements)\n");
-        prompt.append("   - Creates memorable link: sound ('").append(sourceWord).append("') -> keyword ('").append(mnemonicKeyword).append("') -> meaning ('").append(targetWord).append("')\n");
-        prompt.append("3. An 'image_prompt' - a detailed prompt for generating an image in ").append(imageStyle.getDisplayName().toUpperCase()).append(" style.\n\n");
-        prompt.append("   === IMAGE FOCUS: TRANSLATION MEANING ===\n");
-        prompt.append("   The image MUST FOCUS on the TRANSLATION '").append(targetWord).append("' meaning.\n");
-        prompt.append("   The character should be performing an action or in a scene that demonstrates the translation meaning.\n");
-        prompt.append("   Example: For 'to become', show ").append(sourceCharacter.isPresent() ? sourceCharacter.get().getCharacterName() : "the character").append(" becoming something (e.g., becoming a leader, transformation)\n\n");
-        prompt.append("   === MANDATORY REQUIREMENTS - ALL ELEMENTS MUST BE PRESENT ===\n");
-        prompt.append("   The image MUST include:\n");
-        prompt.append("   1️⃣ CHARACTER: ").append(sourceCharacter.isPresent() ? sourceCharacter.get().getCharacterName() + " from " + sourceCharacter.get().getCharacterContext() : "character matching the word's sound").append("\n");
-        prompt.append("   2️⃣ MNEMONIC KEYWORD: '").append(mnemonicKeyword).append("' represented VISUALLY through objects in the scene\n");
-        prompt.append("      Example: If keyword is 'leaf', include leaves or leafy elements in the scene\n");
-        prompt.append("   3️⃣ ADDITIONAL ITEMS: 2-10 items that match the phonetic sound or starting letter of source OR translation\n");
-        prompt.append("      Example: For 'liye' → 'for', include 'foreman', 'ford', '4', etc.\n");
-        prompt.append("   4️⃣ SETTING: Environment that sounds like source or translation\n");
-        prompt.append("   5️⃣ FACIAL & BODY EXPRESSIONS: Show clear emotions and body language\n");
-        prompt.append("      Example: 'smiling while holding', 'index finger under nostrils', 'hopeful gesture with hands together'\n");
-        prompt.append("   ================================================================\n\n");
-        prompt.append("   STYLE REQUIREMENT: The image MUST be described as '").append(imageStyle.getDisplayName()).append("' style\n");
-        prompt.append("   COMPOSITION:\n");
-        prompt.append("   - The character is the main focus performing the translation action/meaning\n");
-        prompt.append("   - Include mnemonic keyword '").append(mnemonicKeyword).append("' object visible in the scene\n");
-        prompt.append("   - Include 2-10 additional items for memory anchoring\n");
-        prompt.append("   - Dynamic, vibrant atmosphere\n");
-        prompt.append("   - NO additional people or characters beyond the one specified\n");
-        prompt.append("   CRITICAL: ABSOLUTELY NO text in the image:\n");
-        prompt.append("   - NO words, labels, signs, or captions anywhere\n");
-        prompt.append("   - Source word '").append(sourceWord).append("' MUST NEVER appear in the image\n");
-        prompt.append("   - NO speech bubbles or written words of any kind\n");
-        prompt.append("   SAFETY REQUIREMENTS for image_prompt:\n");
-        prompt.append("   - Keep the scene family-friendly and appropriate for all ages\n");
-        prompt.append("   - NO violence, weapons, fighting, blood, or injuries\n");
-        prompt.append("   - NO suggestive poses, romantic scenarios, or intimate situations\n");
-        prompt.append("   - Focus on safe, positive, everyday activities and interactions\n");
-        prompt.append("   - Character should be engaged in wholesome, educational activities\n\n");
-
-        prompt.append("Respond with valid JSON in this format:\n");
-        prompt.append("{\n");
-        prompt.append("  \"mnemonic_keyword\": \"").append(mnemonicKeyword).append("\",\n");
-        prompt.append("  \"mnemonic_sentence\": \"...\",\n");
-        prompt.append("  \"image_prompt\": \"...\"\n");
-        prompt.append("}");
-
-        return prompt.toString();
+    /**
+     * Estimated tokens (prompt and completion) of a single-word mnemonic request, before its
+     * character is known.
+     */
+    public int estimateTokens(MnemonicRequest request) {
+        String prompt = promptTemplates.get("mnemonic").render(wordValues(request.sourceWord(),
+                request.targetWord(), request.sourceLanguage(), request.targetLanguage(), null,
+                request.sourceTransliteration(), request.imageStyleOrDefault()));
+        return tokenEstimator.countChat(MNEMONIC_SYSTEM_MESSAGE, prompt) + MAX_COMPLETION_TOKENS;
+    }
+
+    /**
+     * Estimated tokens a request adds to a batch: its word line and its share of the completion.
+     */
+    public int estimateBatchItemTokens(MnemonicRequest request) {
+        Map<String, Object> values = wordValues(request.sourceWord(), request.targetWord(),
+                request.sourceLanguage(), request.targetLanguage(), null, request.sourceTransliteration(),
+                request.imageStyleOrDefault());
+        values.put("index", 0);
+        return tokenEstimator.count(promptTemplates.get("mnemonic-batch-word").render(values)) + 1
+                + MAX_COMPLETION_TOKENS;
+    }
+
+    /**
+     * Estimated prompt tokens of a batch without its words (system message and instructions).
+     */
+    public int estimateBatchBaseTokens() {
+        return tokenEstimator.countChat(MNEMONIC_SYSTEM_MESSAGE,
+                promptTemplates.get("mnemonic-batch").render(Map.of("words", "")));
+    }
+
+    private String buildMnemonicFromKeywordPrompt(String mnemonicKeyword, String sourceWord, String targetWord,
+                                                  String sourceLanguage, String targetLanguage,
+                                                  Optional<CharacterGuideEntity> sourceCharacter,
+                                                  String sourceTransliteration, ImageStyle imageStyle) {
+        Map<String, Object> values = wordValues(sourceWord, targetWord, sourceLanguage, targetLanguage,
+                sourceCharacter.orElse(null), sourceTransliteration, imageStyle);
+        values.put("mnemonicKeyword", mnemonicKeyword);
+        return promptTemplates.get("mnemonic-from-keyword").render(values);
     }
 
     private String buildMnemonicPrompt(String sourceWord, String targetWord,
                                        String sourceLanguage, String targetLanguage,
                                        Optional<CharacterGuideEntity> sourceCharacter,
                                        String sourceTransliteration, ImageStyle imageStyle) {
+        return promptTemplates.get("mnemonic").render(wordValues(sourceWord, targetWord, sourceLanguage,
+                targetLanguage, sourceCharacter.orElse(null), sourceTransliteration, imageStyle));
+    }
 
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Create a mnemonic to remember that '").append(sourceWord).append("' (")
-                .append(getLanguageName(sourceLanguage)).append(") means '").append(targetWord)
-                .append("' (").append(getLanguageName(targetLanguage)).append(").\n\n");
-
-        // Character assignment section - USE ONLY ONE CHARACTER
-        prompt.append("CHARACTER TO USE:\n");
+    /**
+     * Values of the per-word part of the mnemonic templates. A missing character or transliteration
+     * (only when estimating) is rendered as "?".
+     */
+    private Map<String, Object> wordValues(String sourceWord, String targetWord, String sourceLanguage,
+                                           String targetLanguage, CharacterGuideEntity character,
+                                           String sourceTransliteration, ImageStyle imageStyle) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("sourceWord", sourceWord);
+        values.put("targetWord", targetWord);
+        values.put("sourceLanguage", OpenAiChatClient.languageName(sourceLanguage));
+        values.put("targetLanguage", OpenAiChatClient.languageName(targetLanguage));
+        values.put("transliteration", sourceTransliteration != null ? sourceTransliteration : "?");
+        values.put("characterName", character != null ? character.getCharacterName() : "?");
+        values.put("characterContext", character != null ? character.getCharacterContext() : "?");
+        values.put("imageStyle", imageStyle.getDisplayName());
+        return values;
+    }
 
-        // Add character information if available (prioritize source character)
-        if (sourceCharacter.isPresent()) {
-            CharacterGuideEntity sc = sourceCharacter.get();
-            prompt.append("- Use ONLY this character: ").append(sc.getCharacterName()).append(" from ").append(sc.getCharacterContext())
-                    .append(" (REQUIRED - DO NOT CHANGE THIS CHARACTER)\n");
-        } else {
-            // Include transliteration if available
-            if (sourceTransliteration != null && !sourceTransliteration.trim().isEmpty()) {
-                prompt.append("- The word '").append(sourceWord).append("' is romanized as: ").append(sourceTransliteration).append("\n");
-            }
-            prompt.append("- CRITICAL CHARACTER SELECTION RULE: You MUST choose EXACTLY ONE REAL, WELL-KNOWN character whose name starts with the FIRST 2-3 LETTERS of the source word's ROMANIZATION.\n");
-            prompt.append("  STEP 1: Determine the romanization (pronunciation in English letters) of '").append(sourceWord).append("'");
-            if (sourceTransliteration != null && !sourceTransliteration.trim().isEmpty()) {
-                prompt.append(" (provided above: ").append(sourceTransliteration).append(")");
-            }
-            prompt.append(".\n");
-            prompt.append("  STEP 2: Try to find a character whose name starts with the FIRST 3 LETTERS of the romanization.\n");
-            prompt.append("  STEP 3: If no 3-letter match exists, find a character whose name starts with the FIRST 2 LETTERS.\n");
-            prompt.append("  Example: If romanization is 'motsu', look for characters starting with 'mot' first (e.g., 'Motoko from Ghost in the Shell').\n");
-            prompt.append("  Example: If no 'mot' match, look for 'mo' (e.g., 'Monkey D. Luffy from One Piece' starts with 'mo').\n");
-            prompt.append("  IMPORTANT: DO NOT use the mnemonic keyword for character selection! The mnemonic keyword is ONLY for scene objects.\n");
-            prompt.append("  Example: If the word is 'motsu' (romanized), DO NOT choose 'Matsuno' just because the keyword is 'mat'.\n");
-            prompt.append("  NEVER choose a character with a different starting sound!\n");
+    private Optional<MnemonicData> findCachedMnemonic(String cacheKey) {
+        if (!cacheEnabled) {
+            return Optional.empty();
         }
-
-        // Only show character priorities if we need to choose a character
-        if (!sourceCharacter.isPresent()) {
-            prompt.append("\nCHARACTER SELECTION PRIORITIES:\n");
-            prompt.append("1. Anime Characters - MUST be from real shows (e.g., 'Aang from Avatar', 'Sasuke from Naruto')\n");
-            prompt.append("2. Athletes - MUST be real (e.g., 'Kobe Bryant the NBA legend', 'Messi the soccer superstar')\n");
-            prompt.append("3. Fictional Characters - MUST be from real media (e.g., 'Mario from Super Mario Bros', 'Harry Potter')\n");
-            prompt.append("4. Filipino Celebrities - MUST be real (e.g., 'Manny Pacquiao the Filipino boxing champion')\n");
-            prompt.append("5. Celebrities - MUST be real and well-known (e.g., 'Tom Cruise the Hollywood actor')\n");
-            prompt.append("ALWAYS specify the character's origin. DO NOT create fictional characters. USE ONLY ONE CHARACTER TOTAL.\n");
+        try {
+            return mnemonicCacheService.findByCacheKey(cacheKey).map(entry -> {
+                MnemonicData mnemonicData = new MnemonicData();
+                mnemonicData.mnemonic_keyword = entry.getMnemonicKeyword();
+                mnemonicData.mnemonic_sentence = entry.getMnemonicSentence();
+                mnemonicData.image_prompt = entry.getImagePrompt();
+                return mnemonicData;
+            });
+        } catch (Exception e) {
+            System.err.println("Mnemonic cache lookup failed: " + e.getMessage());
+            return Optional.empty();
         }
+    }
 
-        prompt.append("\nCreate:\n");
-        prompt.append("1. A 'mnemonic_keyword' - a VISUALIZABLE object/action that sounds like '").append(sourceWord)
-                .append("' (based on '").append(sourceTransliteration != null ? sourceTransliteration : sourceWord).append("')\n");
-        prompt.append("   PHONETIC MATCHING PRIORITY (in order):\n");
-        prompt.append("   a) Match first syllable SOUND of source (e.g., 'liye' → 'leaf', 'li' sound)\n");
-        prompt.append("   b) Match first syllable TEXT characters (e.g., 'ma' → 'mat')\n");
-        prompt.append("   c) Match first LETTER (e.g., 'm' → 'moon')\n");
-        prompt.append("   CRITICAL REQUIREMENTS for mnemonic_keyword:\n");
-        prompt.append("   - MUST be phonetically similar to SOURCE word (not translation!)\n");
-        prompt.append("   - MUST be a concrete, VISUALIZABLE object (noun) or VISUALIZABLE/GESTURABLE action (verb/adjective)\n");
-        prompt.append("   - CANNOT be abstract concepts (e.g., 'hoping' is OK if visualized as hopeful gesture, but 'hope' alone is too abstract)\n");
-        prompt.append("   - MUST NOT be the word '").append(sourceWord).append("' itself\n");
-        prompt.append("   - MUST NOT be the word '").append(targetWord).append("' itself\n");
-        prompt.append("   - Examples of GOOD keywords: 'leaf' (concrete object), 'hoping' (visualizable gesture), 'mat' (object), 'mall' (place)\n");
-        prompt.append("   - Examples of BAD keywords: abstract nouns, non-visualizable concepts, words that don't match source phonetically\n");
-        prompt.append("2. A 'mnemonic_sentence' - A SIMPLE, MEMORABLE sentence that can be easily remembered and visualized\n");
-        prompt.append("   REQUIRED STRUCTURE:\n");
-        prompt.append("   - Character from character guide + their context (e.g., 'Lisa Soberano')\n");
-        prompt.append("   - Mnemonic keyword object/action (e.g., '4 leaf clover')\n");
-        prompt.append("   - 2-10 additional items/characters/actions that sound like OR start with same letter as first syllable/letter of EITHER source OR translation\n");
-        prompt.append("   - Setting that sounds like source or translation (e.g., 'leafy forest' for 'liye')\n");
-        prompt.append("   - MUST include facial and body expressions (e.g., 'put their index finger horizontally under her nostrils to cover smell')\n");
-        prompt.append("   - Keep it SIMPLE and MEMORABLE (one sentence that connects all elements)\n");
-        prompt.append("   Example for 'liye' → 'for': 'Lisa Soberano gave 4 leaf clover for the foreman who has a ford, in a leafy forest.'\n");
-        prompt.append("3. An 'image_prompt' - a detailed prompt for generating an image in ").append(imageStyle.getDisplayName().toUpperCase()).append(" style.\n\n");
-        prompt.append("   === IMAGE FOCUS: TRANSLATION MEANING ===\n");
-        prompt.append("   The image MUST FOCUS on the TRANSLATION '").append(targetWord).append("' meaning.\n");
-        prompt.append("   The character should be performing an action or in a scene that demonstrates the translation meaning.\n");
-        prompt.append("   Example: For 'to become', show ").append(sourceCharacter.isPresent() ? sourceCharacter.get().getCharacterName() : "the character").append(" becoming something (e.g., becoming a leader, transformation)\n\n");
-        prompt.append("   === MANDATORY REQUIREMENTS - ALL ELEMENTS MUST BE PRESENT ===\n");
-        prompt.append("   The image MUST include:\n");
-        prompt.append("   1️⃣ CHARACTER: ").append(sourceCharacter.isPresent() ? sourceCharacter.get().getCharacterName() + " from " + sourceCharacter.get().getCharacterContext() : "character matching the word's sound").append("\n");
-        prompt.append("   2️⃣ MNEMONIC KEYWORD: The keyword represented VISUALLY through objects in the scene\n");
-        prompt.append("      Example: If keyword is 'leaf', include leaves or leafy elements in the scene\n");
-        prompt.append("   3️⃣ ADDITIONAL ITEMS: 2-10 items that match the phonetic sound or starting letter of source OR translation\n");
-        prompt.append("      Example: For 'liye' → 'for', include 'foreman', 'ford', '4', etc.\n");
-        prompt.append("   4️⃣ SETTING: Environment that sounds like source or translation\n");
-        prompt.append("      Example: 'leafy forest' for 'liye'\n");
-        prompt.append("   5️⃣ FACIAL & BODY EXPRESSIONS: Show clear emotions and body language\n");
-        prompt.append("      Example: 'smiling while holding', 'index finger under nostrils', 'hopeful gesture with hands together'\n");
-        prompt.append("   ================================================================\n\n");
-        prompt.append("   STYLE REQUIREMENT: The image MUST be described as '").append(imageStyle.getDisplayName()).append("' style\n");
-        prompt.append("   COMPOSITION:\n");
-        prompt.append("   - The character is the main focus performing the translation action/meaning\n");
-        prompt.append("   - Include mnemonic keyword object visible in the scene\n");
-        prompt.append("   - Include 2-10 additional items for memory anchoring\n");
-        prompt.append("   - Dynamic, vibrant atmosphere\n");
-        prompt.append("   - NO additional people or characters beyond the one specified\n");
-        prompt.append("   CRITICAL: ABSOLUTELY NO text in the image:\n");
-        prompt.append("   - NO words, labels, signs, or captions anywhere\n");
-        prompt.append("   - Source word '").append(sourceWord).append("' MUST NEVER appear in the image\n");
-        prompt.append("   - NO speech bubbles or written words of any kind\n");
-        prompt.append("   - Describe objects WITHOUT mentioning any text that would appear on them\n");
-        prompt.append("   SAFETY REQUIREMENTS for image_prompt:\n");
-        prompt.append("   - Keep the scene family-friendly and appropriate for all ages\n");
-        prompt.append("   - NO violence, weapons, fighting, blood, or injuries\n");
-        prompt.append("   - NO suggestive poses, romantic scenarios, or intimate situations\n");
-        prompt.append("   - Focus on safe, positive, everyday activities and interactions\n");
-        prompt.append("   - Character should be engaged in wholesome, educational activities\n\n");
-
-        prompt.append("Respond with valid JSON in this format:\n");
-        prompt.append("{\n");
-        prompt.append("  \"mnemonic_keyword\": \"...\",\n");
-        prompt.append("  \"mnemonic_sentence\": \"...\",\n");
-        prompt.append("  \"image_prompt\": \"...\"\n");
-        prompt.append("}");
-
-        return prompt.toString();
+    private void cacheMnemonic(String cacheKey, String sourceWord, String targetWord, String sourceLanguage,
+                               String targetLanguage, String sourceTransliteration, Long characterGuideId,
+                               ImageStyle imageStyle, MnemonicData mnemonicData) {
+        if (!cacheEnabled) {
+            return;
+        }
+        try {
+            mnemonicCacheService.save(cacheKey, sourceWord, targetWord, sourceLanguage, targetLanguage,
+                    sourceTransliteration, characterGuideId, imageStyle.name(), PROMPT_TEMPLATE_VERSION,
+                    mnemonicData.getMnemonicKeyword(), mnemonicData.getMnemonicSentence(), mnemonicData.getImagePrompt());
+        } catch (Exception e) {
+            // The mnemonic is still usable; it just will not be reused
+            System.err.println("Failed to cache mnemonic for " + sourceWord + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -486,29 +513,8 @@ public class MnemonicGenerationService {
             return imagePrompt;
         }
 
-        String sanitized = imagePrompt;
-
-        // List of potentially problematic words/phrases to filter out or replace
-        // Violence-related
-        sanitized = sanitized.replaceAll("(?i)\\b(weapon|gun|knife|sword|blade|blood|violence|fight|fighting|attack|kill|death|dead|murder|war|battle|combat|injury|hurt|wound|dangerous)\\b", "item");
-
-        // Inappropriate/suggestive content
-        sanitized = sanitized.replaceAll("(?i)\\b(sexy|sensual|seductive|romantic|intimate|kiss|embrace|hug|love|dating|flirt)\\b", "friendly");
-
-        // Political/controversial
-        sanitized = sanitized.replaceAll("(?i)\\b(political|politics|politician|election|vote|protest|rally|demonstration)\\b", "gathering");
-
-        // Religious (to avoid potential controversies)
-        sanitized = sanitized.replaceAll("(?i)\\b(religious|religion|worship|pray|prayer|sacred|holy|divine|god|goddess|deity)\\b", "peaceful");
-
-        // Alcohol/drugs
-        sanitized = sanitized.replaceAll("(?i)\\b(alcohol|beer|wine|liquor|drunk|drug|smoking|cigarette|cigar|tobacco)\\b", "beverage");
-
-        // Negative emotions/scenarios that might be problematic
-        sanitized = sanitized.replaceAll("(?i)\\b(scary|horror|terrifying|nightmare|fear|afraid|panic|scream|crying|sad|depressed)\\b", "surprised");
-
-        // Clean up any multiple spaces created by replacements
-        sanitized = sanitized.replaceAll("\\s+", " ").trim();
+        // Replace potentially problematic words (see prompt-sanitizer-words.txt) and collapse whitespace
+        String sanitized = promptSanitizer.sanitize(imagePrompt);
 
         // Add safety prefix to guide the image generation model
         String safetyPrefix = "Family-friendly educational image: ";
@@ -526,9 +532,11 @@ public class MnemonicGenerationService {
 
     /**
      * Validate that the generated mnemonic data contains all required elements
+     *
+     * @return true if no issues were found (issues are logged as warnings)
      */
-    private void validateMnemonicData(MnemonicData mnemonicData, String sourceWord, String targetWord,
-                                      Optional<CharacterGuideEntity> sourceCharacter) {
+    private boolean validateMnemonicData(MnemonicData mnemonicData, String sourceWord, String targetWord,
+                                         Optional<CharacterGuideEntity> sourceCharacter) {
         StringBuilder validationIssues = new StringBuilder();
 
         // Validate mnemonic keyword is present
@@ -603,22 +611,10 @@ public class MnemonicGenerationService {
             System.err.println("  Sentence: " + mnemonicData.getMnemonicSentence());
             System.err.println("  Image prompt: " + mnemonicData.getImagePrompt());
             System.err.println("==================================================\n");
-        } else {
-            System.out.println("✓ All mnemonic data validation passed for: " + sourceWord + " -> " + targetWord);
+            return false;
         }
-    }
-
-    private String getLanguageName(String lang) {
-        return switch (lang) {
-            case "en" -> "English";
-            case "es" -> "Spanish";
-            case "fr" -> "French";
-            case "cafr" -> "Canadian French";
-            case "kr" -> "Korean";
-            case "jp" -> "Japanese";
-            case "hi" -> "Hindi";
-            default -> "English";
-        };
+        System.out.println("✓ All mnemonic data validation passed for: " + sourceWord + " -> " + targetWord);
+        return true;
     }
 
     /**
@@ -637,55 +633,6 @@ public class MnemonicGenerationService {
         return stripped;
     }
 
-    @Data
-    private static class OpenAiRequest {
-        private String model;
-        private List<OpenAiMessage> messages;
-        private Integer max_tokens;
-        private Double temperature;
-        private ResponseFormat response_format;
-
-        public void setMaxTokens(Integer maxTokens) {
-            this.max_tokens = maxTokens;
-        }
-
-        public void setResponseFormat(ResponseFormat responseFormat) {
-            this.response_format = responseFormat;
-        }
-    }
-
-    @Data
-    private static class ResponseFormat {
-        private String type;
-
-        public ResponseFormat(String type) {
-            this.type = type;
-        }
-    }
-
-    @Data
-    private static class OpenAiMessage {
-        private String role;
-        private String content;
-
-        public OpenAiMessage() {}
-
-        public OpenAiMessage(String role, String content) {
-            this.role = role;
-            this.content = content;
-        }
-    }
-
-    @Data
-    private static class OpenAiResponse {
-        private List<OpenAiChoice> choices;
-    }
-
-    @Data
-    private static class OpenAiChoice {
-        private OpenAiMessage message;
-    }
-
     @Data
     public static class MnemonicData {
         private String mnemonic_keyword;
@@ -706,16 +653,27 @@ public class MnemonicGenerationService {
         }
     }
 
-    @Data
-    public static class TranslationPair {
-        private String sourceWord;
-        private String targetWord;
-
-        public TranslationPair() {}
+    /**
+     * One word of a batched mnemonic request; a null image style means REALISTIC_CINEMATIC.
+     */
+    public record MnemonicRequest(String sourceWord, String targetWord, String sourceLanguage,
+                                  String targetLanguage, String sourceTransliteration, ImageStyle imageStyle) {
 
-        public TranslationPair(String sourceWord, String targetWord) {
-            this.sourceWord = sourceWord;
-            this.targetWord = targetWord;
+        ImageStyle imageStyleOrDefault() {
+            return imageStyle != null ? imageStyle : ImageStyle.REALISTIC_CINEMATIC;
         }
     }
+
+    @Data
+    private static class MnemonicBatchResponse {
+        private List<MnemonicBatchItem> mnemonics;
+    }
+
+    @Data
+    private static class MnemonicBatchItem {
+        private Integer index;
+        private String mnemonic_keyword;
+        private String mnemonic_sentence;
+        private String image_prompt;
+    }
 }
@@ -0,0 +1,150 @@
+package com.raidrin.eme.mnemonic;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces problematic words in image prompts in a single pass over the text.
+ * The word list ({@code image.prompt.sanitizer.word-list}) is compiled once into a map from word to
+ * final replacement; sanitizing then tokenizes the prompt into words and looks each one up, collapsing
+ * whitespace on the way. This gives the same output as applying one case-insensitive
+ * {@code \b(word|...)\b} replaceAll per group followed by {@code replaceAll("\\s+", " ").trim()}.
+ */
+@Component
+public class PromptSanitizer {
+
+    private final Map<String, String> replacements;
+    private final int maxWordLength;
+
+    @Autowired
+    public PromptSanitizer(@Value("${image.prompt.sanitizer.word-list:classpath:prompt-sanitizer-words.txt}")
+                           Resource wordList) throws IOException {
+        this(new InputStreamReader(wordList.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param wordList Lines of "replacement: word word ...", applied in order; '#' starts a comment
+     */
+    public PromptSanitizer(Reader wordList) throws IOException {
+        List<Map.Entry<String, List<String>>> groups = parse(wordList);
+
+        // Resolve each word through all groups in order, as consecutive replaceAll calls would
+        Map<String, String> compiled = new HashMap<>();
+        for (Map.Entry<String, List<String>> group : groups) {
+            for (String word : group.getValue()) {
+                if (compiled.containsKey(word)) {
+                    continue;
+                }
+                String result = word;
+                for (Map.Entry<String, List<String>> rule : groups) {
+                    if (rule.getValue().contains(asciiLowerCase(result))) {
+                        result = rule.getKey();
+                    }
+                }
+                compiled.put(word, result);
+            }
+        }
+        this.replacements = compiled;
+        this.maxWordLength = compiled.keySet().stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    /**
+     * Replace listed words and collapse whitespace runs to single spaces.
+     */
+    public String sanitize(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int c = text.codePointAt(i);
+            if (isWhitespace(c)) {
+                while (i < length && isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                out.append(' ');
+            } else if (isWordChar(c)) {
+                int start = i;
+                while (i < length) {
+                    int next = text.codePointAt(i);
+                    if (!isWordChar(next) && !isMark(next)) {
+                        break;
+                    }
+                    i += Character.charCount(next);
+                }
+                String replacement = i - start > maxWordLength ? null : replacements.get(asciiLowerCase(text.substring(start, i)));
+                out.append(replacement != null ? replacement : text.substring(start, i));
+            } else {
+                out.appendCodePoint(c);
+                i += Character.charCount(c);
+            }
+        }
+        return out.toString().trim();
+    }
+
+    private static List<Map.Entry<String, List<String>>> parse(Reader wordList) throws IOException {
+        List<Map.Entry<String, List<String>>> groups = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(wordList)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Invalid prompt sanitizer line, expected 'replacement: words': " + line);
+                }
+                List<String> words = new ArrayList<>();
+                for (String word : line.substring(colon + 1).trim().split("\\s+")) {
+                    if (!word.isEmpty()) {
+                        words.add(asciiLowerCase(word));
+                    }
+                }
+                groups.add(Map.entry(line.substring(0, colon).trim(), words));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Lower-case A-Z only, matching (?i) without UNICODE_CASE.
+     */
+    private static String asciiLowerCase(String word) {
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    // Same character classes as java.util.regex: \s is ASCII whitespace, \b treats letters, digits
+    // and '_' as word characters and keeps combining marks attached to the preceding word
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isWordChar(int c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isMark(int c) {
+        return Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+}
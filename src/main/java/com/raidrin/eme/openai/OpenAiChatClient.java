@@ -0,0 +1,156 @@
+package com.raidrin.eme.openai;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI chat completions client shared by the translation, sentence, mnemonic and enrichment services.
+ * Every call records its latency and token usage per operation ({@code openai.chat.latency},
+ * {@code openai.chat.tokens}) to compare batched, fused and single calls.
+ */
+@Service
+@RequiredArgsConstructor
+public class OpenAiChatClient {
+
+    private static final String CHAT_COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
+    private static final String MODEL = "gpt-4o-mini";
+
+    @Value("${openai.api.key}")
+    private String openAiApiKey;
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Send one chat completion and return the content of its first choice.
+     *
+     * @param operation Metrics tag of the call, e.g. "translation"
+     * @param json Whether to request a JSON object response
+     * @throws RuntimeException if the response has no choices
+     */
+    public String complete(String operation, String systemMessage, String userMessage,
+                           int maxTokens, double temperature, boolean json) {
+        OpenAiRequest request = new OpenAiRequest();
+        request.setModel(MODEL);
+        request.setMessages(List.of(
+                new OpenAiMessage("system", systemMessage),
+                new OpenAiMessage("user", userMessage)
+        ));
+        request.setMaxTokens(maxTokens);
+        request.setTemperature(temperature);
+        if (json) {
+            request.setResponseFormat(new ResponseFormat("json_object"));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + openAiApiKey);
+        headers.set("Content-Type", "application/json");
+
+        long start = System.nanoTime();
+        ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
+                CHAT_COMPLETIONS_URL,
+                HttpMethod.POST,
+                new HttpEntity<>(request, headers),
+                OpenAiResponse.class
+        );
+        recordUsage(operation, start, response.getBody());
+        if (response.getBody() == null || response.getBody().getChoices() == null
+                || response.getBody().getChoices().isEmpty()) {
+            throw new RuntimeException("OpenAI API returned empty response");
+        }
+        return response.getBody().getChoices().get(0).getMessage().getContent();
+    }
+
+    /**
+     * English name of a language code for prompts; unknown codes are treated as English.
+     */
+    public static String languageName(String lang) {
+        return switch (lang) {
+            case "es" -> "Spanish";
+            case "fr" -> "French";
+            case "cafr" -> "Canadian French";
+            case "kr" -> "Korean";
+            case "jp" -> "Japanese";
+            case "hi" -> "Hindi";
+            case "pa" -> "Punjabi";
+            case "tl" -> "Tagalog";
+            default -> "English";
+        };
+    }
+
+    private void recordUsage(String operation, long startNanos, OpenAiResponse response) {
+        meterRegistry.timer("openai.chat.latency", "operation", operation)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (response != null && response.getUsage() != null) {
+            meterRegistry.counter("openai.chat.tokens", "operation", operation, "type", "prompt")
+                    .increment(response.getUsage().getPrompt_tokens());
+            meterRegistry.counter("openai.chat.tokens", "operation", operation, "type", "completion")
+                    .increment(response.getUsage().getCompletion_tokens());
+        }
+    }
+
+    @Data
+    private static class OpenAiRequest {
+        private String model;
+        private List<OpenAiMessage> messages;
+        @JsonProperty("max_tokens")
+        private Integer maxTokens;
+        private Double temperature;
+        @JsonProperty("response_format")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private ResponseFormat responseFormat;
+    }
+
+    @Data
+    private static class ResponseFormat {
+        private String type;
+
+        public ResponseFormat(String type) {
+            this.type = type;
+        }
+    }
+
+    @Data
+    private static class OpenAiMessage {
+        private String role;
+        private String content;
+
+        public OpenAiMessage() {
+        }
+
+        public OpenAiMessage(String role, String content) {
+            this.role = role;
+            this.content = content;
+        }
+    }
+
+    @Data
+    private static class OpenAiResponse {
+        private List<OpenAiChoice> choices;
+        private OpenAiUsage usage;
+    }
+
+    @Data
+    private static class OpenAiUsage {
+        private int prompt_tokens;
+        private int completion_tokens;
+    }
+
+    @Data
+    private static class OpenAiChoice {
+        private OpenAiMessage message;
+    }
+}
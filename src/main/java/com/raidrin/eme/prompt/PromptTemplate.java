@@ -0,0 +1,83 @@
+package com.raidrin.eme.prompt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A prompt compiled once into literal segments and {@code {{name}}} placeholders, so rendering is a
+ * single append pass. Everything before the first placeholder is the static prefix; it is rendered
+ * byte-for-byte the same on every call, which lets the provider's prompt cache reuse it. Templates
+ * should therefore put their fixed instructions first and the per-request values last.
+ */
+public class PromptTemplate {
+
+    private final String name;
+    private final List<String> literals = new ArrayList<>();
+    private final List<String> placeholders = new ArrayList<>();
+
+    /**
+     * @param text Template text; {@code {{name}}} marks a placeholder
+     */
+    public PromptTemplate(String name, String text) {
+        this.name = name;
+        int position = 0;
+        while (true) {
+            int open = text.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in prompt template '" + name + "' at " + open);
+            }
+            String placeholder = text.substring(open + 2, close).trim();
+            if (placeholder.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder in prompt template '" + name + "' at " + open);
+            }
+            literals.add(text.substring(position, open));
+            placeholders.add(placeholder);
+            position = close + 2;
+        }
+        literals.add(text.substring(position));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The text every rendering starts with.
+     */
+    public String staticPrefix() {
+        return literals.get(0);
+    }
+
+    public Set<String> placeholderNames() {
+        return new LinkedHashSet<>(placeholders);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public String render(Map<String, ?> values) {
+        int capacity = 0;
+        for (String literal : literals) {
+            capacity += literal.length();
+        }
+        StringBuilder prompt = new StringBuilder(capacity + 64 * placeholders.size());
+        for (int i = 0; i < placeholders.size(); i++) {
+            prompt.append(literals.get(i));
+            Object value = values.get(placeholders.get(i));
+            if (value == null) {
+                throw new IllegalArgumentException("No value for '" + placeholders.get(i) +
+                        "' in prompt template '" + name + "'");
+            }
+            prompt.append(value);
+        }
+        prompt.append(literals.get(literals.size() - 1));
+        return prompt.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.raidrin.eme.prompt;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The prompt templates in {@code classpath:prompts/*.txt}, compiled once at startup.
+ * A template is referenced by its file name without extension. {@code {{>name}}} includes another
+ * template's text verbatim when compiling, so shared instructions stay identical between prompts.
+ * One trailing newline is dropped from each file.
+ */
+@Component
+public class PromptTemplates {
+
+    private static final String LOCATION = "classpath*:prompts/*.txt";
+
+    private final Map<String, String> sources = new HashMap<>();
+    private final Map<String, PromptTemplate> templates = new HashMap<>();
+
+    @PostConstruct
+    public void load() throws IOException {
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String fileName = resource.getFilename();
+            if (fileName == null) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                if (text.endsWith("\n")) {
+                    text = text.substring(0, text.length() - 1);
+                }
+                sources.put(fileName.substring(0, fileName.length() - ".txt".length()), text);
+            }
+        }
+        for (String name : sources.keySet()) {
+            templates.put(name, new PromptTemplate(name, expandIncludes(name, new HashSet<>())));
+        }
+        System.out.println("Compiled " + templates.size() + " prompt templates");
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no such template
+     */
+    public PromptTemplate get(String name) {
+        PromptTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + name);
+        }
+        return template;
+    }
+
+    private String expandIncludes(String name, Set<String> including) {
+        String text = sources.get(name);
+        if (text == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + name);
+        }
+        if (!including.add(name)) {
+            throw new IllegalArgumentException("Prompt template '" + name + "' includes itself");
+        }
+        StringBuilder expanded = new StringBuilder(text.length());
+        int position = 0;
+        int open;
+        while ((open = text.indexOf("{{>", position)) >= 0) {
+            int close = text.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed include in prompt template '" + name + "'");
+            }
+            expanded.append(text, position, open);
+            expanded.append(expandIncludes(text.substring(open + 3, close).trim(), including));
+            position = close + 2;
+        }
+        expanded.append(text.substring(position));
+        including.remove(name);
+        return expanded.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.raidrin.eme.prompt;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estimates OpenAI token counts locally with the o200k_base tokenizer used by gpt-4o-mini.
+ * Chat estimates add the chat format's per-message overhead, so they match the API's prompt_tokens
+ * closely enough for budgeting and batch sizing.
+ */
+@Component
+public class TokenEstimator {
+
+    private static final int TOKENS_PER_MESSAGE = 3;
+    private static final int TOKENS_PER_REPLY = 3;
+
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.O200K_BASE);
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return encoding.countTokens(text);
+    }
+
+    /**
+     * Prompt tokens of a chat request with the given message contents.
+     */
+    public int countChat(String... messages) {
+        int tokens = TOKENS_PER_REPLY;
+        for (String message : messages) {
+            tokens += TOKENS_PER_MESSAGE + count(message);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,99 @@
+package com.raidrin.eme.sentence;
+
+import com.raidrin.eme.util.RequestBatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects sentence requests from concurrently processed words and sends them to OpenAI in batches
+ * of up to {@code sentence.batch.size} words ({@link SentenceGenerationService#generateSentences}).
+ * A batch is sent when it is full or {@code sentence.batch.linger-ms} after its first request.
+ * Words missing from the response are generated one by one.
+ */
+@Component
+public class SentenceBatcher implements RequestBatcher.Handler<SentenceBatcher.SentenceRequest, SentenceData> {
+
+    private final SentenceGenerationService sentenceGenerationService;
+    private RequestBatcher<SentenceRequest, SentenceData> batcher;
+
+    @Value("${sentence.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sentence.batch.size:10}")
+    private int batchSize;
+
+    @Value("${sentence.batch.linger-ms:300}")
+    private long lingerMs;
+
+    public SentenceBatcher(SentenceGenerationService sentenceGenerationService) {
+        this.sentenceGenerationService = sentenceGenerationService;
+    }
+
+    @PostConstruct
+    public void start() {
+        batcher = new RequestBatcher<>("sentence", this, enabled ? batchSize : 1, lingerMs, 0, 0, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.stop();
+    }
+
+    /**
+     * Generate a word's sentence, waiting for the batch the request joins. Errors are those of
+     * {@link SentenceGenerationService#generateSentence}.
+     */
+    public SentenceData generate(String word, String sourceLanguage, String targetLanguage) {
+        return batcher.generate(new SentenceRequest(word, sourceLanguage, targetLanguage));
+    }
+
+    @Override
+    public Map<Integer, SentenceData> generateBatch(List<SentenceRequest> requests) {
+        // Concurrent sessions may translate between different languages
+        Map<String, List<Integer>> byLanguages = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            SentenceRequest request = requests.get(i);
+            byLanguages.computeIfAbsent(request.sourceLanguage() + "->" + request.targetLanguage(),
+                    key -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, SentenceData> results = new HashMap<>();
+        for (List<Integer> group : byLanguages.values()) {
+            if (group.size() == 1) {
+                continue;
+            }
+            SentenceRequest first = requests.get(group.get(0));
+            Map<String, SentenceData> sentences;
+            try {
+                sentences = sentenceGenerationService.generateSentences(
+                        group.stream().map(i -> requests.get(i).word()).toList(),
+                        first.sourceLanguage(), first.targetLanguage());
+            } catch (Exception e) {
+                System.err.println("Sentence batch of " + group.size() + " failed: " + e.getMessage());
+                continue;
+            }
+            for (Integer i : group) {
+                SentenceData sentenceData = sentences.get(requests.get(i).word());
+                if (sentenceData != null) {
+                    results.put(i, sentenceData);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public SentenceData generateSingle(SentenceRequest request) {
+        return sentenceGenerationService.generateSentence(request.word(), request.sourceLanguage(), request.targetLanguage());
+    }
+
+    public record SentenceRequest(String word, String sourceLanguage, String targetLanguage) {
+    }
+}
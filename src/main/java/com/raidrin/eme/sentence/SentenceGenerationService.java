@@ -1,29 +1,36 @@
 package com.raidrin.eme.sentence;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raidrin.eme.openai.OpenAiChatClient;
+import com.raidrin.eme.prompt.PromptTemplates;
+import com.raidrin.eme.prompt.TokenEstimator;
 import com.raidrin.eme.storage.service.SentenceStorageService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class SentenceGenerationService {
     
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
+    private static final String SYSTEM_MESSAGE = "You are a language learning assistant. Provide exactly 5 lines as requested, nothing more.";
+    private static final String BATCH_SYSTEM_MESSAGE = "You are a language learning assistant. Respond only with the requested JSON.";
+    private static final int MAX_COMPLETION_TOKENS = 300;
+    private static final int MAX_TRANSLATION_TOKENS = 100;
     
     private final SentenceStorageService sentenceStorageService;
-    private final RestTemplate restTemplate;
+    private final OpenAiChatClient openAiChatClient;
+    private final PromptTemplates promptTemplates;
+    private final TokenEstimator tokenEstimator;
+    private final ObjectMapper objectMapper;
     
     public SentenceData generateSentence(String word, String sourceLanguage, String targetLanguage) {
         // Check if sentence already exists in storage
@@ -33,76 +40,164 @@ public class SentenceGenerationService {
             return existingSentence.get();
         }
 
+        // Another target language already has a sentence for this word: only translate it
+        Optional<SentenceData> sourceSentence = sentenceStorageService.findSourceSentence(word, sourceLanguage);
+        if (sourceSentence.isPresent()) {
+            SentenceData translated = translateSourceSentences(List.of(sourceSentence.get()), sourceLanguage, targetLanguage).get(word);
+            if (translated != null) {
+                return translated;
+            }
+        }
+
         // Generate new sentence
         System.out.println("Generating sentences with OpenAI for: " + word + " (" + sourceLanguage + " -> " + targetLanguage + ")");
         SentenceData sentenceData = performSentenceGeneration(word, sourceLanguage, targetLanguage);
 
-        // Save the sentence
+        // Save the sentence, sharing it with other target languages unless they already have one
         sentenceStorageService.saveSentence(word, sourceLanguage, targetLanguage, sentenceData);
+        if (sourceSentence.isEmpty()) {
+            saveSourceSentence(word, sourceLanguage, sentenceData);
+        }
 
         return sentenceData;
     }
 
+    /**
+     * Sentences of many words with at most two OpenAI calls: one creating sentences for the words
+     * that have no source language sentence yet, and one translating the stored source language
+     * sentences of the others. A source language sentence is created once and shared by all target
+     * languages, so its audio file is the same for all of them. Stored sentences are returned as is.
+     *
+     * @return the sentences by word; words whose generation failed are missing
+     */
+    public Map<String, SentenceData> generateSentences(List<String> words, String sourceLanguage, String targetLanguage) {
+        Map<String, SentenceData> results = new LinkedHashMap<>();
+        List<String> newWords = new ArrayList<>();
+        List<SentenceData> sourceSentences = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(words)) {
+            Optional<SentenceData> existingSentence = sentenceStorageService.findSentence(word, sourceLanguage, targetLanguage);
+            if (existingSentence.isPresent()) {
+                results.put(word, existingSentence.get());
+                continue;
+            }
+            sentenceStorageService.findSourceSentence(word, sourceLanguage)
+                    .ifPresentOrElse(sourceSentences::add, () -> newWords.add(word));
+        }
+        if (!sourceSentences.isEmpty()) {
+            results.putAll(translateSourceSentences(sourceSentences, sourceLanguage, targetLanguage));
+        }
+        if (!newWords.isEmpty()) {
+            results.putAll(generateNewSentences(newWords, sourceLanguage, targetLanguage));
+        }
+        return results;
+    }
+
     public SentenceData regenerateSentence(String word, String sourceLanguage, String targetLanguage) {
         // Force regeneration by skipping cache lookup
         System.out.println("Force regenerating sentence with OpenAI for: " + word + " (" + sourceLanguage + " -> " + targetLanguage + ")");
         SentenceData sentenceData = performSentenceGeneration(word, sourceLanguage, targetLanguage);
 
-        // Save (or update) the sentence
+        // Save (or update) the sentence; later target languages translate the new one
         sentenceStorageService.saveSentence(word, sourceLanguage, targetLanguage, sentenceData);
+        saveSourceSentence(word, sourceLanguage, sentenceData);
 
         return sentenceData;
     }
+
+    private Map<String, SentenceData> generateNewSentences(List<String> words, String sourceLanguage, String targetLanguage) {
+        Map<String, SentenceData> results = new HashMap<>();
+        System.out.println("Generating " + words.size() + " sentences with one OpenAI call (" + sourceLanguage + " -> " + targetLanguage + ")");
+        try {
+            String content = requestJsonCompletion("sentence_batch",
+                    buildSentenceBatchPrompt(words, sourceLanguage, targetLanguage), MAX_COMPLETION_TOKENS * words.size());
+            SentenceBatchResponse response = objectMapper.readValue(content, SentenceBatchResponse.class);
+            if (response.getSentences() == null) {
+                throw new RuntimeException("Batch response has no sentences array");
+            }
+            for (SentenceBatchItem item : response.getSentences()) {
+                if (item.getIndex() == null || item.getIndex() < 0 || item.getIndex() >= words.size()
+                        || isBlank(item.getSentence()) || isBlank(item.getSentence_translation())) {
+                    continue;
+                }
+                String word = words.get(item.getIndex());
+                SentenceData sentenceData = new SentenceData();
+                sentenceData.setWord(word);
+                sentenceData.setSourceLanguage(sourceLanguage);
+                sentenceData.setTargetLanguage(targetLanguage);
+                sentenceData.setTargetLanguageLatinCharacters(trim(item.getWord_romanized()));
+                sentenceData.setSourceLanguageSentence(item.getSentence().trim());
+                sentenceData.setTargetLanguageTransliteration(trim(item.getSentence_transliteration()));
+                sentenceData.setTargetLanguageSentence(item.getSentence_translation().trim());
+                sentenceData.setSourceLanguageStructure(trim(item.getStructure()));
+                sentenceStorageService.saveSentence(word, sourceLanguage, targetLanguage, sentenceData);
+                saveSourceSentence(word, sourceLanguage, sentenceData);
+                results.put(word, sentenceData);
+            }
+        } catch (Exception e) {
+            System.err.println("Batched sentence generation failed for " + words.size() + " words: " + e.getMessage());
+        }
+        return results;
+    }
+
+    private Map<String, SentenceData> translateSourceSentences(List<SentenceData> sourceSentences, String sourceLanguage, String targetLanguage) {
+        Map<String, SentenceData> results = new HashMap<>();
+        System.out.println("Translating " + sourceSentences.size() + " stored sentences with one OpenAI call (" + sourceLanguage + " -> " + targetLanguage + ")");
+        try {
+            String content = requestJsonCompletion("sentence_translation",
+                    buildTranslationBatchPrompt(sourceSentences, sourceLanguage, targetLanguage),
+                    MAX_TRANSLATION_TOKENS * sourceSentences.size());
+            SentenceTranslationBatchResponse response = objectMapper.readValue(content, SentenceTranslationBatchResponse.class);
+            if (response.getTranslations() == null) {
+                throw new RuntimeException("Batch response has no translations array");
+            }
+            for (SentenceTranslationItem item : response.getTranslations()) {
+                if (item.getIndex() == null || item.getIndex() < 0 || item.getIndex() >= sourceSentences.size()
+                        || isBlank(item.getTranslation())) {
+                    continue;
+                }
+                SentenceData source = sourceSentences.get(item.getIndex());
+                SentenceData sentenceData = new SentenceData();
+                sentenceData.setWord(source.getWord());
+                sentenceData.setSourceLanguage(sourceLanguage);
+                sentenceData.setTargetLanguage(targetLanguage);
+                sentenceData.setTargetLanguageLatinCharacters(source.getTargetLanguageLatinCharacters());
+                sentenceData.setSourceLanguageSentence(source.getSourceLanguageSentence());
+                sentenceData.setTargetLanguageTransliteration(source.getTargetLanguageTransliteration());
+                sentenceData.setTargetLanguageSentence(item.getTranslation().trim());
+                sentenceData.setSourceLanguageStructure(source.getSourceLanguageStructure());
+                sentenceData.setAudioFile(source.getAudioFile());
+                sentenceStorageService.saveSentence(source.getWord(), sourceLanguage, targetLanguage, sentenceData);
+                results.put(source.getWord(), sentenceData);
+            }
+        } catch (Exception e) {
+            System.err.println("Batched sentence translation failed for " + sourceSentences.size() + " sentences: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Share a generated sentence with the word's other target languages. The sentence itself is
+     * already saved, so failing to share it only costs a later generation and is not an error.
+     */
+    private void saveSourceSentence(String word, String sourceLanguage, SentenceData sentenceData) {
+        if (isBlank(sentenceData.getSourceLanguageSentence())) {
+            return;
+        }
+        try {
+            sentenceStorageService.saveSourceSentence(word, sourceLanguage, sentenceData);
+        } catch (Exception e) {
+            System.err.println("Failed to store source sentence for '" + word + "': " + e.getMessage());
+        }
+    }
     
     private SentenceData performSentenceGeneration(String word, String sourceLanguage, String targetLanguage) {
-        String sourceLangName = getLanguageName(sourceLanguage);
-        String targetLangName = getLanguageName(targetLanguage);
-        
-        String prompt = String.format(
-            "Given the word '%s', create a simple sentence in %s using this word. Provide the following 5 elements separated by newlines:\n" +
-            "1. The word in Latin characters (romanized)\n" +
-            "2. A simple sentence in %s using this word\n" +
-            "3. The sentence transliteration in Latin characters\n" +
-            "4. The sentence translated to %s\n" +
-            "5. Word-by-word structure analysis of the %s sentence\n\n" +
-            "Format your response exactly as 5 lines, one element per line.",
-            word, sourceLangName, sourceLangName, targetLangName, sourceLangName
-        );
-        
-        OpenAiRequest request = new OpenAiRequest();
-        request.setModel("gpt-4o-mini");  // Using the latest cost-effective model
-        request.setMessages(List.of(
-            new OpenAiMessage("system", "You are a language learning assistant. Provide exactly 5 lines as requested, nothing more."),
-            new OpenAiMessage("user", prompt)
-        ));
-        request.setMaxTokens(300);
-        request.setTemperature(0.7);
+        String prompt = buildSentencePrompt(word, sourceLanguage, targetLanguage);
         
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-            
-            HttpEntity<OpenAiRequest> entity = new HttpEntity<>(request, headers);
-            
             System.out.println("Making OpenAI API request...");
-            ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
-                "https://api.openai.com/v1/chat/completions",
-                HttpMethod.POST,
-                entity,
-                OpenAiResponse.class
-            );
-            
-            System.out.println("OpenAI API response status: " + response.getStatusCode());
-            
-            if (response.getBody() != null && !response.getBody().getChoices().isEmpty()) {
-                String content = response.getBody().getChoices().get(0).getMessage().getContent();
-                System.out.println("OpenAI response content: " + content);
-                return parseSentenceResponse(content);
-            } else {
-                System.out.println("OpenAI response body is null or has no choices");
-                throw new RuntimeException("OpenAI API returned empty response");
-            }
+            String content = openAiChatClient.complete("sentence", SYSTEM_MESSAGE, prompt, MAX_COMPLETION_TOKENS, 0.7, false);
+            System.out.println("OpenAI response content: " + content);
+            return parseSentenceResponse(content);
         } catch (Exception e) {
             System.err.println("OpenAI API error: " + e.getMessage());
             e.printStackTrace();
@@ -110,6 +205,65 @@ public class SentenceGenerationService {
         }
     }
     
+    /**
+     * Estimated tokens (prompt and completion) of generating a word's sentence.
+     */
+    public int estimateTokens(String word, String sourceLanguage, String targetLanguage) {
+        return tokenEstimator.countChat(SYSTEM_MESSAGE, buildSentencePrompt(word, sourceLanguage, targetLanguage))
+                + MAX_COMPLETION_TOKENS;
+    }
+    
+    private String buildSentencePrompt(String word, String sourceLanguage, String targetLanguage) {
+        return promptTemplates.get("sentence").render(Map.of(
+            "word", word,
+            "sourceLanguage", OpenAiChatClient.languageName(sourceLanguage),
+            "targetLanguage", OpenAiChatClient.languageName(targetLanguage)
+        ));
+    }
+    
+    private String buildSentenceBatchPrompt(List<String> words, String sourceLanguage, String targetLanguage) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            if (i > 0) {
+                items.append('\n');
+            }
+            items.append(promptTemplates.get("numbered-item").render(Map.of("index", i, "text", words.get(i))));
+        }
+        return promptTemplates.get("sentence-batch").render(Map.of(
+            "sourceLanguage", OpenAiChatClient.languageName(sourceLanguage),
+            "targetLanguage", OpenAiChatClient.languageName(targetLanguage),
+            "words", items.toString()
+        ));
+    }
+
+    private String buildTranslationBatchPrompt(List<SentenceData> sourceSentences, String sourceLanguage, String targetLanguage) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < sourceSentences.size(); i++) {
+            if (i > 0) {
+                items.append('\n');
+            }
+            items.append(promptTemplates.get("numbered-item").render(Map.of(
+                "index", i, "text", sourceSentences.get(i).getSourceLanguageSentence())));
+        }
+        return promptTemplates.get("sentence-translation-batch").render(Map.of(
+            "sourceLanguage", OpenAiChatClient.languageName(sourceLanguage),
+            "targetLanguage", OpenAiChatClient.languageName(targetLanguage),
+            "sentences", items.toString()
+        ));
+    }
+
+    private String requestJsonCompletion(String operation, String prompt, int maxTokens) {
+        return openAiChatClient.complete(operation, BATCH_SYSTEM_MESSAGE, prompt, maxTokens, 0.7, true);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+    
     private SentenceData parseSentenceResponse(String response) {
         String[] lines = response.split("\n");
         
@@ -131,68 +285,29 @@ public class SentenceGenerationService {
         return line.replaceAll("^\\d+\\.\\s*", "").trim();
     }
     
-    private String getLanguageName(String lang) {
-        switch (lang) {
-            case "en" -> {
-                return "English";
-            }
-            case "es" -> {
-                return "Spanish";
-            }
-            case "fr" -> {
-                return "French";
-            }
-            case "cafr" -> {
-                return "Canadian French";
-            }
-            case "kr" -> {
-                return "Korean";
-            }
-            case "jp" -> {
-                return "Japanese";
-            }
-            case "hi" -> {
-                return "Hindi";
-            }
-            default -> {
-                return "English";
-            }
-        }
-    }
-    
     @Data
-    private static class OpenAiRequest {
-        private String model;
-        private List<OpenAiMessage> messages;
-        @JsonProperty("max_tokens")
-        private Integer maxTokens;
-        private Double temperature;
+    private static class SentenceBatchResponse {
+        private List<SentenceBatchItem> sentences;
     }
     
     @Data
-    private static class OpenAiMessage {
-        private String role;
-        private String content;
-        
-        public OpenAiMessage() {} // Default constructor for Jackson
-        
-        public OpenAiMessage(String role, String content) {
-            this.role = role;
-            this.content = content;
-        }
+    private static class SentenceBatchItem {
+        private Integer index;
+        private String word_romanized;
+        private String sentence;
+        private String sentence_transliteration;
+        private String sentence_translation;
+        private String structure;
     }
     
     @Data
-    private static class OpenAiResponse {
-        private List<OpenAiChoice> choices;
-        
-        public OpenAiResponse() {} // Default constructor for Jackson
+    private static class SentenceTranslationBatchResponse {
+        private List<SentenceTranslationItem> translations;
     }
     
     @Data
-    private static class OpenAiChoice {
-        private OpenAiMessage message;
-        
-        public OpenAiChoice() {} // Default constructor for Jackson
+    private static class SentenceTranslationItem {
+        private Integer index;
+        private String translation;
     }
 }
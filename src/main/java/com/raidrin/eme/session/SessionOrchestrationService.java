@@ -3,44 +3,41 @@ package com.raidrin.eme.session;
 import com.google.cloud.texttospeech.v1.SsmlVoiceGender;
 import com.raidrin.eme.audio.AsyncAudioGenerationService;
 import com.raidrin.eme.audio.LanguageAudioCodes;
-import com.raidrin.eme.codec.Codec;
+import com.raidrin.eme.enrichment.WordEnrichmentService;
+import com.raidrin.eme.enrichment.WordEnrichmentService.EnrichmentRequest;
 import com.raidrin.eme.image.ImageStyle;
-import com.raidrin.eme.image.OpenAiImageService;
+import com.raidrin.eme.mnemonic.MnemonicBatcher;
 import com.raidrin.eme.mnemonic.MnemonicGenerationService;
 import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicData;
+import com.raidrin.eme.mnemonic.MnemonicGenerationService.MnemonicRequest;
+import com.raidrin.eme.sentence.SentenceBatcher;
 import com.raidrin.eme.sentence.SentenceData;
 import com.raidrin.eme.sentence.SentenceGenerationService;
 import com.raidrin.eme.storage.entity.TranslationSessionEntity;
 import com.raidrin.eme.storage.entity.TranslationSessionEntity.SessionStatus;
 import com.raidrin.eme.storage.entity.WordEntity;
-import com.raidrin.eme.storage.service.GcpStorageService;
+import com.raidrin.eme.storage.service.ImageGenerationJobService;
 import com.raidrin.eme.storage.service.SentenceStorageService;
 import com.raidrin.eme.storage.service.TranslationSessionService;
 import com.raidrin.eme.storage.service.WordService;
 import com.raidrin.eme.translator.TranslationService;
 import com.raidrin.eme.util.FileNameSanitizer;
-import com.raidrin.eme.util.ZipFileGenerator;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Orchestrates the complete async workflow for translation sessions:
  * - Audio generation (source + target + sentences)
- * - Image generation with mnemonics
+ * - Mnemonics, with images queued for the background image workers
  * - ZIP creation with all assets
  */
 @Service
@@ -49,14 +46,16 @@ public class SessionOrchestrationService {
 
     private final TranslationService translationService;
     private final SentenceGenerationService sentenceGenerationService;
+    private final SentenceBatcher sentenceBatcher;
     private final MnemonicGenerationService mnemonicGenerationService;
+    private final MnemonicBatcher mnemonicBatcher;
+    private final WordEnrichmentService wordEnrichmentService;
     private final AsyncAudioGenerationService audioGenerationService;
-    private final OpenAiImageService openAiImageService;
-    private final GcpStorageService gcpStorageService;
+    private final ImageGenerationJobService imageGenerationJobService;
     private final SentenceStorageService sentenceStorageService;
     private final TranslationSessionService sessionService;
     private final WordService wordService;
-    private final ZipFileGenerator zipFileGenerator;
+    private final SessionZipService sessionZipService;
 
     @Value("${audio.output.directory:./generated_audio}")
     private String audioOutputDirectory;
@@ -64,12 +63,34 @@ public class SessionOrchestrationService {
     @Value("${image.output.directory:./generated_images}")
     private String imageOutputDirectory;
 
+    @Value("${image.progressive.enabled:false}")
+    private boolean progressiveImages;
+
+    @Value("${image.progressive.preview-quality:low}")
+    private String previewImageQuality;
+
+    @Value("${image.progressive.upgrade-quality:medium}")
+    private String upgradeImageQuality;
+
+    @Value("${image.progressive.session-upgrade-budget:20}")
+    private int sessionUpgradeBudget;
+
+    @Value("${enrichment.fused.enabled:false}")
+    private boolean fusedEnrichment;
+
+    @Value("${processing.session-token-budget:0}")
+    private long sessionTokenBudget;
+
     @Value("${processing.concurrency.level:3}")
     private int concurrencyLevel;
 
     @Value("${processing.phase2.concurrency.level:4}")
     private int phase2ConcurrencyLevel;
 
+    // Landscape format (closest to 1152x768 ratio); gpt-image-1-mini supports 1024x1024, 1024x1536, 1536x1024, auto
+    private static final String IMAGE_SIZE = "1536x1024";
+    private static final String IMAGE_QUALITY = "medium";
+
     // Dedicated executor for CPU-bound parallel operations within word processing
     private final ExecutorService wordProcessingExecutor = Executors.newCachedThreadPool();
 
@@ -93,6 +114,14 @@ public class SessionOrchestrationService {
                 ", sentences=" + request.isEnableSentenceGeneration() +
                 ", images=" + request.isEnableImageGeneration());
 
+            // Upper bound: reused words and batched mnemonics cost less
+            long estimatedTokens = estimateSessionTokens(request);
+            System.out.println("[SESSION " + sessionId + "] Estimated LLM tokens: " + estimatedTokens);
+            if (sessionTokenBudget > 0 && estimatedTokens > sessionTokenBudget) {
+                throw new IllegalStateException("Estimated " + estimatedTokens + " LLM tokens exceeds the session budget of " +
+                    sessionTokenBudget + "; split the words into smaller sessions");
+            }
+
             sessionService.updateStatus(sessionId, SessionStatus.IN_PROGRESS);
 
             // Initialize progress data at the start
@@ -103,6 +132,7 @@ public class SessionOrchestrationService {
             initialProgressData.put("last_update", java.time.LocalDateTime.now().toString());
             initialProgressData.put("source_language", request.getSourceLanguage());
             initialProgressData.put("target_language", request.getTargetLanguage());
+            initialProgressData.put("estimated_tokens", estimatedTokens);
             initialProgressData.put("words", new ArrayList<>());
             sessionService.updateSessionData(sessionId, initialProgressData);
 
@@ -116,6 +146,7 @@ public class SessionOrchestrationService {
             List<AsyncAudioGenerationService.AudioRequest> allAudioRequests = Collections.synchronizedList(new ArrayList<>());
             Set<String> processedAudioFiles = ConcurrentHashMap.newKeySet(); // Thread-safe set
             AtomicInteger processedWordCount = new AtomicInteger(0);
+            AtomicInteger remainingImageUpgrades = new AtomicInteger(sessionUpgradeBudget);
 
             // Timing trackers
             Map<String, Long> phaseTiming = new ConcurrentHashMap<>();
@@ -152,7 +183,7 @@ public class SessionOrchestrationService {
 
                         // Still add audio requests if audio files exist (they might not be in the current directory)
                         if (existingWordData.containsKey("source_audio_file") && request.isEnableSourceAudio()) {
-                            String sourceAudioFileName = Codec.encodeForAudioFileName(sourceWord);
+                            String sourceAudioFileName = AsyncAudioGenerationService.audioFileName(sourceWord, request.getSourceVoiceName(), request.getSourceVoiceGender());
                             if (!processedAudioFiles.contains(sourceAudioFileName)) {
                                 processedAudioFiles.add(sourceAudioFileName);
                             }
@@ -209,14 +240,28 @@ public class SessionOrchestrationService {
                                 System.out.println("Using stored transliteration: " + result.transliteration);
                             }
                         } else {
-                            // Fetch new translation
+                            // Fetch new translation; in fused mode the same call also fills the
+                            // sentence and mnemonic caches used in Phase 2
                             try {
-                                com.raidrin.eme.translator.TranslationData translationData = translationService.translateText(
-                                    sourceWord,
-                                    request.getSourceLanguageCode(),
-                                    request.getTargetLanguageCode(),
-                                    request.isOverrideTranslation()
-                                );
+                                com.raidrin.eme.translator.TranslationData translationData = fusedEnrichment
+                                    ? wordEnrichmentService.enrich(new EnrichmentRequest(
+                                        sourceWord,
+                                        request.getSourceLanguage(),
+                                        request.getTargetLanguage(),
+                                        request.getSourceLanguageCode(),
+                                        request.getTargetLanguageCode(),
+                                        request.isEnableSentenceGeneration(),
+                                        request.isEnableImageGeneration() && (wordEntityOpt.isEmpty()
+                                            || wordEntityOpt.get().getImageFile() == null
+                                            || wordEntityOpt.get().getImageFile().isEmpty()),
+                                        request.getImageStyle(),
+                                        request.isOverrideTranslation()))
+                                    : translationService.translateText(
+                                        sourceWord,
+                                        request.getSourceLanguageCode(),
+                                        request.getTargetLanguageCode(),
+                                        request.isOverrideTranslation()
+                                    );
                                 result.translations = translationData.getTranslations();
                                 result.success = true;
 
@@ -244,7 +289,7 @@ public class SessionOrchestrationService {
 
                     // Collect source audio request (no dependency on translation)
                     if (request.isEnableSourceAudio()) {
-                        String sourceAudioFileName = Codec.encodeForAudioFileName(sourceWord);
+                        String sourceAudioFileName = AsyncAudioGenerationService.audioFileName(sourceWord, request.getSourceVoiceName(), request.getSourceVoiceGender());
                         wordData.put("source_audio_file", sourceAudioFileName + ".mp3");
 
                         if (!processedAudioFiles.contains(sourceAudioFileName)) {
@@ -300,7 +345,7 @@ public class SessionOrchestrationService {
                     if (request.isEnableTargetAudio() && translations != null && !translations.isEmpty()) {
                         List<String> targetAudioFiles = new ArrayList<>();
                         for (String translation : translations) {
-                            String targetAudioFileName = Codec.encodeForAudioFileName(translation);
+                            String targetAudioFileName = AsyncAudioGenerationService.audioFileName(translation, request.getTargetVoiceName(), request.getTargetVoiceGender());
                             targetAudioFiles.add(targetAudioFileName + ".mp3");
 
                             if (!processedAudioFiles.contains(targetAudioFileName)) {
@@ -323,7 +368,7 @@ public class SessionOrchestrationService {
                         CompletableFuture<Void> sentenceFuture = CompletableFuture.runAsync(() -> {
                             long sentenceStart = System.currentTimeMillis();
                             try {
-                                SentenceData sentenceData = sentenceGenerationService.generateSentence(
+                                SentenceData sentenceData = sentenceBatcher.generate(
                                     sourceWord,
                                     request.getSourceLanguage(),
                                     request.isEnableTranslation() ? request.getTargetLanguage() : "en"
@@ -336,7 +381,7 @@ public class SessionOrchestrationService {
 
                                         // Generate sentence audio
                                         if (sentenceData.getSourceLanguageSentence() != null) {
-                                            String sentenceAudioFileName = Codec.encodeForAudioFileName(sentenceData.getSourceLanguageSentence());
+                                            String sentenceAudioFileName = AsyncAudioGenerationService.audioFileName(sentenceData.getSourceLanguageSentence(), request.getSourceVoiceName(), request.getSourceVoiceGender());
                                             String sentenceAudioFileNameWithExt = sentenceAudioFileName + ".mp3";
                                             wordData.put("sentence_audio_file", sentenceAudioFileNameWithExt);
 
@@ -378,6 +423,7 @@ public class SessionOrchestrationService {
                     }
 
                     // Mnemonic and image generation (depends on translations)
+                    AtomicReference<PendingImage> pendingImage = new AtomicReference<>();
                     if (request.isEnableImageGeneration() && translations != null && !translations.isEmpty()) {
                         final String finalTransliteration2 = transliteration;
                         final Set<String> finalTranslations = translations;
@@ -398,6 +444,9 @@ public class SessionOrchestrationService {
 
                                         synchronized (wordData) {
                                             wordData.put("image_file", existingWord.getImageFile());
+                                            if (existingWord.getImageThumbnailFile() != null) {
+                                                wordData.put("image_thumbnail_file", existingWord.getImageThumbnailFile());
+                                            }
                                             if (existingWord.getMnemonicKeyword() != null) {
                                                 wordData.put("mnemonic_keyword", existingWord.getMnemonicKeyword());
                                             }
@@ -420,13 +469,14 @@ public class SessionOrchestrationService {
                                 // No existing image - proceed with generation
                                 String primaryTranslation = finalTranslations.iterator().next();
 
-                                // Generate mnemonic with transliteration for character matching
+                                // Generate mnemonic with transliteration for character matching,
+                                // batched with the other words of the session that reach this point
                                 long mnemonicStart = System.currentTimeMillis();
-                                MnemonicData mnemonicData = mnemonicGenerationService.generateMnemonic(
+                                MnemonicData mnemonicData = mnemonicBatcher.generate(new MnemonicRequest(
                                     sourceWord, primaryTranslation,
                                     request.getSourceLanguage(), request.getTargetLanguage(),
                                     finalTransliteration2, request.getImageStyle()
-                                );
+                                ));
 
                                 long mnemonicDuration = System.currentTimeMillis() - mnemonicStart;
                                 System.out.println("[WORD " + (wordIndex + 1) + "] Mnemonic generated in " + mnemonicDuration + "ms");
@@ -440,50 +490,18 @@ public class SessionOrchestrationService {
                                 // Sanitize the image prompt before sending to image generation API
                                 String sanitizedPrompt = mnemonicGenerationService.sanitizeImagePrompt(mnemonicData.getImagePrompt());
 
-                                // Generate image using OpenAI
-                                // Use 1536x1024 for landscape format (closest to 1152x768 ratio)
-                                // gpt-image-1-mini supports: 1024x1024, 1024x1536, 1536x1024, auto
-                                long imageGenStart = System.currentTimeMillis();
-                                String size = "1536x1024";
-                                OpenAiImageService.GeneratedImage generatedImage = openAiImageService.generateImage(
-                                    sanitizedPrompt, size, "medium", null
-                                );
-                                long imageGenDuration = System.currentTimeMillis() - imageGenStart;
-                                System.out.println("[WORD " + (wordIndex + 1) + "] Image generated in " + imageGenDuration + "ms");
-
-                                // Download image and upload to GCP in parallel
+                                // Queue the image for the background workers; the session does not wait for it
                                 String imageFileName = FileNameSanitizer.fromMnemonicSentence(
-                                    mnemonicData.getMnemonicSentence(), "jpg"
+                                    mnemonicData.getMnemonicSentence(), "jpg", sanitizedPrompt, sourceWord, IMAGE_SIZE
                                 );
-
-                                // Run download and upload concurrently
-                                CompletableFuture<Path> downloadFuture = CompletableFuture.supplyAsync(() -> {
-                                    try {
-                                        return downloadImageToLocal(generatedImage.getImageUrl(), imageFileName);
-                                    } catch (IOException e) {
-                                        throw new RuntimeException("Failed to download image: " + e.getMessage(), e);
-                                    }
-                                }, wordProcessingExecutor);
-
-                                CompletableFuture<String> uploadFuture = CompletableFuture.supplyAsync(() ->
-                                    gcpStorageService.downloadAndUpload(generatedImage.getImageUrl(), imageFileName),
-                                    wordProcessingExecutor
-                                );
-
-                                // Wait for both to complete
-                                Path localImagePath = downloadFuture.join();
-                                String gcsUrl = uploadFuture.join();
+                                pendingImage.set(new PendingImage(mnemonicData.getImagePrompt(), sanitizedPrompt, imageFileName));
 
                                 synchronized (wordData) {
-                                    wordData.put("image_file", imageFileName);
-                                    wordData.put("image_local_path", localImagePath.toString());
-                                    wordData.put("image_gcs_url", gcsUrl);
-                                    wordData.put("image_provider", "openai");
-                                    wordData.put("image_status", "success");
+                                    wordData.put("image_status", "pending");
                                 }
 
                                 long totalImageDuration = System.currentTimeMillis() - imageStart;
-                                System.out.println("[WORD " + (wordIndex + 1) + "] Total image processing completed in " + totalImageDuration + "ms");
+                                System.out.println("[WORD " + (wordIndex + 1) + "] Mnemonic and image prompt ready in " + totalImageDuration + "ms");
 
                             } catch (Exception e) {
                                 String error = "Image generation failed for '" + sourceWord + "': " + e.getMessage();
@@ -514,6 +532,12 @@ public class SessionOrchestrationService {
                         }
                     }
 
+                    // Enqueue the image only once the word is saved, so the worker's update is not overwritten
+                    if (pendingImage.get() != null) {
+                        enqueueImage(sessionId, sourceWord, request, pendingImage.get(), remainingImageUpgrades,
+                            wordData, imageErrors);
+                    }
+
                     long wordDuration = System.currentTimeMillis() - wordStartTime;
                     System.out.println("[WORD " + (wordIndex + 1) + "] Completed: " + sourceWord + " (" + wordDuration + "ms)");
 
@@ -556,19 +580,21 @@ public class SessionOrchestrationService {
             List<String> audioFilePaths = new ArrayList<>();
             int audioSuccessCount = 0;
             int audioFailureCount = 0;
+            long audioBytesSaved = 0;
             if (!allAudioRequests.isEmpty()) {
                 try {
                     System.out.println("[SESSION " + sessionId + "] Starting parallel audio generation for " + allAudioRequests.size() + " files...");
 
                     // Use the new parallel audio generation method
                     CompletableFuture<List<AsyncAudioGenerationService.AudioResult>> audioFuture =
-                        audioGenerationService.generateAudioFilesParallel(new ArrayList<>(allAudioRequests));
+                        audioGenerationService.generateAudioFilesParallel("session-" + sessionId, new ArrayList<>(allAudioRequests));
 
                     List<AsyncAudioGenerationService.AudioResult> audioResults = audioFuture.get();
                     for (AsyncAudioGenerationService.AudioResult audioResult : audioResults) {
                         if (audioResult.getLocalFilePath() != null) {
                             audioFilePaths.add(audioResult.getLocalFilePath());
                             audioSuccessCount++;
+                            audioBytesSaved += audioResult.getBytesSaved();
                         } else {
                             audioFailureCount++;
                             String error = "Audio generation failed for: " + audioResult.getFileName();
@@ -638,6 +664,7 @@ public class SessionOrchestrationService {
             processSummary.put("audio_errors", audioErrors);
             processSummary.put("audio_success_count", audioSuccessCount);
             processSummary.put("audio_failure_count", audioFailureCount);
+            processSummary.put("audio_bytes_saved", audioBytesSaved);
             processSummary.put("image_errors", imageErrors);
             processSummary.put("sentence_errors", sentenceErrors);
             processSummary.put("has_errors", !translationErrors.isEmpty() || !audioErrors.isEmpty() ||
@@ -646,17 +673,17 @@ public class SessionOrchestrationService {
 
             sessionService.updateSessionData(sessionId, sessionData);
 
-            // Step 8: Create ZIP file with all assets
+            // Step 8: Create ZIP file with all assets (rebuilt once the queued images are done)
             phaseTiming.put("zip_creation_start", System.currentTimeMillis());
             TranslationSessionEntity session = sessionService.findById(sessionId).orElseThrow();
-            String zipPath = zipFileGenerator.createSessionZip(session, sessionData);
-            sessionService.updateZipFilePath(sessionId, zipPath);
+            sessionZipService.createZip(session, sessionData);
             phaseTiming.put("zip_creation_end", System.currentTimeMillis());
             long zipDuration = phaseTiming.get("zip_creation_end") - phaseTiming.get("zip_creation_start");
             System.out.println("[SESSION " + sessionId + "] ZIP creation completed in " + zipDuration + "ms");
 
-            // Step 9: Mark as completed
+            // Step 9: Mark as completed; image jobs that finished meanwhile did not rebuild the ZIP
             sessionService.updateStatus(sessionId, SessionStatus.COMPLETED);
+            sessionZipService.rebuildIfImagesFinished(sessionId);
 
             // Print final timing summary
             long totalDuration = System.currentTimeMillis() - sessionStartTime;
@@ -666,7 +693,8 @@ public class SessionOrchestrationService {
             System.out.println("[SESSION " + sessionId + "] ZIP creation: " + zipDuration + "ms");
             System.out.println("[SESSION " + sessionId + "] TOTAL: " + totalDuration + "ms (" + (totalDuration / 1000) + "s)");
             System.out.println("[SESSION " + sessionId + "] Words processed: " + wordResults.size());
-            System.out.println("[SESSION " + sessionId + "] Audio files: " + audioSuccessCount);
+            System.out.println("[SESSION " + sessionId + "] Audio files: " + audioSuccessCount +
+                " (" + (audioBytesSaved / 1024) + " KB saved by compaction)");
             System.out.println("[SESSION " + sessionId + "] =====================================");
 
             return CompletableFuture.completedFuture(null);
@@ -679,27 +707,61 @@ public class SessionOrchestrationService {
         }
     }
 
-    private Path downloadImageToLocal(String imageUrl, String fileName) throws IOException {
-        Path outputDir = Paths.get(imageOutputDirectory);
-        if (!Files.exists(outputDir)) {
-            Files.createDirectories(outputDir);
+    /**
+     * Estimated LLM tokens (prompts and completions) of generating every word of the request from scratch,
+     * from the locally rendered prompts. The mnemonic prompt is estimated with the word standing in for
+     * its not yet known translation.
+     */
+    private long estimateSessionTokens(BatchProcessingRequest request) {
+        long tokens = 0;
+        String sentenceTargetLanguage = request.isEnableTranslation() ? request.getTargetLanguage() : "en";
+        for (String sourceWord : request.getSourceWords()) {
+            if (request.isEnableTranslation()) {
+                tokens += translationService.estimateTokens(sourceWord, request.getSourceLanguageCode(),
+                    request.getTargetLanguageCode());
+            }
+            if (request.isEnableSentenceGeneration()) {
+                tokens += sentenceGenerationService.estimateTokens(sourceWord, request.getSourceLanguage(),
+                    sentenceTargetLanguage);
+            }
+            if (request.isEnableImageGeneration() && request.isEnableTranslation()) {
+                tokens += mnemonicGenerationService.estimateTokens(new MnemonicRequest(sourceWord, sourceWord,
+                    request.getSourceLanguage(), request.getTargetLanguage(), sourceWord, request.getImageStyle()));
+            }
         }
+        return tokens;
+    }
 
-        Path filePath = outputDir.resolve(fileName);
-
-        URL url = new URL(imageUrl);
-        try (var in = url.openStream();
-             var out = new FileOutputStream(filePath.toFile())) {
-
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = in.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
+    /**
+     * Queue a word's image on the background image workers and mark the word PENDING.
+     * With progressive images the first image is a fast preview, and while the session's upgrade
+     * budget lasts a higher quality version is queued to replace it.
+     */
+    private void enqueueImage(Long sessionId, String sourceWord, BatchProcessingRequest request,
+                              PendingImage pendingImage, AtomicInteger remainingImageUpgrades,
+                              Map<String, Object> wordData, List<String> imageErrors) {
+        // Reserve an upgrade and give it back if the job cannot be queued
+        boolean upgrade = progressiveImages && remainingImageUpgrades.getAndUpdate(n -> n > 0 ? n - 1 : n) > 0;
+        try {
+            String quality = progressiveImages ? previewImageQuality : IMAGE_QUALITY;
+            String upgradeQuality = upgrade ? upgradeImageQuality : null;
+            wordService.updateImageStatus(sourceWord, request.getSourceLanguage(), request.getTargetLanguage(), "PENDING");
+            imageGenerationJobService.enqueue(sessionId, sourceWord,
+                request.getSourceLanguage(), request.getTargetLanguage(),
+                pendingImage.imagePrompt(), pendingImage.sanitizedPrompt(), pendingImage.fileName(),
+                IMAGE_SIZE, quality, upgradeQuality);
+        } catch (Exception e) {
+            if (upgrade) {
+                remainingImageUpgrades.incrementAndGet();
+            }
+            String error = "Failed to queue image for '" + sourceWord + "': " + e.getMessage();
+            imageErrors.add(error);
+            synchronized (wordData) {
+                wordData.put("image_status", "failed");
+                wordData.put("image_error", e.getMessage());
             }
+            System.err.println(error);
         }
-
-        System.out.println("Downloaded image to: " + filePath);
-        return filePath;
     }
 
     private Map<String, Object> convertSentenceDataToMap(SentenceData sentenceData) {
@@ -827,6 +889,12 @@ public class SessionOrchestrationService {
         private ImageStyle imageStyle; // Style for image generation (defaults to REALISTIC_CINEMATIC if null)
     }
 
+    /**
+     * An image prompt waiting to be queued once its word has been saved
+     */
+    private record PendingImage(String imagePrompt, String sanitizedPrompt, String fileName) {
+    }
+
     /**
      * Helper class to hold translation results for async processing
      */
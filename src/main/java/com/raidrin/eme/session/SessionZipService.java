@@ -0,0 +1,117 @@
+package com.raidrin.eme.session;
+
+import com.raidrin.eme.storage.entity.TranslationSessionEntity;
+import com.raidrin.eme.storage.entity.TranslationSessionEntity.SessionStatus;
+import com.raidrin.eme.storage.entity.WordEntity;
+import com.raidrin.eme.storage.service.ImageGenerationJobService;
+import com.raidrin.eme.storage.service.TranslationSessionService;
+import com.raidrin.eme.storage.service.WordService;
+import com.raidrin.eme.util.AssetPaths;
+import com.raidrin.eme.util.ZipFileGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds session ZIPs. A session completes while its images are still queued for the background
+ * image workers, so its ZIP is built with the images generated so far and session data gets
+ * zip_status "pending_images"; once the session's last image job has finished the ZIP is rebuilt
+ * with all images and zip_status becomes "complete".
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionZipService {
+
+    private final TranslationSessionService sessionService;
+    private final ImageGenerationJobService imageGenerationJobService;
+    private final WordService wordService;
+    private final ZipFileGenerator zipFileGenerator;
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    /**
+     * Build the session's ZIP with the images generated so far and store its path and zip_status.
+     *
+     * @return path of the ZIP
+     */
+    public synchronized String createZip(TranslationSessionEntity session, Map<String, Object> sessionData) throws IOException {
+        long outstanding = imageGenerationJobService.countOutstanding(session.getId());
+        addGeneratedImages(session, sessionData);
+        sessionData.put("zip_status", outstanding > 0 ? "pending_images" : "complete");
+        sessionService.updateSessionData(session.getId(), sessionData);
+
+        String zipPath = zipFileGenerator.createSessionZip(session, sessionData);
+        sessionService.updateZipFilePath(session.getId(), zipPath);
+        if (outstanding > 0) {
+            System.out.println("[SESSION " + session.getId() + "] ZIP will be rebuilt when its " + outstanding +
+                    " outstanding image job(s) finish");
+        }
+        return zipPath;
+    }
+
+    /**
+     * Rebuild the ZIP of a completed session that is waiting for images, if none are outstanding any more.
+     * Called whenever an image job of the session finishes.
+     */
+    public synchronized void rebuildIfImagesFinished(Long sessionId) {
+        if (sessionId == null || imageGenerationJobService.countOutstanding(sessionId) > 0) {
+            return;
+        }
+        Optional<TranslationSessionEntity> session = sessionService.findById(sessionId);
+        if (session.isEmpty() || session.get().getStatus() != SessionStatus.COMPLETED) {
+            return;
+        }
+        Map<String, Object> sessionData = sessionService.getSessionData(sessionId);
+        if (!"pending_images".equals(sessionData.get("zip_status"))) {
+            return;
+        }
+        try {
+            createZip(session.get(), sessionData);
+            System.out.println("[SESSION " + sessionId + "] Rebuilt ZIP with all images");
+        } catch (Exception e) {
+            System.err.println("[SESSION " + sessionId + "] Failed to rebuild ZIP: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copy the images the workers have stored on the words into the session's word data.
+     */
+    @SuppressWarnings("unchecked")
+    private void addGeneratedImages(TranslationSessionEntity session, Map<String, Object> sessionData) {
+        if (!(sessionData.get("words") instanceof List<?> words)) {
+            return;
+        }
+        for (Object item : words) {
+            Map<String, Object> wordData = (Map<String, Object>) item;
+            String sourceWord = (String) wordData.get("source_word");
+            if (sourceWord == null) {
+                continue;
+            }
+            Optional<WordEntity> word = wordService.findWord(sourceWord, session.getSourceLanguage(), session.getTargetLanguage());
+            if (word.isEmpty()) {
+                continue;
+            }
+            WordEntity wordEntity = word.get();
+            if (wordEntity.getImageFile() != null) {
+                wordData.put("image_file", wordEntity.getImageFile());
+                wordData.put("image_local_path",
+                        AssetPaths.resolve(Paths.get(imageOutputDirectory), wordEntity.getImageFile()).toString());
+                if (wordEntity.getImageThumbnailFile() != null) {
+                    wordData.put("image_thumbnail_file", wordEntity.getImageThumbnailFile());
+                }
+                if ("pending".equals(wordData.get("image_status"))) {
+                    wordData.put("image_status", "success");
+                }
+            } else if ("FAILED".equals(wordEntity.getImageStatus()) && "pending".equals(wordData.get("image_status"))) {
+                wordData.put("image_status", "failed");
+            }
+        }
+    }
+}
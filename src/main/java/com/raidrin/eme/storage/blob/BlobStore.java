@@ -0,0 +1,50 @@
+package com.raidrin.eme.storage.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * An object store for generated assets. Keys are slash-separated object names
+ * (e.g. "audio/hello.mp3"); implementations decide how they are laid out.
+ */
+public interface BlobStore {
+
+    /**
+     * Short name used in configuration and logs ("local", "gcs", "s3")
+     */
+    String name();
+
+    /**
+     * Store an object from a stream without buffering it in memory.
+     */
+    void put(String key, InputStream in, String contentType) throws IOException;
+
+    /**
+     * Store an object from a local file. Large files may be uploaded in parts.
+     */
+    default void put(String key, Path file, String contentType) throws IOException {
+        try (InputStream in = java.nio.file.Files.newInputStream(file)) {
+            put(key, in, contentType);
+        }
+    }
+
+    /**
+     * Open an object for streaming reads.
+     *
+     * @throws java.io.FileNotFoundException if the object does not exist
+     */
+    InputStream get(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * @return true if the object existed and was deleted
+     */
+    boolean delete(String key);
+
+    /**
+     * @return a store-specific URL for the object (gs://, s3://, file:)
+     */
+    String url(String key);
+}
@@ -0,0 +1,99 @@
+package com.raidrin.eme.storage.blob;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Blob store backed by a GCS bucket, using the shared {@link Storage} client.
+ * Writes use resumable uploads, which GCS already sends in chunks, so large files need no
+ * separate multipart handling.
+ */
+public class GcsBlobStore implements BlobStore {
+
+    private final ObjectProvider<Storage> storageProvider;
+    private final String bucketName;
+
+    public GcsBlobStore(ObjectProvider<Storage> storageProvider, String bucketName) {
+        this.storageProvider = storageProvider;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public String name() {
+        return "gcs";
+    }
+
+    /**
+     * Closing a {@code WriteChannel} finalizes the object, so a stream that fails midway would leave a
+     * truncated blob; the stream is spooled to a temp file first and uploaded from there.
+     */
+    @Override
+    public void put(String key, InputStream in, String contentType) throws IOException {
+        Path spool = Files.createTempFile("gcs-upload-", ".tmp");
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            put(key, spool, contentType);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key))
+                .setContentType(contentType)
+                .build();
+        storage().createFrom(blobInfo, file);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        Blob blob = storage().get(BlobId.of(bucketName, key));
+        if (blob == null) {
+            throw new FileNotFoundException("Blob not found in GCS: " + key);
+        }
+        ReadChannel reader = blob.reader();
+        return Channels.newInputStream(reader);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            Blob blob = storage().get(BlobId.of(bucketName, key));
+            return blob != null && blob.exists();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            return storage().delete(BlobId.of(bucketName, key));
+        } catch (Exception e) {
+            System.err.println("Failed to delete GCS blob " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return String.format("gs://%s/%s", bucketName, key);
+    }
+
+    private Storage storage() {
+        return storageProvider.getObject();
+    }
+}
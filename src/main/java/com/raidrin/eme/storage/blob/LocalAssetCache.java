@@ -0,0 +1,243 @@
+package com.raidrin.eme.storage.blob;
+
+import com.raidrin.eme.util.AssetPaths;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of the {@link BlobStore} for assets missing from the local asset
+ * directories (e.g. on a node with a small disk, or after cleanup). Fetched objects are streamed into
+ * {@code asset.cache.directory}, which is capped at {@code asset.cache.max-bytes} by evicting the least
+ * recently used files. Files a caller has pinned (e.g. while a ZIP is built from them) are not evicted.
+ */
+@Component
+public class LocalAssetCache {
+
+    private final BlobStore blobStore;
+    private final MeterRegistry meterRegistry;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    // Pin counts by blob key, guarded by this
+    private final Map<String, Integer> pins = new HashMap<>();
+    private long totalBytes;
+
+    @Value("${asset.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${asset.cache.directory:./asset_cache}")
+    private String cacheDirectory;
+
+    @Value("${asset.cache.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    @Value("${audio.output.directory:./generated_audio}")
+    private String audioOutputDirectory;
+
+    public LocalAssetCache(BlobStore blobStore, MeterRegistry meterRegistry) {
+        this.blobStore = blobStore;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Load what is already in the cache directory, oldest first, so LRU order survives restarts.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Gauge.builder("asset.cache.bytes", this, LocalAssetCache::getTotalBytes)
+                .description("Bytes held in the local asset cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Path root = Paths.get(cacheDirectory);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> cached = files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith(".fetch-"))
+                    .sorted(Comparator.comparingLong(LocalAssetCache::lastModified))
+                    .toList();
+            synchronized (this) {
+                for (Path file : cached) {
+                    long size = Files.size(file);
+                    entries.put(root.relativize(file).toString().replace('\\', '/'), size);
+                    totalBytes += size;
+                }
+                evict(null);
+            }
+        }
+        System.out.println("Local asset cache: " + entries.size() + " files, " + totalBytes + " bytes (max " +
+                maxBytes + ")");
+    }
+
+    /**
+     * Locate an image: the image directory first, then the cache, then the blob store.
+     *
+     * @return the file, or empty if the image exists nowhere
+     */
+    public Optional<Path> getImage(String fileName) {
+        return get(AssetPaths.resolve(Paths.get(imageOutputDirectory), fileName), fileName);
+    }
+
+    /**
+     * Locate an audio file: the audio directory first, then the cache, then the blob store.
+     */
+    public Optional<Path> getAudio(String fileName) {
+        return get(AssetPaths.resolve(Paths.get(audioOutputDirectory), fileName), "audio/" + fileName);
+    }
+
+    /**
+     * Locate an asset that normally lives at {@code localPath} and is backed up under {@code blobKey}.
+     */
+    public Optional<Path> get(Path localPath, String blobKey) {
+        if (Files.exists(localPath)) {
+            return Optional.of(localPath);
+        }
+        if (!enabled || blobKey.contains("..") || blobKey.startsWith("/")) {
+            return Optional.empty();
+        }
+
+        Path cached = Paths.get(cacheDirectory).resolve(blobKey);
+        synchronized (this) {
+            if (entries.get(blobKey) != null && Files.exists(cached)) {
+                meterRegistry.counter("asset.cache.hits").increment();
+                return Optional.of(cached);
+            }
+        }
+
+        // One fetch per key; concurrent requests for the same asset wait for it
+        CompletableFuture<Path> fetch = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(blobKey, fetch);
+        if (existing != null) {
+            return Optional.ofNullable(existing.join());
+        }
+        try {
+            Path fetched = fetch(blobKey, cached);
+            fetch.complete(fetched);
+            return Optional.ofNullable(fetched);
+        } catch (RuntimeException e) {
+            fetch.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(blobKey);
+        }
+    }
+
+    /**
+     * Same as {@link #get(Path, String)}, but a cached file is kept until {@link #unpin(String)} is
+     * called for the key, even if the cache is over its size meanwhile. Must be unpinned whatever
+     * the result.
+     */
+    public Optional<Path> getPinned(Path localPath, String blobKey) {
+        synchronized (this) {
+            pins.merge(blobKey, 1, Integer::sum);
+        }
+        return get(localPath, blobKey);
+    }
+
+    /**
+     * Release a pin taken by {@link #getPinned}; the cache is trimmed once the file is no longer pinned.
+     */
+    public synchronized void unpin(String blobKey) {
+        Integer count = pins.get(blobKey);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            pins.put(blobKey, count - 1);
+        } else {
+            pins.remove(blobKey);
+            evict(null);
+        }
+    }
+
+    private Path fetch(String blobKey, Path cached) {
+        meterRegistry.counter("asset.cache.misses").increment();
+        Path temp = null;
+        try (InputStream in = blobStore.get(blobKey)) {
+            Files.createDirectories(cached.getParent());
+            temp = Files.createTempFile(cached.getParent(), ".fetch-", ".tmp");
+            long size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                Long previous = entries.put(blobKey, size);
+                totalBytes += size - (previous != null ? previous : 0);
+                evict(blobKey);
+            }
+            System.out.println("Fetched " + blobKey + " (" + size + " bytes) from " + blobStore.name() + " into asset cache");
+            return cached;
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to fetch " + blobKey + " from " + blobStore.name() + ": " + e.getMessage());
+            return null;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort; a leftover temp file is skipped on the next startup
+                }
+            }
+        }
+    }
+
+    /**
+     * Evict least recently used files until the cache fits, never evicting {@code keep} or pinned files.
+     */
+    private void evict(String keep) {
+        Path root = Paths.get(cacheDirectory);
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep) || pins.containsKey(eldest.getKey())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(root.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                System.err.println("Failed to evict " + eldest.getKey() + " from asset cache: " + e.getMessage());
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            meterRegistry.counter("asset.cache.evictions").increment();
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.raidrin.eme.storage.blob;
+
+import com.raidrin.eme.util.Hashes;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Blob store on the local filesystem. Objects are spread over two levels of directories taken
+ * from the hash of the key ({@code root/ab/cd/key}), so no single directory grows to hold every asset.
+ * Writes go to a temporary file that is moved into place, so readers never see a partial object.
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public void put(String key, InputStream in, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return Files.newInputStream(resolve(key));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Blob not found: " + key);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            return Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            System.err.println("Failed to delete local blob " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return resolve(key).toAbsolutePath().toUri().toString();
+    }
+
+    /**
+     * "audio/hello.mp3" is stored at root/3f/a2/audio/hello.mp3
+     */
+    Path resolve(String key) {
+        if (key == null || key.isEmpty() || key.startsWith("/") || key.contains("..")) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        String hash = Hashes.sha256Hex(key);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(key);
+    }
+}
@@ -0,0 +1,125 @@
+package com.raidrin.eme.storage.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The deployment's blob store: writes go to the primary store (and fail if it fails) and are then
+ * copied to each replica on a best-effort basis; reads fall back to the replicas when the primary
+ * does not have the object or cannot be reached.
+ */
+public class ReplicatedBlobStore implements BlobStore, AutoCloseable {
+
+    private final BlobStore primary;
+    private final List<BlobStore> replicas;
+
+    public ReplicatedBlobStore(BlobStore primary, List<BlobStore> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public String name() {
+        return primary.name();
+    }
+
+    public BlobStore getPrimary() {
+        return primary;
+    }
+
+    public List<BlobStore> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void put(String key, InputStream in, String contentType) throws IOException {
+        if (replicas.isEmpty()) {
+            primary.put(key, in, contentType);
+            return;
+        }
+        // The stream can only be read once, so spool it to disk for the replicas
+        Path spool = Files.createTempFile("blob-", ".tmp");
+        try {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            put(key, spool, contentType);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        primary.put(key, file, contentType);
+        for (BlobStore replica : replicas) {
+            try {
+                replica.put(key, file, contentType);
+            } catch (Exception e) {
+                System.err.println("Failed to replicate " + key + " to " + replica.name() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        List<BlobStore> stores = new ArrayList<>();
+        stores.add(primary);
+        stores.addAll(replicas);
+        IOException lastError = null;
+        for (BlobStore store : stores) {
+            try {
+                return store.get(key);
+            } catch (IOException e) {
+                lastError = e;
+            } catch (RuntimeException e) {
+                lastError = new IOException("Failed to read " + key + " from " + store.name(), e);
+            }
+        }
+        throw lastError;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        if (primary.exists(key)) {
+            return true;
+        }
+        return replicas.stream().anyMatch(replica -> replica.exists(key));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        boolean deleted = primary.delete(key);
+        for (BlobStore replica : replicas) {
+            deleted |= replica.delete(key);
+        }
+        return deleted;
+    }
+
+    @Override
+    public String url(String key) {
+        return primary.url(key);
+    }
+
+    /**
+     * Close the replicas and then the primary. A store that fails to close is logged and does not
+     * keep the others open.
+     */
+    @Override
+    public void close() {
+        List<BlobStore> stores = new ArrayList<>(replicas);
+        stores.add(primary);
+        for (BlobStore store : stores) {
+            if (store instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close blob store " + store.name() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.raidrin.eme.storage.blob;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blob store for S3 and S3-compatible services (e.g. a local MinIO).
+ * Objects up to one part in size are sent with a single PUT; anything larger (session ZIPs)
+ * is sent as a multipart upload, holding only one part in memory at a time.
+ */
+public class S3BlobStore implements BlobStore, AutoCloseable {
+
+    /** S3 rejects parts smaller than 5 MB (except the last) */
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final String bucketName;
+    private final String endpoint;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final boolean pathStyleAccess;
+    private final int partSize;
+    private volatile S3Client client;
+
+    public S3BlobStore(String bucketName, String endpoint, String region, String accessKey, String secretKey,
+                       boolean pathStyleAccess, int partSizeBytes) {
+        if (bucketName == null || bucketName.isBlank()) {
+            throw new IllegalArgumentException("S3 bucket name must be provided");
+        }
+        this.bucketName = bucketName;
+        this.endpoint = endpoint;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.pathStyleAccess = pathStyleAccess;
+        this.partSize = Math.max(MIN_PART_SIZE, partSizeBytes);
+    }
+
+    @Override
+    public String name() {
+        return "s3";
+    }
+
+    @Override
+    public void put(String key, InputStream in, String contentType) throws IOException {
+        byte[] firstPart = in.readNBytes(partSize);
+        if (firstPart.length < partSize) {
+            client().putObject(PutObjectRequest.builder().bucket(bucketName).key(key).contentType(contentType).build(),
+                    RequestBody.fromBytes(firstPart));
+            return;
+        }
+        putMultipart(key, firstPart, in, contentType);
+    }
+
+    private void putMultipart(String key, byte[] firstPart, InputStream in, String contentType) throws IOException {
+        String uploadId = client().createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName).key(key).contentType(contentType).build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] part = firstPart;
+            int partNumber = 1;
+            while (part.length > 0) {
+                String eTag = client().uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName).key(key).uploadId(uploadId).partNumber(partNumber).build(),
+                        RequestBody.fromBytes(part)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                partNumber++;
+                part = in.readNBytes(partSize);
+            }
+            client().completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            System.out.println("Uploaded " + key + " to S3 in " + parts.size() + " parts");
+        } catch (IOException | RuntimeException e) {
+            try {
+                client().abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName).key(key).uploadId(uploadId).build());
+            } catch (Exception abortError) {
+                System.err.println("Failed to abort multipart upload of " + key + ": " + abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return client().getObject(GetObjectRequest.builder().bucket(bucketName).key(key).build());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("Blob not found in S3: " + key);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            client().headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) {
+        if (!exists(key)) {
+            return false;
+        }
+        try {
+            client().deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Failed to delete S3 blob " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return String.format("s3://%s/%s", bucketName, key);
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    /**
+     * Created on first use so the application can start without S3 credentials.
+     */
+    private S3Client client() {
+        S3Client current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    AwsCredentialsProvider credentials = accessKey != null && !accessKey.isBlank()
+                            ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                            : DefaultCredentialsProvider.create();
+                    S3ClientBuilder builder = S3Client.builder()
+                            .region(Region.of(region))
+                            .credentialsProvider(credentials)
+                            .serviceConfiguration(S3Configuration.builder()
+                                    .pathStyleAccessEnabled(pathStyleAccess)
+                                    .build());
+                    if (endpoint != null && !endpoint.isBlank()) {
+                        builder.endpointOverride(URI.create(endpoint));
+                    }
+                    current = builder.build();
+                    client = current;
+                    System.out.println("Created S3 client for bucket " + bucketName +
+                            (endpoint != null && !endpoint.isBlank() ? " at " + endpoint : ""));
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,71 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Index entry for a synthesized audio file, keyed by a hash of everything that
+ * affects the synthesized output (text, language code, voice name, gender, encoding).
+ */
+@Entity
+@Table(name = "audio_assets", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"asset_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudioAssetEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "asset_key", nullable = false, length = 64)
+    private String assetKey;
+
+    @Column(name = "text", nullable = false, columnDefinition = "TEXT")
+    private String text;
+
+    @Column(name = "language_code", nullable = false, length = 20)
+    private String languageCode;
+
+    @Column(name = "voice_name", length = 100)
+    private String voiceName;
+
+    @Column(name = "voice_gender", length = 20)
+    private String voiceGender;
+
+    @Column(name = "audio_encoding", nullable = false, length = 64)
+    private String audioEncoding;
+
+    @Column(name = "file_name", nullable = false, length = 500)
+    private String fileName;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "gcs_url", length = 1000)
+    private String gcsUrl;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
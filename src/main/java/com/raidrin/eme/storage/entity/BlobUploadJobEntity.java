@@ -0,0 +1,101 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending upload of a local file to GCS. Once uploaded, the GCS URL is recorded here and on the
+ * asset identified by assetType/assetKey.
+ */
+@Entity
+@Table(name = "blob_upload_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobUploadJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "object_name", nullable = false, length = 1000)
+    private String objectName;
+
+    @Column(name = "local_path", nullable = false, columnDefinition = "TEXT")
+    private String localPath;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "asset_type", nullable = false, length = 20)
+    private AssetType assetType;
+
+    /**
+     * Image file name or audio asset key, depending on assetType
+     */
+    @Column(name = "asset_key", length = 500)
+    private String assetKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private UploadStatus status = UploadStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "gcs_url", length = 1000)
+    private String gcsUrl;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum AssetType {
+        IMAGE,
+        /** An image thumbnail; it has no asset row of its own to record the URL on */
+        THUMBNAIL,
+        AUDIO,
+        OTHER
+    }
+
+    public enum UploadStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
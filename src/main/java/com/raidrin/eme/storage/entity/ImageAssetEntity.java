@@ -0,0 +1,78 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Index entry for a generated image, keyed by a hash of the request that produced it
+ * (sanitized prompt, model, size, quality). The MinHash signature of the prompt is kept
+ * so near-duplicate prompts can be matched without another API call.
+ */
+@Entity
+@Table(name = "image_assets", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"asset_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageAssetEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "asset_key", nullable = false, length = 64)
+    private String assetKey;
+
+    @Column(name = "prompt", nullable = false, columnDefinition = "TEXT")
+    private String prompt;
+
+    @Column(name = "model", nullable = false, length = 100)
+    private String model;
+
+    @Column(name = "size", nullable = false, length = 20)
+    private String size;
+
+    @Column(name = "quality", nullable = false, length = 20)
+    private String quality;
+
+    @Column(name = "minhash_signature", nullable = false, columnDefinition = "TEXT")
+    private String minhashSignature;
+
+    @Column(name = "file_name", nullable = false, length = 500)
+    private String fileName;
+
+    @Column(name = "thumbnail_file_name", length = 500)
+    private String thumbnailFileName;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "gcs_url", length = 1000)
+    private String gcsUrl;
+
+    @Column(name = "reuse_count", nullable = false)
+    private Integer reuseCount = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
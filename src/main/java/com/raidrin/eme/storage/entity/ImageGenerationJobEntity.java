@@ -0,0 +1,120 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued image generation for a word. Workers claim PENDING jobs, mark them RUNNING,
+ * and finish them as COMPLETED or, after the last attempt, FAILED.
+ * PREVIEW jobs produce a word's first image; UPGRADE jobs replace it with a higher quality one.
+ */
+@Entity
+@Table(name = "image_generation_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageGenerationJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(name = "word", nullable = false, columnDefinition = "TEXT")
+    private String word;
+
+    @Column(name = "source_language", nullable = false, length = 10)
+    private String sourceLanguage;
+
+    @Column(name = "target_language", nullable = false, length = 10)
+    private String targetLanguage;
+
+    @Column(name = "image_prompt", nullable = false, columnDefinition = "TEXT")
+    private String imagePrompt;
+
+    @Column(name = "sanitized_prompt", nullable = false, columnDefinition = "TEXT")
+    private String sanitizedPrompt;
+
+    @Column(name = "file_name", nullable = false, length = 500)
+    private String fileName;
+
+    @Column(name = "size", nullable = false, length = 20)
+    private String size;
+
+    @Column(name = "quality", nullable = false, length = 20)
+    private String quality;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tier", nullable = false, length = 20)
+    private JobTier tier = JobTier.PREVIEW;
+
+    /**
+     * For PREVIEW jobs: the quality to upgrade to once the preview exists, or null for no upgrade.
+     */
+    @Column(name = "upgrade_quality", length = 20)
+    private String upgradeQuality;
+
+    /**
+     * For UPGRADE jobs: the image to replace. The upgrade is discarded if the word no longer shows it.
+     */
+    @Column(name = "replaces_file_name", length = 500)
+    private String replacesFileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private JobStatus status = JobStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum JobStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public enum JobTier {
+        PREVIEW,
+        UPGRADE
+    }
+}
@@ -0,0 +1,80 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A generated mnemonic, keyed by a hash of everything that went into its OpenAI request.
+ */
+@Entity
+@Table(name = "mnemonic_cache", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"cache_key"})
+})
+@Data
+@NoArgsConstructor
+public class MnemonicCacheEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(name = "source_word", nullable = false, columnDefinition = "TEXT")
+    private String sourceWord;
+
+    @Column(name = "target_word", nullable = false, columnDefinition = "TEXT")
+    private String targetWord;
+
+    @Column(name = "source_language", nullable = false, length = 10)
+    private String sourceLanguage;
+
+    @Column(name = "target_language", nullable = false, length = 10)
+    private String targetLanguage;
+
+    @Column(name = "transliteration", columnDefinition = "TEXT")
+    private String transliteration;
+
+    @Column(name = "character_guide_id")
+    private Long characterGuideId;
+
+    @Column(name = "image_style", nullable = false, length = 50)
+    private String imageStyle;
+
+    @Column(name = "template_version", nullable = false, length = 20)
+    private String templateVersion;
+
+    @Column(name = "mnemonic_keyword", columnDefinition = "TEXT")
+    private String mnemonicKeyword;
+
+    @Column(name = "mnemonic_sentence", columnDefinition = "TEXT")
+    private String mnemonicSentence;
+
+    @Column(name = "image_prompt", columnDefinition = "TEXT")
+    private String imagePrompt;
+
+    @Column(name = "hit_count", nullable = false)
+    private int hitCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
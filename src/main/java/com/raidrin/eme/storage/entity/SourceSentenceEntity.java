@@ -0,0 +1,62 @@
+package com.raidrin.eme.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A word's example sentence in its source language, shared by all target languages.
+ */
+@Entity
+@Table(name = "source_sentences", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"word", "source_language"})
+})
+@Data
+@NoArgsConstructor
+public class SourceSentenceEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "word", nullable = false, columnDefinition = "TEXT")
+    private String word;
+
+    @Column(name = "source_language", nullable = false, length = 10)
+    private String sourceLanguage;
+
+    @Column(name = "word_romanized", columnDefinition = "TEXT")
+    private String wordRomanized;
+
+    @Column(name = "sentence", nullable = false, columnDefinition = "TEXT")
+    private String sentence;
+
+    @Column(name = "sentence_transliteration", columnDefinition = "TEXT")
+    private String sentenceTransliteration;
+
+    @Column(name = "word_structure", columnDefinition = "TEXT")
+    private String wordStructure;
+
+    @Column(name = "audio_file", columnDefinition = "TEXT")
+    private String audioFile;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
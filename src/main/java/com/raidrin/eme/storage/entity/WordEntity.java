@@ -41,6 +41,9 @@ public class WordEntity {
     @Column(name = "image_file", columnDefinition = "TEXT")
     private String imageFile;
 
+    @Column(name = "image_thumbnail_file", columnDefinition = "TEXT")
+    private String imageThumbnailFile;
+
     @Column(name = "image_prompt", columnDefinition = "TEXT")
     private String imagePrompt;
 
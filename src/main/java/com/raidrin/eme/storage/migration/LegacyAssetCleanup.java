@@ -0,0 +1,75 @@
+package com.raidrin.eme.storage.migration;
+
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes legacy asset files that a Java migration copied to their new location, once the migration
+ * has committed. Until then the old files stay where the old references expect them, so a migration
+ * that fails and rolls back loses nothing. Registered with Flyway as a Spring bean.
+ */
+@Component
+public class LegacyAssetCleanup implements Callback {
+
+    private final List<Path> pending = new ArrayList<>();
+
+    /**
+     * Delete a file after a successful migration.
+     */
+    public synchronized void deleteAfterMigrate(Path file) {
+        pending.add(file);
+    }
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.AFTER_MIGRATE || event == Event.AFTER_MIGRATE_ERROR;
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        if (event == Event.AFTER_MIGRATE) {
+            deletePending();
+        } else {
+            discardPending();
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "legacy-asset-cleanup";
+    }
+
+    synchronized int deletePending() {
+        int deleted = 0;
+        for (Path file : pending) {
+            try {
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (Exception e) {
+                System.err.println("[MIGRATION] Failed to delete legacy file " + file + ": " + e.getMessage());
+            }
+        }
+        pending.clear();
+        if (deleted > 0) {
+            System.out.println("[MIGRATION] Deleted " + deleted + " legacy asset file(s)");
+        }
+        return deleted;
+    }
+
+    synchronized void discardPending() {
+        pending.clear();
+    }
+}
@@ -0,0 +1,308 @@
+package com.raidrin.eme.storage.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.raidrin.eme.image.ImageTranscoder;
+import com.raidrin.eme.storage.blob.BlobStore;
+import com.raidrin.eme.util.AssetPaths;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Renames assets from before content-addressed naming ({@link AssetPaths}) and moves them into the
+ * sharded directory layout. References in words, sentences, the image/audio asset indexes and session
+ * data are rewritten first; then each file is copied (or, if it only exists in the blob store, fetched)
+ * to its new location and an upload under the new blob key is queued. The legacy files are deleted only
+ * after the migration has committed ({@link LegacyAssetCleanup}), and copying skips files already at
+ * their new location, so the migration can fail and be re-run without losing files.
+ *
+ * The inputs that produced a legacy asset (e.g. the voice of an audio file) were never recorded, so the
+ * hash of a legacy asset is taken over its old name, which was already unique. Registered with Flyway
+ * as a Spring bean so it can read the asset directories and the blob store.
+ */
+@Component
+public class V25__ContentAddressedAssetNames extends BaseJavaMigration {
+
+    // Uniqueness suffixes of the old schemes: image timestamps, voice hashes and Base64 text prefixes
+    private static final Pattern LEGACY_SUFFIX = Pattern.compile("_(?:\\d{13}|[0-9a-f]{12}|[A-Za-z0-9_-]{8})$");
+
+    private final BlobStore blobStore;
+    private final LegacyAssetCleanup legacyAssetCleanup;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> imageRenames = new HashMap<>();
+    private final Map<String, String> audioRenames = new HashMap<>();
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    @Value("${audio.output.directory:./generated_audio}")
+    private String audioOutputDirectory;
+
+    public V25__ContentAddressedAssetNames(BlobStore blobStore, LegacyAssetCleanup legacyAssetCleanup) {
+        this.blobStore = blobStore;
+        this.legacyAssetCleanup = legacyAssetCleanup;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        int rows = 0;
+        rows += rewriteColumn(connection, "words", "image_file", imageRenames);
+        rows += rewriteColumn(connection, "words", "image_thumbnail_file", imageRenames);
+        rows += rewriteColumn(connection, "words", "audio_source_file", audioRenames);
+        rows += rewriteColumn(connection, "words", "audio_target_file", audioRenames);
+        rows += rewriteColumn(connection, "sentences", "audio_file", audioRenames);
+        rows += rewriteColumn(connection, "image_assets", "file_name", imageRenames);
+        rows += rewriteColumn(connection, "image_assets", "thumbnail_file_name", imageRenames);
+        rows += rewriteColumn(connection, "audio_assets", "file_name", audioRenames);
+        rows += rewriteSessionData(connection);
+        System.out.println("[MIGRATION] Rewrote " + rows + " asset references (" + imageRenames.size() +
+                " images, " + audioRenames.size() + " audio files)");
+
+        copyFiles(connection, Paths.get(imageOutputDirectory), imageRenames, false);
+        copyFiles(connection, Paths.get(audioOutputDirectory), audioRenames, true);
+    }
+
+    private int rewriteColumn(Connection connection, String table, String column,
+                              Map<String, String> renames) throws SQLException {
+        Map<Long, String> updates = new HashMap<>();
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, " + column + " FROM " + table +
+                     " WHERE " + column + " IS NOT NULL")) {
+            while (rs.next()) {
+                String value = rs.getString(2);
+                String renamed = rename(value, renames, null);
+                if (!renamed.equals(value)) {
+                    updates.put(rs.getLong(1), renamed);
+                }
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + table + " SET " + column + " = ? WHERE id = ?")) {
+            for (Map.Entry<Long, String> entry : updates.entrySet()) {
+                update.setString(1, entry.getValue());
+                update.setLong(2, entry.getKey());
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+        return updates.size();
+    }
+
+    private int rewriteSessionData(Connection connection) throws SQLException, IOException {
+        Map<Long, String> updates = new HashMap<>();
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT id, session_data FROM translation_sessions WHERE session_data IS NOT NULL")) {
+            while (rs.next()) {
+                JsonNode sessionData = objectMapper.readTree(rs.getString(2));
+                if (rewriteJson(sessionData)) {
+                    updates.put(rs.getLong(1), objectMapper.writeValueAsString(sessionData));
+                }
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE translation_sessions SET session_data = ? WHERE id = ?")) {
+            for (Map.Entry<Long, String> entry : updates.entrySet()) {
+                update.setString(1, entry.getValue());
+                update.setLong(2, entry.getKey());
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+        return updates.size();
+    }
+
+    /**
+     * Rewrite every file reference (keys ending in _file, _files or _path) in a session data tree.
+     */
+    private boolean rewriteJson(JsonNode node) {
+        boolean changed = false;
+        if (node instanceof ObjectNode object) {
+            List<String> keys = new ArrayList<>();
+            object.fieldNames().forEachRemaining(keys::add);
+            for (String key : keys) {
+                JsonNode value = object.get(key);
+                if (!(key.endsWith("_file") || key.endsWith("_files") || key.endsWith("_path"))) {
+                    changed |= rewriteJson(value);
+                    continue;
+                }
+                boolean audio = key.contains("audio");
+                Map<String, String> renames = audio ? audioRenames : imageRenames;
+                Path root = Paths.get(audio ? audioOutputDirectory : imageOutputDirectory);
+                if (value.isTextual()) {
+                    String renamed = rename(value.asText(), renames, root);
+                    if (!renamed.equals(value.asText())) {
+                        object.put(key, renamed);
+                        changed = true;
+                    }
+                } else if (value instanceof ArrayNode array) {
+                    for (int i = 0; i < array.size(); i++) {
+                        if (!array.get(i).isTextual()) {
+                            continue;
+                        }
+                        String renamed = rename(array.get(i).asText(), renames, root);
+                        if (!renamed.equals(array.get(i).asText())) {
+                            array.set(i, TextNode.valueOf(renamed));
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (JsonNode element : array) {
+                changed |= rewriteJson(element);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * New reference for a file name or path; paths are re-rooted at the sharded location under {@code root}.
+     */
+    private String rename(String value, Map<String, String> renames, Path root) {
+        if (value.isBlank() || value.startsWith("http")) {
+            return value;
+        }
+        String name = value.substring(Math.max(value.lastIndexOf('/'), value.lastIndexOf('\\')) + 1);
+        if (name.isEmpty() || AssetPaths.isContentAddressed(name)) {
+            return value;
+        }
+        String renamed = renames.computeIfAbsent(name, V25__ContentAddressedAssetNames::contentAddressedName);
+        if (name.equals(value) || root == null) {
+            return renamed;
+        }
+        return AssetPaths.resolve(root, renamed).toString();
+    }
+
+    /**
+     * Content-addressed name for a legacy name. The hash ignores the extension and a thumbnail suffix,
+     * so "x.mp3" and "x" stay the same file and a thumbnail keeps matching its image.
+     */
+    static String contentAddressedName(String legacyName) {
+        int dot = legacyName.lastIndexOf('.');
+        String base = dot > 0 ? legacyName.substring(0, dot) : legacyName;
+        String extension = dot > 0 ? legacyName.substring(dot) : "";
+        String suffix = "";
+        if (base.endsWith(ImageTranscoder.THUMBNAIL_SUFFIX)) {
+            suffix = ImageTranscoder.THUMBNAIL_SUFFIX;
+            base = base.substring(0, base.length() - suffix.length());
+        }
+        String prefix = LEGACY_SUFFIX.matcher(base).replaceFirst("");
+        if (prefix.isEmpty()) {
+            prefix = "asset";
+        }
+        return AssetPaths.contentAddressedName(prefix, base) + suffix + extension;
+    }
+
+    /**
+     * Copy renamed files to their sharded location and queue their upload under the new blob key.
+     * Failures are logged and skipped: the references are already rewritten and a missing file is
+     * regenerated the same way as before.
+     */
+    private void copyFiles(Connection connection, Path root, Map<String, String> renames,
+                           boolean audio) throws SQLException {
+        Map<CopyResult, Integer> counts = new EnumMap<>(CopyResult.class);
+        Set<String> queued = new HashSet<>();
+        try (PreparedStatement enqueue = connection.prepareStatement(
+                "INSERT INTO blob_upload_jobs (object_name, local_path, content_type, asset_type, asset_key) " +
+                        "VALUES (?, ?, ?, ?, ?)")) {
+            for (Map.Entry<String, String> entry : renames.entrySet()) {
+                String oldFile = audio && !entry.getKey().endsWith(".mp3") ? entry.getKey() + ".mp3" : entry.getKey();
+                String newFile = audio && !entry.getValue().endsWith(".mp3") ? entry.getValue() + ".mp3" : entry.getValue();
+                Path target = AssetPaths.resolve(root, newFile);
+                try {
+                    CopyResult result = copyFile(root, oldFile, newFile, audio ? "audio/" + oldFile : oldFile);
+                    counts.merge(result, 1, Integer::sum);
+                    // An existing target may come from a failed run whose queued upload was rolled back
+                    if (result == CopyResult.MISSING || !queued.add(newFile)) {
+                        continue;
+                    }
+                    enqueue.setString(1, audio ? "audio/" + newFile : newFile);
+                    enqueue.setString(2, target.toAbsolutePath().toString());
+                    enqueue.setString(3, contentType(newFile));
+                    // Audio asset rows are keyed by request hash, not file name; their URL is left as is
+                    enqueue.setString(4, audio ? "OTHER"
+                            : ImageTranscoder.isThumbnailFileName(newFile) ? "THUMBNAIL" : "IMAGE");
+                    enqueue.setString(5, audio ? null : newFile);
+                    enqueue.addBatch();
+                } catch (Exception e) {
+                    System.err.println("[MIGRATION] Failed to copy " + oldFile + " to " + target + ": " + e.getMessage());
+                }
+            }
+            enqueue.executeBatch();
+        }
+        System.out.println("[MIGRATION] " + root + ": copied " + counts.getOrDefault(CopyResult.COPIED, 0) +
+                ", fetched from blob store " + counts.getOrDefault(CopyResult.FETCHED, 0) +
+                ", already in place " + counts.getOrDefault(CopyResult.EXISTS, 0) +
+                ", missing " + counts.getOrDefault(CopyResult.MISSING, 0));
+    }
+
+    enum CopyResult { COPIED, FETCHED, EXISTS, MISSING }
+
+    /**
+     * Copy one legacy file under {@code root} to the sharded location of its new name, or fetch it
+     * from the blob store if it is not on disk. The legacy file is deleted after the migration commits.
+     * A target that already exists (e.g. from an earlier failed run) is kept.
+     */
+    CopyResult copyFile(Path root, String oldFile, String newFile, String oldKey) throws IOException {
+        Path source = root.resolve(oldFile);
+        Path target = AssetPaths.resolve(root, newFile);
+        boolean local = Files.exists(source);
+        if (local) {
+            legacyAssetCleanup.deleteAfterMigrate(source);
+        }
+        if (Files.exists(target)) {
+            return CopyResult.EXISTS;
+        }
+        Files.createDirectories(target.getParent());
+        // Copy to a temporary name first so that an interrupted copy never looks complete
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        if (local) {
+            Files.copy(source, partial, StandardCopyOption.REPLACE_EXISTING);
+        } else if (blobStore.exists(oldKey)) {
+            try (InputStream in = blobStore.get(oldKey)) {
+                Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } else {
+            return CopyResult.MISSING;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return local ? CopyResult.COPIED : CopyResult.FETCHED;
+    }
+
+    private static String contentType(String fileName) {
+        String lowerCase = fileName.toLowerCase();
+        if (lowerCase.endsWith(".mp3")) {
+            return "audio/mpeg";
+        } else if (lowerCase.endsWith(".png")) {
+            return "image/png";
+        }
+        return "image/jpeg";
+    }
+}
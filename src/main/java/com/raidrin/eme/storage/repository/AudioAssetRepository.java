@@ -0,0 +1,13 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.AudioAssetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AudioAssetRepository extends JpaRepository<AudioAssetEntity, Long> {
+
+    Optional<AudioAssetEntity> findByAssetKey(String assetKey);
+}
@@ -0,0 +1,38 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity.UploadStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobUploadJobRepository extends JpaRepository<BlobUploadJobEntity, Long> {
+
+    /**
+     * Lock due PENDING uploads; rows locked by another worker are skipped rather than waited for.
+     */
+    @Query(value = "SELECT * FROM blob_upload_jobs WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BlobUploadJobEntity> lockDueJobs(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    Optional<BlobUploadJobEntity> findFirstByObjectNameAndStatusOrderByCompletedAtDesc(String objectName,
+                                                                                      UploadStatus status);
+
+    long countByStatus(UploadStatus status);
+
+    /**
+     * Return uploads left RUNNING by a worker that died (e.g. on restart) to the queue.
+     */
+    @Modifying
+    @Query("UPDATE BlobUploadJobEntity j SET j.status = :pending, j.nextAttemptAt = :now " +
+            "WHERE j.status = :running AND j.startedAt < :startedBefore")
+    int requeueStale(@Param("startedBefore") LocalDateTime startedBefore, @Param("now") LocalDateTime now,
+                     @Param("pending") UploadStatus pending, @Param("running") UploadStatus running);
+}
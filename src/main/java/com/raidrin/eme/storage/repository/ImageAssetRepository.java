@@ -0,0 +1,29 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.ImageAssetEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageAssetRepository extends JpaRepository<ImageAssetEntity, Long> {
+
+    Optional<ImageAssetEntity> findByAssetKey(String assetKey);
+
+    List<ImageAssetEntity> findByModelAndSizeAndQualityOrderByCreatedAtDesc(String model, String size, String quality,
+                                                                            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ImageAssetEntity a SET a.reuseCount = a.reuseCount + 1 WHERE a.id = :id")
+    void incrementReuseCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ImageAssetEntity a SET a.gcsUrl = :gcsUrl WHERE a.fileName = :fileName")
+    int updateGcsUrlByFileName(@Param("fileName") String fileName, @Param("gcsUrl") String gcsUrl);
+}
@@ -0,0 +1,37 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity;
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageGenerationJobRepository extends JpaRepository<ImageGenerationJobEntity, Long> {
+
+    /**
+     * Lock due PENDING jobs of a tier; rows locked by another worker are skipped rather than waited for.
+     */
+    @Query(value = "SELECT * FROM image_generation_jobs WHERE status = 'PENDING' AND tier = :tier " +
+            "AND next_attempt_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ImageGenerationJobEntity> lockDueJobs(@Param("tier") String tier, @Param("now") LocalDateTime now,
+                                               @Param("limit") int limit);
+
+    List<ImageGenerationJobEntity> findBySessionIdOrderById(Long sessionId);
+
+    long countBySessionIdAndStatusIn(Long sessionId, List<JobStatus> statuses);
+
+    /**
+     * Return jobs left RUNNING by a worker that died (e.g. on restart) to the queue.
+     */
+    @Modifying
+    @Query("UPDATE ImageGenerationJobEntity j SET j.status = :pending, j.nextAttemptAt = :now " +
+            "WHERE j.status = :running AND j.startedAt < :startedBefore")
+    int requeueStale(@Param("startedBefore") LocalDateTime startedBefore, @Param("now") LocalDateTime now,
+                     @Param("pending") JobStatus pending, @Param("running") JobStatus running);
+}
@@ -0,0 +1,28 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.MnemonicCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MnemonicCacheRepository extends JpaRepository<MnemonicCacheEntity, Long> {
+
+    Optional<MnemonicCacheEntity> findByCacheKey(String cacheKey);
+
+    @Modifying
+    @Query("UPDATE MnemonicCacheEntity m SET m.hitCount = m.hitCount + 1 WHERE m.id = :id")
+    int incrementHitCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM MnemonicCacheEntity m WHERE m.characterGuideId = :characterGuideId")
+    int deleteByCharacterGuideId(@Param("characterGuideId") Long characterGuideId);
+
+    @Modifying
+    @Query("DELETE FROM MnemonicCacheEntity m WHERE m.templateVersion <> :templateVersion")
+    int deleteByTemplateVersionNot(@Param("templateVersion") String templateVersion);
+}
@@ -0,0 +1,13 @@
+package com.raidrin.eme.storage.repository;
+
+import com.raidrin.eme.storage.entity.SourceSentenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SourceSentenceRepository extends JpaRepository<SourceSentenceEntity, Long> {
+
+    Optional<SourceSentenceEntity> findByWordAndSourceLanguage(String word, String sourceLanguage);
+}
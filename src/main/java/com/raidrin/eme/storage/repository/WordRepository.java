@@ -2,7 +2,9 @@ package com.raidrin.eme.storage.repository;
 
 import com.raidrin.eme.storage.entity.WordEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -29,4 +31,16 @@ public interface WordRepository extends JpaRepository<WordEntity, Long> {
 
     @Query("SELECT w FROM WordEntity w WHERE w.imageFile IS NOT NULL ORDER BY w.updatedAt DESC")
     List<WordEntity> findAllWithImages();
+
+    /**
+     * Replace a word's image only if it still shows {@code expectedImageFile}, in a single statement.
+     *
+     * @return 1 if the image was replaced, 0 if the word's image had changed
+     */
+    @Modifying
+    @Query("UPDATE WordEntity w SET w.imageFile = :imageFile, w.imageThumbnailFile = :imageThumbnailFile, " +
+            "w.updatedAt = :now WHERE w.id = :wordId AND w.imageFile = :expectedImageFile")
+    int swapImage(@Param("wordId") Long wordId, @Param("expectedImageFile") String expectedImageFile,
+                  @Param("imageFile") String imageFile, @Param("imageThumbnailFile") String imageThumbnailFile,
+                  @Param("now") LocalDateTime now);
 }
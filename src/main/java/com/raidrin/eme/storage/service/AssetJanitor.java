@@ -0,0 +1,248 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.blob.BlobStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the local asset directories within their byte quotas.
+ * Every {@code janitor.interval-minutes} it deletes superseded session ZIPs (only the newest ZIP per
+ * session is kept, and older ones once they are {@code janitor.min-age-minutes} old) and then evicts the least recently used files of any directory over its quota.
+ * Images and audio are only evicted once they are safely in the blob store, from where the
+ * asset cache can fetch them again; ZIPs are rebuilt on download and need no backup.
+ * A quota of 0 disables eviction for that directory.
+ */
+@Component
+public class AssetJanitor {
+
+    private static final Pattern SESSION_ZIP = Pattern.compile("session_(\\d+)_.*_(\\d+)\\.zip");
+
+    private final BlobStore blobStore;
+    private final BlobUploadQueue blobUploadQueue;
+    private final MeterRegistry meterRegistry;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${janitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${janitor.interval-minutes:30}")
+    private long intervalMinutes;
+
+    @Value("${janitor.min-age-minutes:60}")
+    private long minAgeMinutes;
+
+    @Value("${janitor.quota.images-bytes:0}")
+    private long imagesQuotaBytes;
+
+    @Value("${janitor.quota.audio-bytes:0}")
+    private long audioQuotaBytes;
+
+    @Value("${janitor.quota.zips-bytes:1073741824}")
+    private long zipsQuotaBytes;
+
+    @Value("${image.output.directory:./generated_images}")
+    private String imageOutputDirectory;
+
+    @Value("${audio.output.directory:./generated_audio}")
+    private String audioOutputDirectory;
+
+    @Value("${zip.output.directory:./session_zips}")
+    private String zipOutputDirectory;
+
+    public AssetJanitor(BlobStore blobStore, BlobUploadQueue blobUploadQueue, MeterRegistry meterRegistry) {
+        this.blobStore = blobStore;
+        this.blobUploadQueue = blobUploadQueue;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "asset-janitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (Exception e) {
+            System.err.println("[JANITOR] Cleanup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run one cleanup pass.
+     *
+     * @return bytes reclaimed per directory
+     */
+    public Map<String, Long> run() throws IOException {
+        Map<String, Long> reclaimed = new HashMap<>();
+        reclaimed.put("session_zips", deleteSupersededZips(Paths.get(zipOutputDirectory)));
+        reclaimed.merge("session_zips", enforceQuota(Paths.get(zipOutputDirectory), zipsQuotaBytes, path -> true), Long::sum);
+        // Blob keys are flat file names even though the local directories are sharded
+        reclaimed.put("generated_images", enforceQuota(Paths.get(imageOutputDirectory), imagesQuotaBytes,
+                path -> isBackedUp(path.getFileName().toString())));
+        reclaimed.put("generated_audio", enforceQuota(Paths.get(audioOutputDirectory), audioQuotaBytes,
+                path -> isBackedUp("audio/" + path.getFileName())));
+
+        long total = 0;
+        for (Map.Entry<String, Long> entry : reclaimed.entrySet()) {
+            meterRegistry.counter("janitor.reclaimed.bytes", "directory", entry.getKey()).increment(entry.getValue());
+            total += entry.getValue();
+        }
+        if (total > 0) {
+            System.out.println("[JANITOR] Reclaimed " + total + " bytes: " + reclaimed);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Keep only the newest ZIP of each session. Superseded ZIPs younger than {@code janitor.min-age-minutes}
+     * are kept, as a download of them may still be running.
+     */
+    private long deleteSupersededZips(Path zipDir) throws IOException {
+        if (!Files.isDirectory(zipDir)) {
+            return 0;
+        }
+        Map<Long, Path> newest = new HashMap<>();
+        Map<Long, Long> newestTimestamp = new HashMap<>();
+        List<Path> superseded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(zipDir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SESSION_ZIP.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long sessionId = Long.parseLong(matcher.group(1));
+                long timestamp = Long.parseLong(matcher.group(2));
+                Long current = newestTimestamp.get(sessionId);
+                if (current == null || timestamp > current) {
+                    if (current != null) {
+                        superseded.add(newest.get(sessionId));
+                    }
+                    newest.put(sessionId, file);
+                    newestTimestamp.put(sessionId, timestamp);
+                } else {
+                    superseded.add(file);
+                }
+            }
+        }
+        long minAgeCutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minAgeMinutes);
+        long reclaimed = 0;
+        for (Path file : superseded) {
+            try {
+                if (Files.getLastModifiedTime(file).toMillis() > minAgeCutoff) {
+                    continue;
+                }
+            } catch (IOException e) {
+                // Already gone
+                continue;
+            }
+            reclaimed += delete(file);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Evict least recently used files until the directory fits its quota. Files younger than
+     * {@code janitor.min-age-minutes} or rejected by {@code evictable} are kept.
+     */
+    private long enforceQuota(Path directory, long quotaBytes, Function<Path, Boolean> evictable) throws IOException {
+        if (quotaBytes <= 0 || !Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<FileUsage> files = new ArrayList<>();
+        long usedBytes = 0;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                long lastUsed = Math.max(attributes.lastAccessTime().toMillis(), attributes.lastModifiedTime().toMillis());
+                files.add(new FileUsage(path, attributes.size(), lastUsed));
+                usedBytes += attributes.size();
+            }
+        }
+        if (usedBytes <= quotaBytes) {
+            return 0;
+        }
+
+        long minAgeCutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minAgeMinutes);
+        files.sort(Comparator.comparingLong(FileUsage::lastUsed));
+        long reclaimed = 0;
+        int skipped = 0;
+        for (FileUsage file : files) {
+            if (usedBytes - reclaimed <= quotaBytes) {
+                break;
+            }
+            if (file.lastUsed() > minAgeCutoff || !evictable.apply(file.path())) {
+                skipped++;
+                continue;
+            }
+            reclaimed += delete(file.path());
+        }
+        if (usedBytes - reclaimed > quotaBytes) {
+            System.out.println("[JANITOR] " + directory + " is still over quota (" + (usedBytes - reclaimed) + " > " +
+                    quotaBytes + " bytes); " + skipped + " files are recent or not yet backed up");
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Whether the object is in the blob store: a completed upload, or else a check against the store itself.
+     */
+    private boolean isBackedUp(String blobKey) {
+        try {
+            return blobUploadQueue.findUploadedUrl(blobKey).isPresent() || blobStore.exists(blobKey);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private long delete(Path file) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                return size;
+            }
+        } catch (IOException e) {
+            System.err.println("[JANITOR] Failed to delete " + file + ": " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private record FileUsage(Path path, long size, long lastUsed) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.entity.AudioAssetEntity;
+import com.raidrin.eme.storage.repository.AudioAssetRepository;
+import com.raidrin.eme.util.Hashes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Content-addressed index of synthesized audio files shared across sessions.
+ */
+@Service
+@RequiredArgsConstructor
+public class AudioAssetService {
+
+    private final AudioAssetRepository audioAssetRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Compute the asset key for a synthesis request. Every input that changes the
+     * synthesized output is part of the key.
+     */
+    public static String computeAssetKey(String text, String languageCode, String voiceName,
+                                         String voiceGender, String audioEncoding) {
+        return Hashes.sha256Hex(text, languageCode, voiceName, voiceGender, audioEncoding);
+    }
+
+    public Optional<AudioAssetEntity> findByAssetKey(String assetKey) {
+        if (assetKey == null || assetKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("Asset key must be provided");
+        }
+        return audioAssetRepository.findByAssetKey(assetKey);
+    }
+
+    /**
+     * Record (or refresh) the file backing an asset key. The row is written in its own transaction
+     * so that losing a race with another worker inserting the same key does not mark the caller's
+     * transaction rollback-only; the winner's row is returned instead.
+     */
+    public AudioAssetEntity save(String assetKey, String text, String languageCode, String voiceName,
+                                 String voiceGender, String audioEncoding, String fileName, long sizeBytes) {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("File name must be provided");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return transaction.execute(status -> {
+                AudioAssetEntity entity = audioAssetRepository.findByAssetKey(assetKey).orElseGet(AudioAssetEntity::new);
+                entity.setAssetKey(assetKey);
+                entity.setText(text);
+                entity.setLanguageCode(languageCode);
+                entity.setVoiceName(voiceName);
+                entity.setVoiceGender(voiceGender);
+                entity.setAudioEncoding(audioEncoding);
+                entity.setFileName(fileName);
+                entity.setSizeBytes(sizeBytes);
+                return audioAssetRepository.save(entity);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another worker indexed the same asset concurrently; its row is equivalent
+            return audioAssetRepository.findByAssetKey(assetKey).orElseThrow(() -> e);
+        }
+    }
+
+    @Transactional
+    public void updateGcsUrl(String assetKey, String gcsUrl) {
+        audioAssetRepository.findByAssetKey(assetKey).ifPresent(entity -> {
+            entity.setGcsUrl(gcsUrl);
+            audioAssetRepository.save(entity);
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity.AssetType;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity.UploadStatus;
+import com.raidrin.eme.storage.repository.BlobUploadJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent write-behind queue of GCS uploads. Callers write the asset locally, enqueue it here and
+ * carry on; {@link BlobUploadWorker} threads upload it and fill in the asset's GCS URL.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlobUploadQueue {
+
+    private final BlobUploadJobRepository jobRepository;
+
+    @Value("${gcp.storage.upload.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${gcp.storage.upload.retry-delay-seconds:10}")
+    private long retryDelaySeconds;
+
+    /**
+     * Queue a local file for upload.
+     *
+     * @param objectName Name of the object in the bucket
+     * @param assetType Which asset table to record the GCS URL on
+     * @param assetKey Image file name or audio asset key; null for OTHER
+     */
+    @Transactional
+    public BlobUploadJobEntity enqueue(String objectName, Path localPath, String contentType,
+                                       AssetType assetType, String assetKey) {
+        if (objectName == null || objectName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Object name must be provided");
+        }
+        if (localPath == null) {
+            throw new IllegalArgumentException("Local path must be provided");
+        }
+        BlobUploadJobEntity job = new BlobUploadJobEntity();
+        job.setObjectName(objectName);
+        job.setLocalPath(localPath.toAbsolutePath().toString());
+        job.setContentType(contentType);
+        job.setAssetType(assetType);
+        job.setAssetKey(assetKey);
+        return jobRepository.save(job);
+    }
+
+    /**
+     * Claim up to {@code limit} due uploads by marking them RUNNING. Concurrent callers never
+     * claim the same upload.
+     */
+    @Transactional
+    public List<BlobUploadJobEntity> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BlobUploadJobEntity> jobs = jobRepository.lockDueJobs(now, limit);
+        for (BlobUploadJobEntity job : jobs) {
+            job.setStatus(UploadStatus.RUNNING);
+            job.setStartedAt(now);
+            job.setAttempts(job.getAttempts() + 1);
+        }
+        return jobRepository.saveAll(jobs);
+    }
+
+    @Transactional
+    public void markCompleted(Long jobId, String gcsUrl) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(UploadStatus.COMPLETED);
+            job.setGcsUrl(gcsUrl);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setLastError(null);
+            jobRepository.save(job);
+        });
+    }
+
+    /**
+     * Record a failed attempt; the upload is retried with exponential backoff until it has used
+     * {@code gcp.storage.upload.max-attempts} attempts, or given up at once if {@code permanent}.
+     *
+     * @return true if the upload will be retried
+     */
+    @Transactional
+    public boolean markFailed(Long jobId, String error, boolean permanent) {
+        BlobUploadJobEntity job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Blob upload job not found: " + jobId));
+        job.setLastError(error);
+        if (permanent || job.getAttempts() >= maxAttempts) {
+            job.setStatus(UploadStatus.FAILED);
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            return false;
+        }
+        job.setStatus(UploadStatus.PENDING);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelaySeconds << (job.getAttempts() - 1)));
+        jobRepository.save(job);
+        return true;
+    }
+
+    @Transactional
+    public int requeueStale(LocalDateTime startedBefore) {
+        return jobRepository.requeueStale(startedBefore, LocalDateTime.now(), UploadStatus.PENDING, UploadStatus.RUNNING);
+    }
+
+    /**
+     * @return the GCS URL of the most recent completed upload of an object
+     */
+    public Optional<String> findUploadedUrl(String objectName) {
+        return jobRepository.findFirstByObjectNameAndStatusOrderByCompletedAtDesc(objectName, UploadStatus.COMPLETED)
+                .map(BlobUploadJobEntity::getGcsUrl);
+    }
+
+    public long getPendingCount() {
+        return jobRepository.countByStatus(UploadStatus.PENDING);
+    }
+}
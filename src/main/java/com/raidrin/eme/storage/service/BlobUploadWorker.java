@@ -0,0 +1,166 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.blob.BlobStore;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the upload queue ({@link BlobUploadQueue}) into the configured {@link BlobStore} with
+ * {@code gcp.storage.upload.workers} threads, so at most that many uploads run at once. A successful upload
+ * records the object URL on its asset; a failed one is retried with backoff. Uploads left RUNNING by a
+ * restart are requeued.
+ */
+@Component
+public class BlobUploadWorker {
+
+    private static final long QUEUE_DEPTH_REFRESH_MS = 10_000;
+
+    private final BlobUploadQueue uploadQueue;
+    private final BlobStore blobStore;
+    private final ImageAssetService imageAssetService;
+    private final AudioAssetService audioAssetService;
+    private final MeterRegistry meterRegistry;
+    private final List<Thread> workers = new ArrayList<>();
+    // Refreshed by the workers, so scraping the gauge does not query the database
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong nextQueueDepthRefresh = new AtomicLong();
+    private volatile boolean shutdown;
+
+    @Value("${gcp.storage.upload.workers:4}")
+    private int workerCount;
+
+    @Value("${gcp.storage.upload.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${gcp.storage.upload.stale-after-minutes:10}")
+    private long staleAfterMinutes;
+
+    public BlobUploadWorker(BlobUploadQueue uploadQueue, BlobStore blobStore,
+                            ImageAssetService imageAssetService, AudioAssetService audioAssetService,
+                            MeterRegistry meterRegistry) {
+        this.uploadQueue = uploadQueue;
+        this.blobStore = blobStore;
+        this.imageAssetService = imageAssetService;
+        this.audioAssetService = audioAssetService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("blob.upload.queue.depth", queueDepth, AtomicLong::get)
+                .description("Blob uploads waiting for a worker")
+                .tag("backend", blobStore.name())
+                .register(meterRegistry);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "blob-upload-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        System.out.println("Blob upload workers started: " + workerCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        shutdown = true;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void runWorker() {
+        long nextStaleCheck = 0;
+        while (!shutdown) {
+            try {
+                if (System.currentTimeMillis() >= nextStaleCheck) {
+                    int requeued = uploadQueue.requeueStale(LocalDateTime.now().minusMinutes(staleAfterMinutes));
+                    if (requeued > 0) {
+                        System.out.println("Requeued " + requeued + " stale blob upload(s)");
+                    }
+                    nextStaleCheck = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+                }
+                refreshQueueDepth();
+                List<BlobUploadJobEntity> jobs = uploadQueue.claim(1);
+                if (jobs.isEmpty()) {
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+                jobs.forEach(this::upload);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Blob upload worker error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the pending uploads for the queue depth gauge, at most every {@link #QUEUE_DEPTH_REFRESH_MS}
+     * across all workers.
+     */
+    private void refreshQueueDepth() {
+        long now = System.currentTimeMillis();
+        long next = nextQueueDepthRefresh.get();
+        if (now < next || !nextQueueDepthRefresh.compareAndSet(next, now + QUEUE_DEPTH_REFRESH_MS)) {
+            return;
+        }
+        queueDepth.set(uploadQueue.getPendingCount());
+    }
+
+    private void upload(BlobUploadJobEntity job) {
+        Path localPath = Paths.get(job.getLocalPath());
+        if (!Files.exists(localPath)) {
+            // Nothing to retry: the file was replaced or cleaned up before it was uploaded
+            uploadQueue.markFailed(job.getId(), "Local file no longer exists: " + localPath, true);
+            meterRegistry.counter("blob.upload.failed", "backend", blobStore.name(), "final", "true").increment();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            blobStore.put(job.getObjectName(), localPath, job.getContentType());
+            String gcsUrl = blobStore.url(job.getObjectName());
+            meterRegistry.timer("blob.upload.latency", "backend", blobStore.name()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            uploadQueue.markCompleted(job.getId(), gcsUrl);
+            recordGcsUrl(job, gcsUrl);
+            System.out.println("Uploaded " + job.getObjectName() + " to " + blobStore.name());
+        } catch (Exception e) {
+            boolean retrying = uploadQueue.markFailed(job.getId(), e.getMessage(), false);
+            meterRegistry.counter("blob.upload.failed", "backend", blobStore.name(), "final", String.valueOf(!retrying)).increment();
+            System.err.println("Failed to upload " + job.getObjectName() + " to " + blobStore.name() + " (attempt " + job.getAttempts() +
+                    (retrying ? ", will retry" : ", giving up") + "): " + e.getMessage());
+        }
+    }
+
+    private void recordGcsUrl(BlobUploadJobEntity job, String gcsUrl) {
+        try {
+            switch (job.getAssetType()) {
+                case IMAGE -> imageAssetService.updateGcsUrl(job.getAssetKey(), gcsUrl);
+                case AUDIO -> audioAssetService.updateGcsUrl(job.getAssetKey(), gcsUrl);
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to record GCS URL for " + job.getObjectName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -5,17 +5,26 @@ import com.raidrin.eme.storage.repository.CharacterGuideRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.text.Normalizer;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class CharacterGuideService {
 
     private final CharacterGuideRepository characterGuideRepository;
+    private final MnemonicCacheService mnemonicCacheService;
+
+    // Start sounds per language, loaded on first use and dropped when the language's guide changes
+    private final Map<String, StartSoundTrie> triesByLanguage = new ConcurrentHashMap<>();
 
     public Optional<CharacterGuideEntity> findByLanguageAndStartSound(String language, String startSound) {
         validateParameters(language, startSound);
@@ -49,9 +58,13 @@ public class CharacterGuideService {
             entity.setCharacterName(characterName);
             entity.setCharacterContext(characterContext);
             entity.setUpdatedAt(LocalDateTime.now());
+            // Mnemonics built around the old character are stale
+            mnemonicCacheService.invalidateCharacterGuide(entity.getId());
+            invalidate(language);
             return characterGuideRepository.save(entity);
         } else {
             CharacterGuideEntity entity = new CharacterGuideEntity(language, startSound, characterName, characterContext);
+            invalidate(language);
             return characterGuideRepository.save(entity);
         }
     }
@@ -59,7 +72,10 @@ public class CharacterGuideService {
     @Transactional
     public void delete(String language, String startSound) {
         validateParameters(language, startSound);
+        characterGuideRepository.findByLanguageAndStartSound(language, startSound)
+                .ifPresent(entity -> mnemonicCacheService.invalidateCharacterGuide(entity.getId()));
         characterGuideRepository.deleteByLanguageAndStartSound(language, startSound);
+        invalidate(language);
     }
 
     public boolean exists(String language, String startSound) {
@@ -73,10 +89,9 @@ public class CharacterGuideService {
      *
      * Lookup strategy:
      * 1. Strip accents from transliteration (e.g., mā -> ma)
-     * 2. Try to match first 3 characters
-     * 3. If not found, try first 2 characters
-     * 4. If not found, try first 1 character
-     * 5. If still not found, return empty
+     * 2. Return the character whose start sound is the longest prefix of the result,
+     *    looked up in the language's in-memory start sound trie
+     * 3. If no start sound matches, return empty
      */
     public Optional<CharacterGuideEntity> findMatchingCharacterForWord(String word, String language, String transliteration) {
         if (word == null || word.trim().isEmpty()) {
@@ -93,38 +108,31 @@ public class CharacterGuideService {
         // Strip accents and normalize (e.g., mā -> ma, é -> e)
         String normalizedWord = stripAccents(transliteration.toLowerCase().trim());
 
-        // System.out.println("Character matching: original word='" + word + "', transliteration='" + transliteration + "', normalized='" + normalizedWord + "', language='" + language + "'");
+        Optional<CharacterGuideEntity> match = triesByLanguage
+                .computeIfAbsent(language, lang -> new StartSoundTrie(characterGuideRepository.findByLanguageOrderByStartSound(lang)))
+                .longestPrefixMatch(normalizedWord);
 
-        // Try 3 chars, then 2 chars, then 1 char
-        Optional<CharacterGuideEntity> match = tryFindByStartSound(normalizedWord, language, 3);
-        if (match.isEmpty()) {
-            match = tryFindByStartSound(normalizedWord, language, 2);
-        }
         if (match.isEmpty()) {
-            match = tryFindByStartSound(normalizedWord, language, 1);
-        }
-
-        if (match.isPresent()) {
-            // System.out.println("Found character match: " + match.get().getCharacterName() + " from " + match.get().getCharacterContext() + " (start sound: " + match.get().getStartSound() + ")");
-        } else {
-            System.out.println("No character match found for '" + normalizedWord + "' in language '" + language + "' (tried 3, 2, 1 chars)");
+            System.out.println("No character match found for '" + normalizedWord + "' in language '" + language + "'");
         }
 
         return match;
     }
 
     /**
-     * Try to find a character guide by matching a specific number of starting characters
+     * Drop the cached trie of a language now and again once the current transaction commits,
+     * so a lookup racing with the change cannot keep the old guide cached.
      */
-    private Optional<CharacterGuideEntity> tryFindByStartSound(String normalizedWord, String language, int chars) {
-        if (normalizedWord.length() < chars) {
-            return Optional.empty();
+    private void invalidate(String language) {
+        triesByLanguage.remove(language);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    triesByLanguage.remove(language);
+                }
+            });
         }
-
-        String prefix = normalizedWord.substring(0, chars);
-        // System.out.println("Trying to find character with start sound: '" + prefix + "'");
-
-        return findByLanguageAndStartSound(language, prefix);
     }
 
     /**
@@ -151,4 +159,41 @@ public class CharacterGuideService {
             throw new IllegalArgumentException("Start sound must be provided");
         }
     }
+
+    /**
+     * Prefix tree of one language's start sounds.
+     */
+    private static class StartSoundTrie {
+        private final Node root = new Node();
+
+        StartSoundTrie(List<CharacterGuideEntity> guides) {
+            for (CharacterGuideEntity guide : guides) {
+                Node node = root;
+                for (char c : guide.getStartSound().toCharArray()) {
+                    node = node.children.computeIfAbsent(c, k -> new Node());
+                }
+                node.guide = guide;
+            }
+        }
+
+        Optional<CharacterGuideEntity> longestPrefixMatch(String word) {
+            CharacterGuideEntity match = null;
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.get(word.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.guide != null) {
+                    match = node.guide;
+                }
+            }
+            return Optional.ofNullable(match);
+        }
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private CharacterGuideEntity guide;
+        }
+    }
 }
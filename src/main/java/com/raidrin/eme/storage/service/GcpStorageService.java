@@ -2,6 +2,7 @@ package com.raidrin.eme.storage.service;
 
 import com.google.cloud.storage.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,12 +18,15 @@ import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Service for interacting with Google Cloud Storage
+ * Service for interacting with Google Cloud Storage.
+ * All calls share the one long-lived {@link Storage} client from {@code GcpStorageConfig}.
  */
 @Service
 @RequiredArgsConstructor
 public class GcpStorageService {
 
+    private final ObjectProvider<Storage> storageProvider;
+
     @Value("${gcp.storage.bucket-name:eme-flashcard-images}")
     private String bucketName;
 
@@ -36,15 +40,13 @@ public class GcpStorageService {
      */
     public String uploadFile(String fileName, byte[] content, String contentType) {
         try {
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-
             BlobId blobId = BlobId.of(bucketName, fileName);
             BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
                     .setContentType(contentType)
                     .build();
 
             System.out.println("Uploading file to GCS: " + fileName);
-            Blob blob = storage.create(blobInfo, content);
+            Blob blob = storage().create(blobInfo, content);
 
             System.out.println("File uploaded successfully: " + blob.getName());
             return String.format("gs://%s/%s", bucketName, fileName);
@@ -55,6 +57,29 @@ public class GcpStorageService {
         }
     }
 
+    /**
+     * Upload a local file to GCP Cloud Storage, streaming it from disk
+     *
+     * @param fileName Name of the file in the bucket
+     * @param localPath File to upload
+     * @param contentType MIME type of the file (e.g., "image/jpeg")
+     * @return GCS URL of the uploaded file
+     */
+    public String uploadFile(String fileName, Path localPath, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, fileName))
+                .setContentType(contentType)
+                .build();
+        storage().createFrom(blobInfo, localPath);
+        return getGcsUrl(fileName);
+    }
+
+    /**
+     * @return the gs:// URL a file in the bucket is (or will be) stored at
+     */
+    public String getGcsUrl(String fileName) {
+        return String.format("gs://%s/%s", bucketName, fileName);
+    }
+
     /**
      * Download a file from a URL and upload it to GCP Cloud Storage
      *
@@ -111,10 +136,8 @@ public class GcpStorageService {
      */
     public byte[] downloadFile(String fileName) {
         try {
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-
             BlobId blobId = BlobId.of(bucketName, fileName);
-            Blob blob = storage.get(blobId);
+            Blob blob = storage().get(blobId);
 
             if (blob == null) {
                 throw new RuntimeException("File not found in GCS: " + fileName);
@@ -136,10 +159,8 @@ public class GcpStorageService {
      */
     public boolean deleteFile(String fileName) {
         try {
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-
             BlobId blobId = BlobId.of(bucketName, fileName);
-            return storage.delete(blobId);
+            return storage().delete(blobId);
 
         } catch (Exception e) {
             System.err.println("Failed to delete file from GCS: " + e.getMessage());
@@ -155,10 +176,8 @@ public class GcpStorageService {
      */
     public boolean fileExists(String fileName) {
         try {
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-
             BlobId blobId = BlobId.of(bucketName, fileName);
-            Blob blob = storage.get(blobId);
+            Blob blob = storage().get(blobId);
             return blob != null && blob.exists();
 
         } catch (Exception e) {
@@ -175,10 +194,8 @@ public class GcpStorageService {
      */
     public String getSignedUrl(String fileName, int durationMinutes) {
         try {
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-
             BlobId blobId = BlobId.of(bucketName, fileName);
-            Blob blob = storage.get(blobId);
+            Blob blob = storage().get(blobId);
 
             if (blob == null) {
                 throw new RuntimeException("File not found in GCS: " + fileName);
@@ -193,7 +210,11 @@ public class GcpStorageService {
         }
     }
 
-    private String getContentType(String fileName) {
+    private Storage storage() {
+        return storageProvider.getObject();
+    }
+
+    public String getContentType(String fileName) {
         String lowerCase = fileName.toLowerCase();
         if (lowerCase.endsWith(".jpg") || lowerCase.endsWith(".jpeg")) {
             return "image/jpeg";
@@ -0,0 +1,127 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.entity.ImageAssetEntity;
+import com.raidrin.eme.storage.repository.ImageAssetRepository;
+import com.raidrin.eme.util.Hashes;
+import com.raidrin.eme.util.MinHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Index of generated images, used to reuse an existing image instead of paying for
+ * an identical (or near-identical) generation.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageAssetService {
+
+    private final ImageAssetRepository imageAssetRepository;
+    private final BlobUploadQueue blobUploadQueue;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${image.cache.near-candidates:500}")
+    private int nearCandidates;
+
+    /**
+     * Compute the asset key for a generation request. Every input that changes the
+     * generated image is part of the key.
+     */
+    public static String computeAssetKey(String prompt, String model, String size, String quality) {
+        return Hashes.sha256Hex(prompt, model, size, quality);
+    }
+
+    public Optional<ImageAssetEntity> findByAssetKey(String assetKey) {
+        if (assetKey == null || assetKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("Asset key must be provided");
+        }
+        return imageAssetRepository.findByAssetKey(assetKey);
+    }
+
+    /**
+     * Find the most similar indexed prompt for the same model, size and quality.
+     * Only the most recent {@code image.cache.near-candidates} assets are compared.
+     *
+     * @param excludeFileName an image that must not be returned (e.g. the one being regenerated)
+     * @return the best match with similarity at least {@code threshold}
+     */
+    public Optional<NearMatch> findNearest(String prompt, String model, String size, String quality,
+                                           double threshold, String excludeFileName) {
+        int[] signature = MinHash.signature(prompt);
+        NearMatch best = null;
+        for (ImageAssetEntity candidate : imageAssetRepository.findByModelAndSizeAndQualityOrderByCreatedAtDesc(
+                model, size, quality, PageRequest.of(0, nearCandidates))) {
+            if (Objects.equals(candidate.getFileName(), excludeFileName)) {
+                continue;
+            }
+            double similarity = MinHash.similarity(signature, MinHash.decode(candidate.getMinhashSignature()));
+            if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                best = new NearMatch(candidate, similarity);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Record (or refresh) the image backing an asset key. The row is written in its own transaction
+     * so that losing a race with another worker inserting the same key does not mark the caller's
+     * transaction rollback-only; the winner's row is returned instead.
+     */
+    public ImageAssetEntity save(String prompt, String model, String size, String quality,
+                                 String fileName, String thumbnailFileName, long sizeBytes, String gcsUrl) {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("File name must be provided");
+        }
+        String assetKey = computeAssetKey(prompt, model, size, quality);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return transaction.execute(status -> {
+                ImageAssetEntity entity = imageAssetRepository.findByAssetKey(assetKey).orElseGet(ImageAssetEntity::new);
+                entity.setAssetKey(assetKey);
+                entity.setPrompt(prompt);
+                entity.setModel(model);
+                entity.setSize(size);
+                entity.setQuality(quality);
+                entity.setMinhashSignature(MinHash.encode(MinHash.signature(prompt)));
+                entity.setFileName(fileName);
+                entity.setThumbnailFileName(thumbnailFileName);
+                entity.setSizeBytes(sizeBytes);
+                // The upload is queued when the image is stored and may already have finished
+                entity.setGcsUrl(gcsUrl != null ? gcsUrl : blobUploadQueue.findUploadedUrl(fileName).orElse(null));
+                return imageAssetRepository.save(entity);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another worker indexed the same request concurrently; its row is equivalent
+            return imageAssetRepository.findByAssetKey(assetKey).orElseThrow(() -> e);
+        }
+    }
+
+    @Transactional
+    public void recordReuse(Long assetId) {
+        imageAssetRepository.incrementReuseCount(assetId);
+    }
+
+    /**
+     * Record the GCS copy of an image once its queued upload has finished.
+     */
+    @Transactional
+    public void updateGcsUrl(String fileName, String gcsUrl) {
+        imageAssetRepository.updateGcsUrlByFileName(fileName, gcsUrl);
+    }
+
+    /**
+     * An indexed image whose prompt is similar to the requested one.
+     */
+    public record NearMatch(ImageAssetEntity asset, double similarity) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity;
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity.JobStatus;
+import com.raidrin.eme.storage.entity.ImageGenerationJobEntity.JobTier;
+import com.raidrin.eme.storage.repository.ImageGenerationJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persistent queue of image generations. Sessions enqueue jobs and move on;
+ * {@code ImageGenerationWorker} threads claim and run them.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageGenerationJobService {
+
+    private final ImageGenerationJobRepository jobRepository;
+
+    @Value("${image.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${image.jobs.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    /**
+     * Queue a word's first image.
+     *
+     * @param upgradeQuality quality to regenerate the image at once it exists, or null for no upgrade
+     */
+    @Transactional
+    public ImageGenerationJobEntity enqueue(Long sessionId, String word, String sourceLanguage, String targetLanguage,
+                                            String imagePrompt, String sanitizedPrompt, String fileName,
+                                            String size, String quality, String upgradeQuality) {
+        if (word == null || word.trim().isEmpty()) {
+            throw new IllegalArgumentException("Word must be provided");
+        }
+        if (sanitizedPrompt == null || sanitizedPrompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Sanitized prompt must be provided");
+        }
+        ImageGenerationJobEntity job = new ImageGenerationJobEntity();
+        job.setSessionId(sessionId);
+        job.setWord(word);
+        job.setSourceLanguage(sourceLanguage);
+        job.setTargetLanguage(targetLanguage);
+        job.setImagePrompt(imagePrompt);
+        job.setSanitizedPrompt(sanitizedPrompt);
+        job.setFileName(fileName);
+        job.setSize(size);
+        job.setQuality(quality);
+        job.setUpgradeQuality(upgradeQuality);
+        return jobRepository.save(job);
+    }
+
+    /**
+     * Queue the upgrade of a completed preview job's image.
+     *
+     * @param previewFileName the image the upgrade replaces
+     * @param fileName file name for the upgraded image
+     */
+    @Transactional
+    public ImageGenerationJobEntity enqueueUpgrade(ImageGenerationJobEntity preview, String previewFileName,
+                                                   String fileName) {
+        if (preview.getUpgradeQuality() == null) {
+            throw new IllegalArgumentException("Job " + preview.getId() + " has no upgrade quality");
+        }
+        ImageGenerationJobEntity job = new ImageGenerationJobEntity();
+        job.setSessionId(preview.getSessionId());
+        job.setWord(preview.getWord());
+        job.setSourceLanguage(preview.getSourceLanguage());
+        job.setTargetLanguage(preview.getTargetLanguage());
+        job.setImagePrompt(preview.getImagePrompt());
+        job.setSanitizedPrompt(preview.getSanitizedPrompt());
+        job.setFileName(fileName);
+        job.setSize(preview.getSize());
+        job.setQuality(preview.getUpgradeQuality());
+        job.setTier(JobTier.UPGRADE);
+        job.setReplacesFileName(previewFileName);
+        return jobRepository.save(job);
+    }
+
+    /**
+     * Claim up to {@code limit} due jobs of a tier by marking them RUNNING. Concurrent callers never
+     * claim the same job.
+     */
+    @Transactional
+    public List<ImageGenerationJobEntity> claim(JobTier tier, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ImageGenerationJobEntity> jobs = jobRepository.lockDueJobs(tier.name(), now, limit);
+        for (ImageGenerationJobEntity job : jobs) {
+            job.setStatus(JobStatus.RUNNING);
+            job.setStartedAt(now);
+            job.setAttempts(job.getAttempts() + 1);
+        }
+        return jobRepository.saveAll(jobs);
+    }
+
+    @Transactional
+    public void markCompleted(Long jobId) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(JobStatus.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setLastError(null);
+            jobRepository.save(job);
+        });
+    }
+
+    /**
+     * Record a failed attempt; the job is retried with a growing delay until it has used
+     * {@code image.jobs.max-attempts} attempts.
+     *
+     * @return true if the job will be retried, false if it is now FAILED
+     */
+    @Transactional
+    public boolean markFailed(Long jobId, String error) {
+        ImageGenerationJobEntity job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Image generation job not found: " + jobId));
+        job.setLastError(error);
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(JobStatus.FAILED);
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            return false;
+        }
+        job.setStatus(JobStatus.PENDING);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelaySeconds * job.getAttempts()));
+        jobRepository.save(job);
+        return true;
+    }
+
+    /**
+     * Return jobs RUNNING since before {@code startedBefore} to the queue.
+     */
+    @Transactional
+    public int requeueStale(LocalDateTime startedBefore) {
+        return jobRepository.requeueStale(startedBefore, LocalDateTime.now(), JobStatus.PENDING, JobStatus.RUNNING);
+    }
+
+    /**
+     * Number of a session's images that are still queued or being generated.
+     */
+    public long countOutstanding(Long sessionId) {
+        return jobRepository.countBySessionIdAndStatusIn(sessionId, List.of(JobStatus.PENDING, JobStatus.RUNNING));
+    }
+}
@@ -0,0 +1,99 @@
+package com.raidrin.eme.storage.service;
+
+import com.raidrin.eme.storage.entity.MnemonicCacheEntity;
+import com.raidrin.eme.storage.repository.MnemonicCacheRepository;
+import com.raidrin.eme.util.Hashes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Persistent cache of generated mnemonics. An entry is reused while every input of its OpenAI
+ * request is unchanged; entries are dropped when their character guide entry changes or when the
+ * prompt template version changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class MnemonicCacheService {
+
+    private final MnemonicCacheRepository mnemonicCacheRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Compute the cache key of a mnemonic request.
+     *
+     * @param mnemonicKeyword Fixed keyword for keyword-based generation, or null
+     * @param prompt The user prompt sent to OpenAI, so any template change misses the cache too
+     */
+    public static String computeCacheKey(String mnemonicKeyword, String sourceWord, String targetWord,
+                                         String sourceLanguage, String targetLanguage, String transliteration,
+                                         Long characterGuideId, String imageStyle, String templateVersion,
+                                         String prompt) {
+        return Hashes.sha256Hex(mnemonicKeyword, sourceWord, targetWord, sourceLanguage, targetLanguage,
+                transliteration, String.valueOf(characterGuideId), imageStyle, templateVersion, prompt);
+    }
+
+    @Transactional
+    public Optional<MnemonicCacheEntity> findByCacheKey(String cacheKey) {
+        if (cacheKey == null || cacheKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("Cache key must be provided");
+        }
+        Optional<MnemonicCacheEntity> entry = mnemonicCacheRepository.findByCacheKey(cacheKey);
+        entry.ifPresent(e -> mnemonicCacheRepository.incrementHitCount(e.getId()));
+        return entry;
+    }
+
+    /**
+     * Cache (or replace) the mnemonic of a cache key. The row is written in its own transaction so
+     * that losing a race with another request caching the same key does not mark the caller's
+     * transaction rollback-only.
+     */
+    public void save(String cacheKey, String sourceWord, String targetWord, String sourceLanguage,
+                     String targetLanguage, String transliteration, Long characterGuideId, String imageStyle,
+                     String templateVersion, String mnemonicKeyword, String mnemonicSentence, String imagePrompt) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> {
+                MnemonicCacheEntity entity = mnemonicCacheRepository.findByCacheKey(cacheKey).orElseGet(MnemonicCacheEntity::new);
+                entity.setCacheKey(cacheKey);
+                entity.setSourceWord(sourceWord);
+                entity.setTargetWord(targetWord);
+                entity.setSourceLanguage(sourceLanguage);
+                entity.setTargetLanguage(targetLanguage);
+                entity.setTransliteration(transliteration);
+                entity.setCharacterGuideId(characterGuideId);
+                entity.setImageStyle(imageStyle);
+                entity.setTemplateVersion(templateVersion);
+                entity.setMnemonicKeyword(mnemonicKeyword);
+                entity.setMnemonicSentence(mnemonicSentence);
+                entity.setImagePrompt(imagePrompt);
+                mnemonicCacheRepository.save(entity);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request cached the same mnemonic concurrently; keep its entry
+        }
+    }
+
+    /**
+     * Drop the mnemonics generated with a character guide entry.
+     */
+    @Transactional
+    public int invalidateCharacterGuide(Long characterGuideId) {
+        return mnemonicCacheRepository.deleteByCharacterGuideId(characterGuideId);
+    }
+
+    /**
+     * Drop the mnemonics generated with any other prompt template version.
+     */
+    @Transactional
+    public int invalidateOtherTemplateVersions(String templateVersion) {
+        return mnemonicCacheRepository.deleteByTemplateVersionNot(templateVersion);
+    }
+}
@@ -2,10 +2,16 @@ package com.raidrin.eme.storage.service;
 
 import com.raidrin.eme.sentence.SentenceData;
 import com.raidrin.eme.storage.entity.SentenceEntity;
+import com.raidrin.eme.storage.entity.SourceSentenceEntity;
 import com.raidrin.eme.storage.repository.SentenceRepository;
+import com.raidrin.eme.storage.repository.SourceSentenceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -16,6 +22,8 @@ import java.util.stream.Collectors;
 public class SentenceStorageService {
     
     private final SentenceRepository sentenceRepository;
+    private final SourceSentenceRepository sourceSentenceRepository;
+    private final PlatformTransactionManager transactionManager;
     
     public Optional<SentenceData> findSentence(String word, String sourceLanguage, String targetLanguage) {
         validateParameters(word, sourceLanguage, targetLanguage);
@@ -41,9 +49,76 @@ public class SentenceStorageService {
             SentenceEntity entity = sentenceDataToEntity(word, sourceLanguage, targetLanguage, sentenceData);
             sentenceRepository.save(entity);
         }
+
+        // The audio of a shared source sentence is the same for every target language
+        if (sentenceData.getAudioFile() != null) {
+            sourceSentenceRepository.findByWordAndSourceLanguage(word, sourceLanguage)
+                    .filter(source -> source.getSentence().equals(sentenceData.getSourceLanguageSentence()))
+                    .filter(source -> !sentenceData.getAudioFile().equals(source.getAudioFile()))
+                    .ifPresent(source -> {
+                        source.setAudioFile(sentenceData.getAudioFile());
+                        sourceSentenceRepository.save(source);
+                    });
+        }
         
         System.out.println("Saved sentence for: " + word + " (" + sourceLanguage + " -> " + targetLanguage + ")");
     }
+
+    /**
+     * The word's source-language sentence, shared by all target languages. Only the source fields
+     * (romanized word, sentence, its transliteration, structure and audio file) are set.
+     */
+    public Optional<SentenceData> findSourceSentence(String word, String sourceLanguage) {
+        validateParameters(word, sourceLanguage, sourceLanguage);
+        return sourceSentenceRepository.findByWordAndSourceLanguage(word, sourceLanguage)
+                .map(entity -> {
+                    SentenceData data = new SentenceData();
+                    data.setWord(entity.getWord());
+                    data.setSourceLanguage(entity.getSourceLanguage());
+                    data.setTargetLanguageLatinCharacters(entity.getWordRomanized());
+                    data.setSourceLanguageSentence(entity.getSentence());
+                    data.setTargetLanguageTransliteration(entity.getSentenceTransliteration());
+                    data.setSourceLanguageStructure(entity.getWordStructure());
+                    data.setAudioFile(entity.getAudioFile());
+                    return data;
+                });
+    }
+
+    /**
+     * Store the source fields of a generated sentence as the word's shared source sentence.
+     * The audio file is kept only while the sentence text is unchanged. The row is written in its
+     * own transaction; if another session inserts the word's row first, that row is updated instead.
+     */
+    public void saveSourceSentence(String word, String sourceLanguage, SentenceData sentenceData) {
+        validateParameters(word, sourceLanguage, sourceLanguage);
+        if (sentenceData == null || sentenceData.getSourceLanguageSentence() == null
+                || sentenceData.getSourceLanguageSentence().isBlank()) {
+            throw new IllegalArgumentException("Source sentence must be provided");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> storeSourceSentence(word, sourceLanguage, sentenceData));
+        } catch (DataIntegrityViolationException e) {
+            // Another session inserted the word's source sentence concurrently; update its row
+            transaction.executeWithoutResult(status -> storeSourceSentence(word, sourceLanguage, sentenceData));
+        }
+    }
+
+    private void storeSourceSentence(String word, String sourceLanguage, SentenceData sentenceData) {
+        SourceSentenceEntity entity = sourceSentenceRepository.findByWordAndSourceLanguage(word, sourceLanguage)
+                .orElseGet(SourceSentenceEntity::new);
+        if (sentenceData.getAudioFile() != null || !sentenceData.getSourceLanguageSentence().equals(entity.getSentence())) {
+            entity.setAudioFile(sentenceData.getAudioFile());
+        }
+        entity.setWord(word);
+        entity.setSourceLanguage(sourceLanguage);
+        entity.setWordRomanized(sentenceData.getTargetLanguageLatinCharacters());
+        entity.setSentence(sentenceData.getSourceLanguageSentence());
+        entity.setSentenceTransliteration(sentenceData.getTargetLanguageTransliteration());
+        entity.setWordStructure(sentenceData.getSourceLanguageStructure());
+        sourceSentenceRepository.save(entity);
+    }
     
 
     
@@ -262,6 +262,9 @@ public class TranslationSessionService {
         // Image data
         if (wordEntity.getImageFile() != null) {
             wordData.put("image_file", wordEntity.getImageFile());
+            if (wordEntity.getImageThumbnailFile() != null) {
+                wordData.put("image_thumbnail_file", wordEntity.getImageThumbnailFile());
+            }
             wordData.put("image_status", "success");
         }
         if (wordEntity.getImagePrompt() != null) {
@@ -336,6 +339,7 @@ public class TranslationSessionService {
         String mnemonicSentence = (String) wordData.get("mnemonic_sentence");
         String imagePrompt = (String) wordData.get("image_prompt");
         String imageFile = (String) wordData.get("image_file");
+        String imageThumbnailFile = (String) wordData.get("image_thumbnail_file");
 
         if (mnemonicKeyword != null || mnemonicSentence != null || imagePrompt != null) {
             // Check if mnemonic keyword has been manually updated
@@ -352,7 +356,7 @@ public class TranslationSessionService {
         }
 
         if (imageFile != null && "success".equals(wordData.get("image_status"))) {
-            wordService.updateImage(sourceWord, sourceLanguage, targetLanguage, imageFile, imagePrompt);
+            wordService.updateImage(sourceWord, sourceLanguage, targetLanguage, imageFile, imageThumbnailFile, imagePrompt);
         }
     }
 
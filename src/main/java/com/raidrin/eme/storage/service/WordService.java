@@ -80,11 +80,22 @@ public class WordService {
     @Transactional
     public WordEntity updateImage(String word, String sourceLanguage, String targetLanguage,
                                    String imageFile, String imagePrompt) {
+        return updateImage(word, sourceLanguage, targetLanguage, imageFile, null, imagePrompt);
+    }
+
+    /**
+     * Update the image and its thumbnail. A new image file replaces the thumbnail too,
+     * so a stale thumbnail is never shown next to a different image.
+     */
+    @Transactional
+    public WordEntity updateImage(String word, String sourceLanguage, String targetLanguage,
+                                   String imageFile, String imageThumbnailFile, String imagePrompt) {
         validateParameters(word, sourceLanguage, targetLanguage);
 
         WordEntity entity = saveOrUpdateWord(word, sourceLanguage, targetLanguage);
         if (imageFile != null) {
             entity.setImageFile(imageFile);
+            entity.setImageThumbnailFile(imageThumbnailFile);
         }
         if (imagePrompt != null) {
             entity.setImagePrompt(imagePrompt);
@@ -92,6 +103,25 @@ public class WordService {
         return wordRepository.save(entity);
     }
 
+    /**
+     * Atomically replace a word's image with an upgraded version, unless the image was changed
+     * (e.g. regenerated) since {@code expectedImageFile} was shown.
+     *
+     * @return true if the upgraded image was swapped in
+     */
+    @Transactional
+    public boolean swapImage(String word, String sourceLanguage, String targetLanguage, String expectedImageFile,
+                             String imageFile, String imageThumbnailFile) {
+        validateParameters(word, sourceLanguage, targetLanguage);
+        if (expectedImageFile == null || imageFile == null) {
+            throw new IllegalArgumentException("Expected and new image files must be provided");
+        }
+        return wordRepository.findByWordAndSourceLanguageAndTargetLanguage(word, sourceLanguage, targetLanguage)
+            .map(entity -> wordRepository.swapImage(entity.getId(), expectedImageFile, imageFile,
+                imageThumbnailFile, LocalDateTime.now()) == 1)
+            .orElse(false);
+    }
+
     @Transactional
     public WordEntity updateMnemonic(String word, String sourceLanguage, String targetLanguage,
                                       String mnemonicKeyword, String mnemonicSentence, String imagePrompt) {
@@ -137,6 +167,7 @@ public class WordService {
         entity.setImagePrompt(newImagePrompt);
         // Clear the old image file since we're regenerating
         entity.setImageFile(null);
+        entity.setImageThumbnailFile(null);
         return wordRepository.save(entity);
     }
 
@@ -164,6 +195,7 @@ public class WordService {
 
         // Clear the old image file since we're regenerating
         entity.setImageFile(null);
+        entity.setImageThumbnailFile(null);
 
         return wordRepository.save(entity);
     }
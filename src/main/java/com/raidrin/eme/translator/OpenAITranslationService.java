@@ -1,21 +1,16 @@
 package com.raidrin.eme.translator;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.raidrin.eme.openai.OpenAiChatClient;
+import com.raidrin.eme.prompt.PromptTemplates;
+import com.raidrin.eme.prompt.TokenEstimator;
 import com.raidrin.eme.storage.service.TranslationStorageService;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -25,11 +20,13 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class OpenAITranslationService implements TranslationService {
 
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
+    private static final String TRANSLATION_SYSTEM_MESSAGE = "You are a professional translator. Follow the exact format requested. Provide clear transliteration and accurate translations.";
+    private static final int TRANSLATION_MAX_TOKENS = 200;
 
     private final TranslationStorageService translationStorageService;
-    private final RestTemplate restTemplate;
+    private final OpenAiChatClient openAiChatClient;
+    private final PromptTemplates promptTemplates;
+    private final TokenEstimator tokenEstimator;
 
     @Override
     public TranslationData translateText(String text, String sourceLanguage, String targetLanguage) {
@@ -74,54 +71,14 @@ public class OpenAITranslationService implements TranslationService {
     }
 
     private TranslationData performTranslation(String text, String sourceLanguage, String targetLanguage) {
-        String sourceLangName = getLanguageName(sourceLanguage);
-        String targetLangName = getLanguageName(targetLanguage);
-
-        String prompt = String.format(
-                "Translate the following text from %s to %s and provide its romanization/transliteration.\n\n" +
-                "Format your response EXACTLY as follows:\n" +
-                "TRANSLITERATION: [romanized version of the source text]\n" +
-                "TRANSLATIONS:\n" +
-                "[translation 1]\n" +
-                "[translation 2] (if applicable)\n\n" +
-                "Text to translate: %s",
-                sourceLangName, targetLangName, text
-        );
-
-        OpenAiRequest request = new OpenAiRequest();
-        request.setModel("gpt-4o-mini");
-        request.setMessages(List.of(
-                new OpenAiMessage("system", "You are a professional translator. Follow the exact format requested. Provide clear transliteration and accurate translations."),
-                new OpenAiMessage("user", prompt)
-        ));
-        request.setMaxTokens(200);
-        request.setTemperature(0.3);
+        String prompt = buildTranslationPrompt(text, sourceLanguage, targetLanguage);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-
-            HttpEntity<OpenAiRequest> entity = new HttpEntity<>(request, headers);
-
             System.out.println("Making OpenAI API request for translation...");
-            ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    OpenAiResponse.class
-            );
-
-            System.out.println("OpenAI API response status: " + response.getStatusCode());
-
-            if (response.getBody() != null && !response.getBody().getChoices().isEmpty()) {
-                String content = response.getBody().getChoices().get(0).getMessage().getContent();
-                System.out.println("OpenAI translation response: " + content);
-                return parseTranslationDataResponse(content, text, sourceLanguage, targetLanguage);
-            } else {
-                System.out.println("OpenAI response body is null or has no choices");
-                throw new RuntimeException("OpenAI API returned empty response");
-            }
+            String content = openAiChatClient.complete("translation", TRANSLATION_SYSTEM_MESSAGE, prompt,
+                    TRANSLATION_MAX_TOKENS, 0.3, false);
+            System.out.println("OpenAI translation response: " + content);
+            return parseTranslationDataResponse(content, text, sourceLanguage, targetLanguage);
         } catch (Exception e) {
             System.err.println("OpenAI API error: " + e.getMessage());
             e.printStackTrace();
@@ -129,6 +86,20 @@ public class OpenAITranslationService implements TranslationService {
         }
     }
 
+    @Override
+    public int estimateTokens(String text, String sourceLanguage, String targetLanguage) {
+        return tokenEstimator.countChat(TRANSLATION_SYSTEM_MESSAGE,
+                buildTranslationPrompt(text, sourceLanguage, targetLanguage)) + TRANSLATION_MAX_TOKENS;
+    }
+
+    private String buildTranslationPrompt(String text, String sourceLanguage, String targetLanguage) {
+        return promptTemplates.get("translation").render(Map.of(
+                "sourceLanguage", OpenAiChatClient.languageName(sourceLanguage),
+                "targetLanguage", OpenAiChatClient.languageName(targetLanguage),
+                "text", text
+        ));
+    }
+
     private TranslationData parseTranslationDataResponse(String response, String originalText,
                                                          String sourceLanguage, String targetLanguage) {
         TranslationData data = new TranslationData();
@@ -223,123 +194,21 @@ public class OpenAITranslationService implements TranslationService {
 
         System.out.println("Getting transliteration from OpenAI for: " + text + " (" + sourceLanguage + ")");
 
-        String sourceLangName = getLanguageName(sourceLanguage);
-
-        String prompt = String.format(
-                "Provide ONLY the romanization/transliteration of the following %s text. " +
-                "Return ONLY the romanized text with no additional explanation or formatting.\n\n" +
-                "Text: %s",
-                sourceLangName, text
-        );
-
-        OpenAiRequest request = new OpenAiRequest();
-        request.setModel("gpt-4o-mini");
-        request.setMessages(List.of(
-                new OpenAiMessage("system", "You are a transliteration expert. Provide only the romanized version of the text, nothing else."),
-                new OpenAiMessage("user", prompt)
+        String prompt = promptTemplates.get("transliteration").render(Map.of(
+                "sourceLanguage", OpenAiChatClient.languageName(sourceLanguage),
+                "text", text
         ));
-        request.setMaxTokens(100);
-        request.setTemperature(0.3);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + openAiApiKey);
-            headers.set("Content-Type", "application/json");
-
-            HttpEntity<OpenAiRequest> entity = new HttpEntity<>(request, headers);
-
-            ResponseEntity<OpenAiResponse> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    OpenAiResponse.class
-            );
-
-            if (response.getBody() != null && !response.getBody().getChoices().isEmpty()) {
-                String transliteration = response.getBody().getChoices().get(0).getMessage().getContent().trim();
-                System.out.println("Transliteration from OpenAI: " + transliteration);
-                return transliteration;
-            } else {
-                throw new RuntimeException("OpenAI API returned empty response");
-            }
+            String transliteration = openAiChatClient.complete("transliteration",
+                    "You are a transliteration expert. Provide only the romanized version of the text, nothing else.",
+                    prompt, 100, 0.3, false).trim();
+            System.out.println("Transliteration from OpenAI: " + transliteration);
+            return transliteration;
         } catch (Exception e) {
             System.err.println("Failed to get transliteration from OpenAI: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Failed to get transliteration: " + e.getMessage(), e);
         }
     }
-
-    private String getLanguageName(String lang) {
-        switch (lang) {
-            case "en" -> {
-                return "English";
-            }
-            case "es" -> {
-                return "Spanish";
-            }
-            case "fr" -> {
-                return "French";
-            }
-            case "cafr" -> {
-                return "Canadian French";
-            }
-            case "kr" -> {
-                return "Korean";
-            }
-            case "jp" -> {
-                return "Japanese";
-            }
-            case "hi" -> {
-                return "Hindi";
-            }
-            case "pa" -> {
-                return "Punjabi";
-            }
-            case "tl" -> {
-                return "Tagalog";
-            }
-            default -> {
-                return "English";
-            }
-        }
-    }
-
-    @Data
-    private static class OpenAiRequest {
-        private String model;
-        private List<OpenAiMessage> messages;
-        @JsonProperty("max_tokens")
-        private Integer maxTokens;
-        private Double temperature;
-    }
-
-    @Data
-    private static class OpenAiMessage {
-        private String role;
-        private String content;
-
-        public OpenAiMessage() {
-        }
-
-        public OpenAiMessage(String role, String content) {
-            this.role = role;
-            this.content = content;
-        }
-    }
-
-    @Data
-    private static class OpenAiResponse {
-        private List<OpenAiChoice> choices;
-
-        public OpenAiResponse() {
-        }
-    }
-
-    @Data
-    private static class OpenAiChoice {
-        private OpenAiMessage message;
-
-        public OpenAiChoice() {
-        }
-    }
 }
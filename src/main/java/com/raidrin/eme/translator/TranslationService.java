@@ -32,4 +32,12 @@ public interface TranslationService {
      * @return The transliteration/romanization of the word
      */
     String getTransliteration(String text, String sourceLanguage);
+
+    /**
+     * Estimated LLM tokens (prompt and completion) of translating the text; 0 for services that
+     * are not billed by token
+     */
+    default int estimateTokens(String text, String sourceLanguage, String targetLanguage) {
+        return 0;
+    }
 }
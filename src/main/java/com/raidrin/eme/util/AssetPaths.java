@@ -0,0 +1,63 @@
+package com.raidrin.eme.util;
+
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed asset names and their sharded location on disk.
+ * A name is a readable prefix followed by the first {@value #HASH_LENGTH} hex characters of the
+ * SHA-256 of the inputs that produced the asset, e.g. {@code namaste_3fa4c1d29b07e85a.mp3};
+ * variants add suffixes ({@code _thumb}, {@code _medium}, {@code _medium_thumb}). Names stay flat (URLs, blob keys and
+ * Anki media use them as is) while the file lives two directory levels down, {@code root/3f/a4/name},
+ * so no directory grows beyond a few hundred entries. Names without a hash (from before this scheme)
+ * resolve directly under the root.
+ */
+public class AssetPaths {
+
+    public static final int HASH_LENGTH = 16;
+
+    private static final Pattern HASHED_NAME = Pattern.compile(
+            ".*_([0-9a-f]{" + HASH_LENGTH + "})(?:_[A-Za-z0-9]+){0,2}(?:\\.[A-Za-z0-9]+)?");
+
+    /**
+     * Build a content-addressed name (without extension).
+     *
+     * @param readablePrefix File-name safe prefix for humans
+     * @param inputs Everything that determines the asset's content
+     */
+    public static String contentAddressedName(String readablePrefix, String... inputs) {
+        return readablePrefix + "_" + Hashes.sha256Hex(inputs).substring(0, HASH_LENGTH);
+    }
+
+    /**
+     * Name of a variant of an asset, e.g. {@code cat_3fa4c1d29b07e85a.jpg} with suffix {@code _medium}
+     * becomes {@code cat_3fa4c1d29b07e85a_medium.jpg}. Variants are stored next to their asset.
+     */
+    public static String variantName(String fileName, String suffix) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = dot > 0 ? fileName.substring(dot) : "";
+        return base + suffix + extension;
+    }
+
+    /**
+     * Whether a name ends in a {@value #HASH_LENGTH}-character hex hash, optionally followed by up to two
+     * variant suffixes and an extension.
+     */
+    public static boolean isContentAddressed(String fileName) {
+        return fileName != null && HASHED_NAME.matcher(fileName).matches();
+    }
+
+    /**
+     * Local path of an asset under its directory: sharded for content-addressed names, flat otherwise.
+     */
+    public static Path resolve(Path root, String fileName) {
+        Matcher matcher = HASHED_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return root.resolve(fileName);
+        }
+        String hash = matcher.group(1);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(fileName);
+    }
+}
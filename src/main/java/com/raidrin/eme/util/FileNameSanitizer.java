@@ -67,11 +67,21 @@ public class FileNameSanitizer {
     }
 
     /**
-     * Create a filename from a mnemonic sentence with timestamp for uniqueness
+     * Create a content-addressed filename from a mnemonic sentence: the sanitized sentence followed by
+     * a hash of the sentence and the other generation inputs (see {@link AssetPaths}).
+     *
+     * @param inputs Whatever else determines the image (prompt, word, size, ...)
      */
-    public static String fromMnemonicSentence(String sentence, String extension) {
+    public static String fromMnemonicSentence(String sentence, String extension, String... inputs) {
         String baseName = sanitize(sentence, "").replaceAll("\\.$", ""); // Remove trailing dot if any
-        return baseName + "_" + System.currentTimeMillis() + "." + extension;
+        if (baseName.startsWith("unnamed_")) {
+            // Nothing readable survived sanitizing; keep the name deterministic
+            baseName = "image";
+        }
+        String[] hashInputs = new String[inputs.length + 1];
+        hashInputs[0] = sentence;
+        System.arraycopy(inputs, 0, hashInputs, 1, inputs.length);
+        return AssetPaths.contentAddressedName(baseName, hashInputs) + "." + extension;
     }
 
     /**
@@ -0,0 +1,33 @@
+package com.raidrin.eme.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hashes used for asset keys, cache keys and content-addressed names.
+ */
+public class Hashes {
+
+    /**
+     * SHA-256 over the given parts, hex encoded. Parts are separated by a NUL character
+     * so ("ab", "c") and ("a", "bc") hash differently; null parts are treated as empty.
+     */
+    public static String sha256Hex(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) {
+                    digest.update((byte) 0);
+                }
+                if (parts[i] != null) {
+                    digest.update(parts[i].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
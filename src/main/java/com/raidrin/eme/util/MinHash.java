@@ -0,0 +1,96 @@
+package com.raidrin.eme.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MinHash signatures for estimating the similarity of two prompts without an API call.
+ * Prompts are normalized (lowercase, punctuation dropped, common stopwords removed) and split
+ * into word and word-pair shingles; the fraction of equal signature slots estimates the
+ * Jaccard similarity of the two shingle sets.
+ */
+public final class MinHash {
+
+    public static final int SIGNATURE_SIZE = 128;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "and", "or", "of", "in", "on", "at", "to", "with", "is", "are", "its", "it");
+
+    private MinHash() {
+    }
+
+    public static int[] signature(String text) {
+        Set<String> shingles = shingles(text);
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles) {
+            int base = shingle.hashCode();
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int hash = mix(base ^ (i * 0x9E3779B9));
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity in [0, 1].
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Signatures must have the same size");
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    public static String encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * 4);
+        buffer.asIntBuffer().put(signature);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    public static int[] decode(String encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        int[] signature = new int[buffer.remaining() / 4];
+        buffer.asIntBuffer().get(signature);
+        return signature;
+    }
+
+    static Set<String> shingles(String text) {
+        String[] tokens = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty() && !STOPWORDS.contains(token))
+                .toArray(String[]::new);
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i < tokens.length; i++) {
+            shingles.add(tokens[i]);
+            if (i + 1 < tokens.length) {
+                shingles.add(tokens[i] + " " + tokens[i + 1]);
+            }
+        }
+        return shingles;
+    }
+
+    /**
+     * MurmurHash3 finalizer; spreads a seeded hash so each slot behaves like an independent hash function.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,203 @@
+package com.raidrin.eme.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects requests made concurrently by many threads and hands them to one batch call, so that a
+ * single OpenAI request serves many words. A batch is sent when it holds {@code batchSize} requests,
+ * when its estimated tokens reach {@code maxTokens} (if positive) or {@code lingerMs} after its first
+ * request. Requests the batch call returns no result for are optionally re-requested once in a batch
+ * of their own and then generated one by one.
+ *
+ * @param <R> request type
+ * @param <T> result type
+ */
+public class RequestBatcher<R, T> {
+
+    /**
+     * The calls a batcher makes.
+     */
+    public interface Handler<R, T> {
+
+        /**
+         * Results of a batch by the index of their request; requests without a result are retried.
+         */
+        Map<Integer, T> generateBatch(List<R> requests);
+
+        T generateSingle(R request);
+
+        /**
+         * Estimated prompt tokens one request adds to a batch.
+         */
+        default int estimateTokens(R request) {
+            return 0;
+        }
+    }
+
+    private final String name;
+    private final Handler<R, T> handler;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxTokens;
+    private final int baseTokens;
+    private final boolean retryMissing;
+    private final List<Pending<R, T>> pending = new ArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private ScheduledFuture<?> scheduledFlush;
+    private int pendingTokens;
+
+    /**
+     * @param name Thread name prefix and log label
+     * @param maxTokens Token limit of a batch, or 0 for none
+     * @param baseTokens Estimated tokens of a batch request without any items
+     * @param retryMissing Whether requests missing from a partial response are re-requested in a batch once
+     */
+    public RequestBatcher(String name, Handler<R, T> handler, int batchSize, long lingerMs,
+                          int maxTokens, int baseTokens, boolean retryMissing) {
+        this.name = name;
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxTokens = maxTokens;
+        this.baseTokens = baseTokens;
+        this.retryMissing = retryMissing;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Send what is waiting and stop accepting work.
+     */
+    public void stop() {
+        flush();
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    /**
+     * Generate a result, waiting for the batch the request joins. Errors are those of
+     * {@link Handler#generateSingle}.
+     */
+    public T generate(R request) {
+        if (batchSize <= 1) {
+            return handler.generateSingle(request);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        int tokens = maxTokens > 0 ? handler.estimateTokens(request) : 0;
+        synchronized (pending) {
+            // Send the waiting requests first if this one would push the batch over its token limit
+            if (maxTokens > 0 && !pending.isEmpty() && baseTokens + pendingTokens + tokens > maxTokens) {
+                sendPending();
+            }
+            pending.add(new Pending<>(request, future));
+            pendingTokens += tokens;
+            if (pending.size() >= batchSize || (maxTokens > 0 && baseTokens + pendingTokens >= maxTokens)) {
+                sendPending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void flush() {
+        List<Pending<R, T>> batch;
+        synchronized (pending) {
+            scheduledFlush = null;
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            executor.execute(() -> process(batch));
+        }
+    }
+
+    /**
+     * Send the waiting requests now; called with the lock held.
+     */
+    private void sendPending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Pending<R, T>> batch = drain();
+        executor.execute(() -> process(batch));
+    }
+
+    private List<Pending<R, T>> drain() {
+        List<Pending<R, T>> batch = new ArrayList<>(pending);
+        pending.clear();
+        pendingTokens = 0;
+        return batch;
+    }
+
+    private void process(List<Pending<R, T>> batch) {
+        List<Pending<R, T>> missing = batch;
+        if (batch.size() > 1) {
+            missing = requestBatch(batch);
+            if (retryMissing && !missing.isEmpty() && missing.size() < batch.size()) {
+                System.out.println("Re-requesting " + missing.size() + " of " + batch.size() + " batched " + name + " requests");
+                missing = requestBatch(missing);
+            }
+        }
+        for (Pending<R, T> item : missing) {
+            executor.execute(() -> {
+                try {
+                    item.future().complete(handler.generateSingle(item.request()));
+                } catch (Exception e) {
+                    item.future().completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the requests that got no result
+     */
+    private List<Pending<R, T>> requestBatch(List<Pending<R, T>> batch) {
+        Map<Integer, T> results;
+        try {
+            results = handler.generateBatch(batch.stream().map(Pending::request).toList());
+        } catch (Exception e) {
+            System.err.println("Batch of " + batch.size() + " " + name + " requests failed: " + e.getMessage());
+            return batch;
+        }
+        List<Pending<R, T>> missing = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            T result = results.get(i);
+            if (result != null) {
+                batch.get(i).future().complete(result);
+            } else {
+                missing.add(batch.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private record Pending<R, T>(R request, CompletableFuture<T> future) {
+    }
+}
@@ -1,6 +1,9 @@
 package com.raidrin.eme.util;
 
+import com.raidrin.eme.storage.blob.LocalAssetCache;
+import com.raidrin.eme.storage.entity.BlobUploadJobEntity;
 import com.raidrin.eme.storage.entity.TranslationSessionEntity;
+import com.raidrin.eme.storage.service.BlobUploadQueue;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +24,12 @@ import java.util.zip.ZipOutputStream;
 @Component
 public class ZipFileGenerator {
 
+    private final BlobUploadQueue blobUploadQueue;
+    private final LocalAssetCache localAssetCache;
+
+    @Value("${zip.upload.enabled:false}")
+    private boolean uploadZips;
+
     @Value("${zip.output.directory:./session_zips}")
     private String zipOutputDirectory;
 
@@ -30,6 +39,11 @@ public class ZipFileGenerator {
     @Value("${audio.output.directory:./generated_audio}")
     private String audioOutputDirectory;
 
+    public ZipFileGenerator(BlobUploadQueue blobUploadQueue, LocalAssetCache localAssetCache) {
+        this.blobUploadQueue = blobUploadQueue;
+        this.localAssetCache = localAssetCache;
+    }
+
     /**
      * Create a ZIP file containing all assets for a translation session
      *
@@ -38,6 +52,17 @@ public class ZipFileGenerator {
      * @return Path to the created ZIP file
      */
     public String createSessionZip(TranslationSessionEntity session, Map<String, Object> sessionData) throws IOException {
+        // Assets fetched into the local asset cache stay pinned until they are zipped
+        List<String> pinnedKeys = new ArrayList<>();
+        try {
+            return buildSessionZip(session, sessionData, pinnedKeys);
+        } finally {
+            pinnedKeys.forEach(localAssetCache::unpin);
+        }
+    }
+
+    private String buildSessionZip(TranslationSessionEntity session, Map<String, Object> sessionData,
+                                   List<String> pinnedKeys) throws IOException {
         // Create output directory if it doesn't exist
         Path zipDir = Paths.get(zipOutputDirectory);
         if (!Files.exists(zipDir)) {
@@ -61,8 +86,8 @@ public class ZipFileGenerator {
             System.out.println("Found " + audioFiles.size() + " audio files in top-level audio_files array");
             for (Object audioFile : audioFiles) {
                 if (audioFile instanceof String) {
-                    Path audioPath = Paths.get((String) audioFile);
-                    if (Files.exists(audioPath)) {
+                    Path audioPath = locateAudio(Paths.get((String) audioFile), pinnedKeys);
+                    if (audioPath != null) {
                         String absolutePath = audioPath.toAbsolutePath().toString();
                         if (!addedFiles.contains(absolutePath)) {
                             filesToZip.add(audioPath);
@@ -70,7 +95,7 @@ public class ZipFileGenerator {
                             System.out.println("Adding top-level audio file to ZIP: " + audioPath);
                         }
                     } else {
-                        System.err.println("Top-level audio file not found: " + audioPath);
+                        System.err.println("Top-level audio file not found: " + audioFile);
                     }
                 }
             }
@@ -91,8 +116,8 @@ public class ZipFileGenerator {
                     // Add source audio file
                     String sourceAudioFile = (String) wordData.get("source_audio_file");
                     if (sourceAudioFile != null) {
-                        Path audioPath = resolveAudioPath(sourceAudioFile);
-                        if (audioPath != null && Files.exists(audioPath)) {
+                        Path audioPath = locateAudio(resolveAudioPath(sourceAudioFile), pinnedKeys);
+                        if (audioPath != null) {
                             String absolutePath = audioPath.toAbsolutePath().toString();
                             if (!addedFiles.contains(absolutePath)) {
                                 filesToZip.add(audioPath);
@@ -100,7 +125,7 @@ public class ZipFileGenerator {
                                 System.out.println("Adding source audio for '" + sourceWord + "': " + audioPath);
                             }
                         } else {
-                            System.err.println("Source audio file not found for '" + sourceWord + "': " + sourceAudioFile + " -> " + audioPath);
+                            System.err.println("Source audio file not found for '" + sourceWord + "': " + sourceAudioFile);
                         }
                     }
 
@@ -110,8 +135,8 @@ public class ZipFileGenerator {
                         for (Object audioFileObj : targetAudioFiles) {
                             if (audioFileObj instanceof String) {
                                 String targetAudioFile = (String) audioFileObj;
-                                Path audioPath = resolveAudioPath(targetAudioFile);
-                                if (audioPath != null && Files.exists(audioPath)) {
+                                Path audioPath = locateAudio(resolveAudioPath(targetAudioFile), pinnedKeys);
+                                if (audioPath != null) {
                                     String absolutePath = audioPath.toAbsolutePath().toString();
                                     if (!addedFiles.contains(absolutePath)) {
                                         filesToZip.add(audioPath);
@@ -119,7 +144,7 @@ public class ZipFileGenerator {
                                         System.out.println("Adding target audio for '" + sourceWord + "': " + audioPath);
                                     }
                                 } else {
-                                    System.err.println("Target audio file not found for '" + sourceWord + "': " + targetAudioFile + " -> " + audioPath);
+                                    System.err.println("Target audio file not found for '" + sourceWord + "': " + targetAudioFile);
                                 }
                             }
                         }
@@ -128,8 +153,8 @@ public class ZipFileGenerator {
                     // Add image file
                     String imageLocalPath = (String) wordData.get("image_local_path");
                     if (imageLocalPath != null) {
-                        Path imgPath = Paths.get(imageLocalPath);
-                        if (Files.exists(imgPath)) {
+                        Path imgPath = locateImage(Paths.get(imageLocalPath), pinnedKeys);
+                        if (imgPath != null) {
                             String absolutePath = imgPath.toAbsolutePath().toString();
                             if (!addedFiles.contains(absolutePath)) {
                                 filesToZip.add(imgPath);
@@ -147,8 +172,8 @@ public class ZipFileGenerator {
         // Legacy: Add single image file (for backward compatibility)
         String imageFile = (String) sessionData.get("image_file");
         if (imageFile != null) {
-            Path imagePath = Paths.get(imageOutputDirectory, imageFile);
-            if (Files.exists(imagePath)) {
+            Path imagePath = locateImage(AssetPaths.resolve(Paths.get(imageOutputDirectory), imageFile), pinnedKeys);
+            if (imagePath != null) {
                 filesToZip.add(imagePath);
             }
         }
@@ -161,8 +186,8 @@ public class ZipFileGenerator {
                     Map<?, ?> imageMap = (Map<?, ?>) imgData;
                     String localPath = (String) imageMap.get("local_path");
                     if (localPath != null) {
-                        Path imgPath = Paths.get(localPath);
-                        if (Files.exists(imgPath)) {
+                        Path imgPath = locateImage(Paths.get(localPath), pinnedKeys);
+                        if (imgPath != null) {
                             filesToZip.add(imgPath);
                         }
                     }
@@ -195,6 +220,16 @@ public class ZipFileGenerator {
         }
 
         System.out.println("Created ZIP file: " + zipFilePath);
+
+        if (uploadZips) {
+            try {
+                // Large ZIPs are sent to the blob store as multipart uploads by the upload workers
+                blobUploadQueue.enqueue("session_zips/" + zipFileName, zipFilePath, "application/zip",
+                        BlobUploadJobEntity.AssetType.OTHER, null);
+            } catch (Exception e) {
+                System.err.println("Failed to queue upload of ZIP " + zipFileName + ": " + e.getMessage());
+            }
+        }
         return zipFilePath.toString();
     }
 
@@ -322,6 +357,25 @@ public class ZipFileGenerator {
         return metadataPath;
     }
 
+    /**
+     * @return the image on local disk, fetching it through the asset cache if it is only in the blob store;
+     * null if it cannot be found
+     */
+    private Path locateImage(Path localPath, List<String> pinnedKeys) {
+        String blobKey = localPath.getFileName().toString();
+        pinnedKeys.add(blobKey);
+        return localAssetCache.getPinned(localPath, blobKey).orElse(null);
+    }
+
+    private Path locateAudio(Path localPath, List<String> pinnedKeys) {
+        if (localPath == null) {
+            return null;
+        }
+        String blobKey = "audio/" + localPath.getFileName();
+        pinnedKeys.add(blobKey);
+        return localAssetCache.getPinned(localPath, blobKey).orElse(null);
+    }
+
     /**
      * Resolve audio file path - handles both full paths and filenames
      *
@@ -348,7 +402,6 @@ public class ZipFileGenerator {
         }
 
         // Otherwise, assume it's just a filename and prepend the audio output directory
-        Path audioPath = Paths.get(audioOutputDirectory, audioFile);
-        return audioPath;
+        return AssetPaths.resolve(Paths.get(audioOutputDirectory), audioFile);
     }
 }
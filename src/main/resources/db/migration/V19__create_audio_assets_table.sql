@@ -0,0 +1,20 @@
+-- Create audio_assets table: content-addressed index of synthesized audio.
+-- asset_key is the SHA-256 of (text, language code, voice name, gender, encoding)
+-- so identical synthesis requests are served from an existing file across sessions.
+CREATE TABLE audio_assets (
+    id BIGSERIAL PRIMARY KEY,
+    asset_key VARCHAR(64) NOT NULL,
+    text TEXT NOT NULL,
+    language_code VARCHAR(20) NOT NULL,
+    voice_name VARCHAR(100),
+    voice_gender VARCHAR(20),
+    audio_encoding VARCHAR(20) NOT NULL,
+    file_name VARCHAR(500) NOT NULL,
+    size_bytes BIGINT,
+    gcs_url VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(asset_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_audio_assets_file_name ON audio_assets(file_name);
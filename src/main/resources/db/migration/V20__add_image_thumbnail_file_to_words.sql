@@ -0,0 +1,2 @@
+-- Thumbnail variant of the word image, shown on list pages
+ALTER TABLE words ADD COLUMN IF NOT EXISTS image_thumbnail_file TEXT;
@@ -0,0 +1,23 @@
+-- Create image_assets table: index of generated images.
+-- asset_key is the SHA-256 of (sanitized prompt, model, size, quality) so an identical
+-- generation can be served from an existing file; minhash_signature allows near-duplicate
+-- prompts to be matched locally.
+CREATE TABLE image_assets (
+    id BIGSERIAL PRIMARY KEY,
+    asset_key VARCHAR(64) NOT NULL,
+    prompt TEXT NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    size VARCHAR(20) NOT NULL,
+    quality VARCHAR(20) NOT NULL,
+    minhash_signature TEXT NOT NULL,
+    file_name VARCHAR(500) NOT NULL,
+    thumbnail_file_name VARCHAR(500),
+    size_bytes BIGINT,
+    gcs_url VARCHAR(1000),
+    reuse_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(asset_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_assets_model_size_quality ON image_assets(model, size, quality);
@@ -0,0 +1,26 @@
+-- Create image_generation_jobs table: persistent queue of image generations.
+-- Sessions enqueue a job per word and finish without waiting; workers claim PENDING jobs
+-- with FOR UPDATE SKIP LOCKED, generate the image and update the word's image_status.
+CREATE TABLE image_generation_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    session_id BIGINT,
+    word TEXT NOT NULL,
+    source_language VARCHAR(10) NOT NULL,
+    target_language VARCHAR(10) NOT NULL,
+    image_prompt TEXT NOT NULL,
+    sanitized_prompt TEXT NOT NULL,
+    file_name VARCHAR(500) NOT NULL,
+    size VARCHAR(20) NOT NULL,
+    quality VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_generation_jobs_status_next ON image_generation_jobs(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_image_generation_jobs_session_id ON image_generation_jobs(session_id);
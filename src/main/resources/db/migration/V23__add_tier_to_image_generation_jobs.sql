@@ -0,0 +1,9 @@
+-- Progressive image quality: PREVIEW jobs produce the first (low quality) image for a word and,
+-- when upgrade_quality is set, queue an UPGRADE job that regenerates it at that quality and swaps it in
+-- if the word still shows replaces_file_name.
+ALTER TABLE image_generation_jobs ADD COLUMN tier VARCHAR(20) NOT NULL DEFAULT 'PREVIEW';
+ALTER TABLE image_generation_jobs ADD COLUMN upgrade_quality VARCHAR(20);
+ALTER TABLE image_generation_jobs ADD COLUMN replaces_file_name VARCHAR(500);
+
+DROP INDEX IF EXISTS idx_image_generation_jobs_status_next;
+CREATE INDEX IF NOT EXISTS idx_image_generation_jobs_status_tier_next ON image_generation_jobs(status, tier, next_attempt_at);
@@ -0,0 +1,23 @@
+-- Create blob_upload_jobs table: write-behind queue of uploads from local files to GCS.
+-- Assets are complete once written locally; workers upload them with retries and then
+-- fill in the asset's gcs_url (asset_type/asset_key identify which asset row to update).
+CREATE TABLE blob_upload_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    object_name VARCHAR(1000) NOT NULL,
+    local_path TEXT NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    asset_type VARCHAR(20) NOT NULL,
+    asset_key VARCHAR(500),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    gcs_url VARCHAR(1000),
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_blob_upload_jobs_status_next ON blob_upload_jobs(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_blob_upload_jobs_object_name ON blob_upload_jobs(object_name);
@@ -0,0 +1,25 @@
+-- Create mnemonic_cache table: generated mnemonics reused while their inputs are unchanged.
+-- cache_key is the SHA-256 of (keyword, source word, translation, languages, transliteration,
+-- character guide id, image style, prompt template version, prompt). Entries of a character
+-- guide entry are removed when the entry changes or is deleted.
+CREATE TABLE mnemonic_cache (
+    id BIGSERIAL PRIMARY KEY,
+    cache_key VARCHAR(64) NOT NULL,
+    source_word TEXT NOT NULL,
+    target_word TEXT NOT NULL,
+    source_language VARCHAR(10) NOT NULL,
+    target_language VARCHAR(10) NOT NULL,
+    transliteration TEXT,
+    character_guide_id BIGINT REFERENCES character_guide(id) ON DELETE CASCADE,
+    image_style VARCHAR(50) NOT NULL,
+    template_version VARCHAR(20) NOT NULL,
+    mnemonic_keyword TEXT,
+    mnemonic_sentence TEXT,
+    image_prompt TEXT,
+    hit_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(cache_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mnemonic_cache_character_guide ON mnemonic_cache(character_guide_id);
@@ -0,0 +1,25 @@
+-- Create source_sentences table: a word's example sentence in its own language, shared by every
+-- target language. Per-target rows in sentences keep a copy together with their translation.
+CREATE TABLE source_sentences (
+    id BIGSERIAL PRIMARY KEY,
+    word TEXT NOT NULL,
+    source_language VARCHAR(10) NOT NULL,
+    word_romanized TEXT,
+    sentence TEXT NOT NULL,
+    sentence_transliteration TEXT,
+    word_structure TEXT,
+    audio_file TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(word, source_language)
+);
+
+-- Reuse the most recent existing sentence of each word
+INSERT INTO source_sentences (word, source_language, word_romanized, sentence, sentence_transliteration,
+                              word_structure, audio_file, created_at, updated_at)
+SELECT DISTINCT ON (word, source_language)
+       word, source_language, word_romanized, sentence_source, sentence_transliteration,
+       word_structure, audio_file, COALESCE(created_at, CURRENT_TIMESTAMP), COALESCE(updated_at, CURRENT_TIMESTAMP)
+FROM sentences
+WHERE sentence_source IS NOT NULL AND sentence_source <> ''
+ORDER BY word, source_language, updated_at DESC NULLS LAST;
@@ -0,0 +1,3 @@
+-- audio_encoding holds the full output format, including the sample rate and the silence trim settings
+-- (e.g. MP3@24000+trim100p10), which no longer fits in 20 characters.
+ALTER TABLE audio_assets ALTER COLUMN audio_encoding TYPE VARCHAR(64);
@@ -0,0 +1,95 @@
+package com.raidrin.eme.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Mp3Frames to verify frame parsing and time-based slicing
+ * on synthetic MPEG-2 Layer III streams (24 kHz, 32 kbps, mono: 96-byte, 24 ms frames).
+ */
+class Mp3FramesTest {
+
+    private static final int FRAME_LENGTH = 96;
+    private static final double FRAME_SECONDS = 576.0 / 24000;
+
+    @Test
+    void testParseFrames() {
+        Mp3Frames frames = Mp3Frames.parse(stream(50));
+        assertEquals(50, frames.getFrames().size());
+        assertEquals(50 * FRAME_SECONDS, frames.getDurationSeconds(), 1e-9);
+    }
+
+    @Test
+    void testAdjacentSlicesCoverStreamExactlyOnce() {
+        Mp3Frames frames = Mp3Frames.parse(stream(50));
+        byte[] first = frames.slice(0, 0.48);
+        byte[] second = frames.slice(0.48, frames.getDurationSeconds());
+        assertEquals(20 * FRAME_LENGTH, first.length);
+        assertEquals(30 * FRAME_LENGTH, second.length);
+    }
+
+    @Test
+    void testSliceCutInsideFrameUsesMidpoint() {
+        Mp3Frames frames = Mp3Frames.parse(stream(10));
+        // 0.030s lands in frame 1 (0.024-0.048) before its midpoint, so frame 1 belongs to the second slice
+        assertEquals(FRAME_LENGTH, frames.slice(0, 0.030).length);
+        assertEquals(9 * FRAME_LENGTH, frames.slice(0.030, 1).length);
+    }
+
+    @Test
+    void testSkipsId3TagAndGarbage() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 0, 5});
+        out.writeBytes(new byte[]{1, 2, 3, 4, 5});
+        out.writeBytes(new byte[]{0x00, 0x11});
+        out.writeBytes(stream(3));
+        Mp3Frames frames = Mp3Frames.parse(out.toByteArray());
+        assertEquals(3, frames.getFrames().size());
+        assertEquals(17, frames.getFrames().get(0).offset());
+    }
+
+    @Test
+    void testSliceKeepsFramesHoldingBitReservoir() {
+        byte[] data = stream(10);
+        // Frame 5 starts its audio data 100 bytes back; frames hold 96 - 4 - 9 = 83 bytes each
+        data[5 * FRAME_LENGTH + 4] = (byte) 100;
+        Mp3Frames frames = Mp3Frames.parse(data);
+        assertEquals(100, frames.mainDataBegin(5));
+        assertEquals(7 * FRAME_LENGTH, frames.slice(5 * FRAME_SECONDS, 1).length);
+        assertEquals(5 * FRAME_LENGTH, frames.slice(0, 5 * FRAME_SECONDS).length);
+    }
+
+    @Test
+    void testCodedBitsReadsPart23Length() {
+        byte[] data = stream(2);
+        // Second frame: MPEG-2 mono side info starts after the 4-byte header with
+        // main_data_begin (8 bits) and private_bits (1 bit), then part2_3_length (12 bits) = 0x7FF
+        int sideInfo = FRAME_LENGTH + 4;
+        data[sideInfo + 1] = (byte) 0x3F;
+        data[sideInfo + 2] = (byte) 0xF8;
+        Mp3Frames frames = Mp3Frames.parse(data);
+        assertEquals(0, frames.codedBits(0));
+        assertEquals(0x7FF, frames.codedBits(1));
+    }
+
+    @Test
+    void testRejectsNonMp3() {
+        assertThrows(IllegalArgumentException.class, () -> Mp3Frames.parse(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    private static byte[] stream(int frameCount) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < frameCount; i++) {
+            byte[] frame = new byte[FRAME_LENGTH];
+            frame[0] = (byte) 0xFF;
+            frame[1] = (byte) 0xF3;
+            frame[2] = (byte) 0x44;
+            frame[3] = (byte) 0xC0;
+            out.writeBytes(frame);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,35 @@
+package com.raidrin.eme.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteImagesTest {
+
+    private static final List<String> HOSTS = List.of("cdn.leonardo.ai");
+
+    @Test
+    void allowsHttpsOnListedHosts() {
+        assertTrue(RemoteImages.isAllowed("https://cdn.leonardo.ai/users/1/generations/2/image.jpg", HOSTS));
+        assertTrue(RemoteImages.isAllowed("https://CDN.leonardo.ai/image.jpg", HOSTS));
+    }
+
+    @Test
+    void rejectsOtherSchemesAndHosts() {
+        assertFalse(RemoteImages.isAllowed("http://cdn.leonardo.ai/image.jpg", HOSTS));
+        assertFalse(RemoteImages.isAllowed("file:///etc/passwd", HOSTS));
+        assertFalse(RemoteImages.isAllowed("https://169.254.169.254/latest/meta-data", HOSTS));
+        assertFalse(RemoteImages.isAllowed("https://cdn.leonardo.ai.example.com/image.jpg", HOSTS));
+        assertFalse(RemoteImages.isAllowed("not a url", HOSTS));
+        assertFalse(RemoteImages.isAllowed(null, HOSTS));
+    }
+
+    @Test
+    void refusesToOpenNonHttpsUrls() {
+        assertThrows(IOException.class, () -> RemoteImages.open("file:///etc/passwd"));
+        assertThrows(IOException.class, () -> RemoteImages.open("http://localhost:8080/"));
+    }
+}
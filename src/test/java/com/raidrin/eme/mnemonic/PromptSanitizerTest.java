@@ -0,0 +1,87 @@
+package com.raidrin.eme.mnemonic;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden-output test for PromptSanitizer: the compiled single-pass sanitizer must produce exactly
+ * what the original chain of replaceAll calls in MnemonicGenerationService produced.
+ */
+class PromptSanitizerTest {
+
+    private static final String[] PROMPTS = {
+            "A knight with a sword fighting a dragon in a battle",
+            "Two friends hug and KISS under the moon, romantic scene",
+            "A Politician at an election rally, people vote",
+            "A holy temple where monks pray to a goddess",
+            "A man drinking beer and wine, smoking a cigar",
+            "A scary horror nightmare, a sad girl crying",
+            "Gun-shaped cloud; gunshot; guns; gun_shot; GUN! (gun)",
+            "  Multiple   spaces\tand\ttabs\n\nand newlines  ",
+            "war-torn city, WAR, War's end, warrior",
+            "Café with a knife, naïve fear, déjà vu",
+            "Hindi नमस्ते fight देवता love",
+            "killkill kill2 _kill kill_ kill",
+            "",
+            "   ",
+            "A peaceful garden with a friendly cat",
+            "Ünïcödé dead and DEAD and Dead",
+            "emoji 😀 gun 😀gun gun😀",
+            "combining fear\u0301 kill \u0301kill"
+    };
+
+    private static PromptSanitizer sanitizer;
+
+    @BeforeAll
+    static void loadWordList() throws IOException {
+        sanitizer = new PromptSanitizer(new InputStreamReader(
+                PromptSanitizerTest.class.getResourceAsStream("/prompt-sanitizer-words.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMatchesRegexImplementation() {
+        for (String prompt : PROMPTS) {
+            assertEquals(regexSanitize(prompt), sanitizer.sanitize(prompt), "Prompt: " + prompt);
+        }
+    }
+
+    @Test
+    void testGoldenOutputs() {
+        assertEquals("A knight with a item item a dragon in a item",
+                sanitizer.sanitize("A knight with a sword fighting a dragon in a battle"));
+        assertEquals("item-shaped cloud; gunshot; guns; gun_shot; item! (item)",
+                sanitizer.sanitize("Gun-shaped cloud; gunshot; guns; gun_shot; GUN! (gun)"));
+        assertEquals("Multiple spaces and tabs and newlines",
+                sanitizer.sanitize("  Multiple   spaces\tand\ttabs\n\nand newlines  "));
+    }
+
+    @Test
+    void testLaterGroupsApplyToEarlierReplacements() throws IOException {
+        PromptSanitizer chained = new PromptSanitizer(new StringReader("""
+                # comment
+                fruit: apple
+                food: fruit bread
+                """));
+        assertEquals("food food food", chained.sanitize("apple fruit Bread"));
+    }
+
+    /**
+     * The original sanitizeImagePrompt replacement chain, kept as the reference implementation.
+     */
+    private static String regexSanitize(String sanitized) {
+        sanitized = sanitized.replaceAll("(?i)\\b(weapon|gun|knife|sword|blade|blood|violence|fight|fighting|attack|kill|death|dead|murder|war|battle|combat|injury|hurt|wound|dangerous)\\b", "item");
+        sanitized = sanitized.replaceAll("(?i)\\b(sexy|sensual|seductive|romantic|intimate|kiss|embrace|hug|love|dating|flirt)\\b", "friendly");
+        sanitized = sanitized.replaceAll("(?i)\\b(political|politics|politician|election|vote|protest|rally|demonstration)\\b", "gathering");
+        sanitized = sanitized.replaceAll("(?i)\\b(religious|religion|worship|pray|prayer|sacred|holy|divine|god|goddess|deity)\\b", "peaceful");
+        sanitized = sanitized.replaceAll("(?i)\\b(alcohol|beer|wine|liquor|drunk|drug|smoking|cigarette|cigar|tobacco)\\b", "beverage");
+        sanitized = sanitized.replaceAll("(?i)\\b(scary|horror|terrifying|nightmare|fear|afraid|panic|scream|crying|sad|depressed)\\b", "surprised");
+        return sanitized.replaceAll("\\s+", " ").trim();
+    }
+}
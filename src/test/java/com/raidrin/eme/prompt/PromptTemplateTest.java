@@ -0,0 +1,63 @@
+package com.raidrin.eme.prompt;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplateTest {
+
+    @Test
+    void rendersPlaceholders() {
+        PromptTemplate template = new PromptTemplate("t", "Translate '{{text}}' to {{ language }}: {{text}}");
+
+        assertEquals("Translate 'namaste' to English: namaste",
+                template.render(Map.of("text", "namaste", "language", "English")));
+        assertEquals(Set.of("text", "language"), template.placeholderNames());
+    }
+
+    @Test
+    void staticPrefixEndsAtFirstPlaceholder() {
+        PromptTemplate template = new PromptTemplate("t", "Fixed instructions.\n\nWORD: {{word}}");
+
+        assertEquals("Fixed instructions.\n\nWORD: ", template.staticPrefix());
+        assertTrue(template.render(Map.of("word", "a")).startsWith(template.staticPrefix()));
+        assertTrue(template.render(Map.of("word", "b")).startsWith(template.staticPrefix()));
+    }
+
+    @Test
+    void keepsSingleBracesLiteral() {
+        PromptTemplate template = new PromptTemplate("t", "{\n  \"index\": {{index}}\n}");
+
+        assertEquals("{\n  \"index\": 3\n}", template.render(Map.of("index", 3)));
+    }
+
+    @Test
+    void rejectsMissingValues() {
+        PromptTemplate template = new PromptTemplate("t", "{{a}} and {{b}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("a", "x")));
+    }
+
+    @Test
+    void rejectsMalformedTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> new PromptTemplate("t", "open {{name"));
+        assertThrows(IllegalArgumentException.class, () -> new PromptTemplate("t", "empty {{ }}"));
+    }
+
+    @Test
+    void mnemonicPromptsShareTheInstructionsPrefix() throws IOException {
+        PromptTemplates templates = new PromptTemplates();
+        templates.load();
+        String instructions = templates.get("mnemonic-instructions").render(Map.of());
+
+        assertFalse(instructions.contains("{{"));
+        assertTrue(templates.get("mnemonic").staticPrefix().startsWith(instructions));
+        assertTrue(templates.get("mnemonic-batch").staticPrefix().startsWith(instructions));
+        assertTrue(templates.get("enrichment").staticPrefix().startsWith(instructions));
+        assertTrue(templates.get("mnemonic-batch-word").placeholderNames().contains("characterName"));
+    }
+}
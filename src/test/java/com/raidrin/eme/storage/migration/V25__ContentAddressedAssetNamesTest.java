@@ -0,0 +1,100 @@
+package com.raidrin.eme.storage.migration;
+
+import com.raidrin.eme.storage.blob.LocalBlobStore;
+import com.raidrin.eme.util.AssetPaths;
+import org.flywaydb.core.api.callback.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for V25__ContentAddressedAssetNames file handling: legacy files are copied to their
+ * sharded location and only deleted once the migration has committed.
+ */
+class V25__ContentAddressedAssetNamesTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path blobRoot;
+
+    private LegacyAssetCleanup cleanup;
+    private LocalBlobStore blobStore;
+    private V25__ContentAddressedAssetNames migration;
+
+    @BeforeEach
+    void setUp() {
+        cleanup = new LegacyAssetCleanup();
+        blobStore = new LocalBlobStore(blobRoot);
+        migration = new V25__ContentAddressedAssetNames(blobStore, cleanup);
+    }
+
+    @Test
+    void testCopiesAndDeletesLegacyFileAfterMigrate() throws IOException {
+        Path legacy = write(root.resolve("sunset_dog_1700000000000.jpg"), "image");
+        String newName = V25__ContentAddressedAssetNames.contentAddressedName(legacy.getFileName().toString());
+
+        assertEquals(V25__ContentAddressedAssetNames.CopyResult.COPIED,
+                migration.copyFile(root, legacy.getFileName().toString(), newName, legacy.getFileName().toString()));
+        Path target = AssetPaths.resolve(root, newName);
+        assertEquals("image", Files.readString(target));
+        assertTrue(Files.exists(legacy), "legacy file must survive until the migration commits");
+
+        cleanup.handle(Event.AFTER_MIGRATE, null);
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(target));
+    }
+
+    @Test
+    void testFailedMigrationKeepsLegacyFileAndRerunIsIdempotent() throws IOException {
+        Path legacy = write(root.resolve("hello_aGVsbG8x.mp3"), "audio");
+        String newName = V25__ContentAddressedAssetNames.contentAddressedName("hello_aGVsbG8x.mp3");
+
+        migration.copyFile(root, "hello_aGVsbG8x.mp3", newName, "audio/hello_aGVsbG8x.mp3");
+        cleanup.handle(Event.AFTER_MIGRATE_ERROR, null);
+        assertTrue(Files.exists(legacy));
+
+        assertEquals(V25__ContentAddressedAssetNames.CopyResult.EXISTS,
+                migration.copyFile(root, "hello_aGVsbG8x.mp3", newName, "audio/hello_aGVsbG8x.mp3"));
+        cleanup.handle(Event.AFTER_MIGRATE, null);
+        assertFalse(Files.exists(legacy));
+        assertEquals("audio", Files.readString(AssetPaths.resolve(root, newName)));
+    }
+
+    @Test
+    void testFetchesFilesOnlyInBlobStore() throws IOException {
+        blobStore.put("cat_1700000000000.jpg",
+                new ByteArrayInputStream("remote".getBytes(StandardCharsets.UTF_8)), "image/jpeg");
+        String newName = V25__ContentAddressedAssetNames.contentAddressedName("cat_1700000000000.jpg");
+
+        assertEquals(V25__ContentAddressedAssetNames.CopyResult.FETCHED,
+                migration.copyFile(root, "cat_1700000000000.jpg", newName, "cat_1700000000000.jpg"));
+        assertEquals("remote", Files.readString(AssetPaths.resolve(root, newName)));
+        assertEquals(V25__ContentAddressedAssetNames.CopyResult.MISSING,
+                migration.copyFile(root, "gone.jpg", "gone_3fa4c1d29b07e85a.jpg", "gone.jpg"));
+    }
+
+    @Test
+    void testThumbnailKeepsMatchingItsImage() {
+        String image = V25__ContentAddressedAssetNames.contentAddressedName("sunset_dog_1700000000000.jpg");
+        String thumbnail = V25__ContentAddressedAssetNames.contentAddressedName("sunset_dog_1700000000000_thumb.jpg");
+        assertTrue(AssetPaths.isContentAddressed(image));
+        assertEquals(image.replace(".jpg", "_thumb.jpg"), thumbnail);
+        assertEquals(V25__ContentAddressedAssetNames.contentAddressedName("hello_aGVsbG8x"),
+                V25__ContentAddressedAssetNames.contentAddressedName("hello_aGVsbG8x.mp3").replace(".mp3", ""));
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,33 @@
+package com.raidrin.eme.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetPathsTest {
+
+    private static final Path ROOT = Paths.get("images");
+
+    @Test
+    void shardsContentAddressedNamesAndTheirVariants() {
+        Path shard = ROOT.resolve("3f").resolve("a4");
+        assertEquals(shard.resolve("cat_3fa4c1d29b07e85a.jpg"), AssetPaths.resolve(ROOT, "cat_3fa4c1d29b07e85a.jpg"));
+        assertEquals(shard.resolve("cat_3fa4c1d29b07e85a_thumb.jpg"), AssetPaths.resolve(ROOT, "cat_3fa4c1d29b07e85a_thumb.jpg"));
+        assertEquals(shard.resolve("cat_3fa4c1d29b07e85a_medium_thumb.jpg"),
+                AssetPaths.resolve(ROOT, "cat_3fa4c1d29b07e85a_medium_thumb.jpg"));
+    }
+
+    @Test
+    void keepsLegacyNamesFlat() {
+        assertEquals(ROOT.resolve("sunset_dog.jpg"), AssetPaths.resolve(ROOT, "sunset_dog.jpg"));
+    }
+
+    @Test
+    void insertsVariantSuffixBeforeExtension() {
+        assertEquals("cat_3fa4c1d29b07e85a_medium.jpg", AssetPaths.variantName("cat_3fa4c1d29b07e85a.jpg", "_medium"));
+        assertEquals("cat_3fa4c1d29b07e85a_medium", AssetPaths.variantName("cat_3fa4c1d29b07e85a", "_medium"));
+    }
+}